@@ -33,7 +33,7 @@ CREATE TABLE `finance_account` (
   `currency` varchar(10) COLLATE utf8mb4_unicode_ci DEFAULT 'CNY',
   `description` varchar(255) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
   PRIMARY KEY (`account_id`)
-) ENGINE=InnoDB AUTO_INCREMENT=34 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+) ENGINE=InnoDB AUTO_INCREMENT=38 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
 --
@@ -42,10 +42,63 @@ CREATE TABLE `finance_account` (
 
 LOCK TABLES `finance_account` WRITE;
 /*!40000 ALTER TABLE `finance_account` DISABLE KEYS */;
-INSERT INTO `finance_account` VALUES (1,NULL,0,'资产','ASSET','1000','DEBIT','CNY',NULL),(2,NULL,0,'负债','LIABILITY','2000','CREDIT','CNY',NULL),(3,NULL,0,'所有者权益','EQUITY','3000','CREDIT','CNY',NULL),(4,NULL,0,'收入','INCOME','4000','CREDIT','CNY',NULL),(5,NULL,0,'费用','EXPENSE','5000','DEBIT','CNY',NULL),(6,NULL,1,'流动资产','ASSET','1100','DEBIT','CNY',NULL),(7,NULL,1,'非流动资产','ASSET','1200','DEBIT','CNY',NULL),(8,NULL,6,'货币资金','ASSET','1001','DEBIT','CNY',NULL),(9,NULL,6,'应收账款','ASSET','1002','DEBIT','CNY',NULL),(10,NULL,6,'存货','ASSET','1003','DEBIT','CNY',NULL),(11,NULL,6,'其他流动资产','ASSET','1004','DEBIT','CNY',NULL),(12,NULL,7,'固定资产','ASSET','1601','DEBIT','CNY',NULL),(13,NULL,7,'累计折旧','ASSET','1602','CREDIT','CNY',NULL),(14,NULL,2,'流动负债','LIABILITY','2100','CREDIT','CNY',NULL),(15,NULL,2,'长期负债','LIABILITY','2200','CREDIT','CNY',NULL),(16,NULL,14,'短期借款','LIABILITY','2201','CREDIT','CNY',NULL),(17,NULL,14,'应付账款','LIABILITY','2202','CREDIT','CNY',NULL),(18,NULL,14,'应付职工薪酬','LIABILITY','2203','CREDIT','CNY',NULL),(19,NULL,14,'其他流动负债','LIABILITY','2209','CREDIT','CNY',NULL),(20,NULL,3,'实收资本','EQUITY','3001','CREDIT','CNY',NULL),(21,NULL,3,'留存收益','EQUITY','3002','CREDIT','CNY',NULL),(22,NULL,3,'本年利润','EQUITY','3003','CREDIT','CNY',NULL),(23,NULL,4,'主营业务收入','INCOME','6001','CREDIT','CNY',NULL),(24,NULL,5,'主营业务成本','EXPENSE','6401','DEBIT','CNY',NULL),(25,NULL,5,'管理费用','EXPENSE','6602','DEBIT','CNY',NULL),(27,NULL,25,'管理费用-工资','EXPENSE','660201','DEBIT','CNY',NULL),(28,NULL,1,'应收账款','ASSET','1122','DEBIT','CNY',NULL),(29,NULL,1,'库存商品','ASSET','1405','DEBIT','CNY',NULL),(30,NULL,25,'管理费用-办公费','EXPENSE','660202','DEBIT','CNY',NULL),(31,NULL,5,'销售费用','EXPENSE','6601','DEBIT','CNY',NULL),(32,NULL,5,'财务费用','EXPENSE','6603','DEBIT','CNY',NULL),(33,NULL,3,'本年利润','EQUITY','3103','CREDIT','CNY',NULL);
+INSERT INTO `finance_account` VALUES (1,NULL,0,'资产','ASSET','1000','DEBIT','CNY',NULL),(2,NULL,0,'负债','LIABILITY','2000','CREDIT','CNY',NULL),(3,NULL,0,'所有者权益','EQUITY','3000','CREDIT','CNY',NULL),(4,NULL,0,'收入','INCOME','4000','CREDIT','CNY',NULL),(5,NULL,0,'费用','EXPENSE','5000','DEBIT','CNY',NULL),(6,NULL,1,'流动资产','ASSET','1100','DEBIT','CNY',NULL),(7,NULL,1,'非流动资产','ASSET','1200','DEBIT','CNY',NULL),(8,NULL,6,'货币资金','ASSET','1001','DEBIT','CNY',NULL),(9,NULL,6,'应收账款','ASSET','1002','DEBIT','CNY',NULL),(10,NULL,6,'存货','ASSET','1003','DEBIT','CNY',NULL),(11,NULL,6,'其他流动资产','ASSET','1004','DEBIT','CNY',NULL),(12,NULL,7,'固定资产','ASSET','1601','DEBIT','CNY',NULL),(13,NULL,7,'累计折旧','ASSET','1602','CREDIT','CNY',NULL),(14,NULL,2,'流动负债','LIABILITY','2100','CREDIT','CNY',NULL),(15,NULL,2,'长期负债','LIABILITY','2200','CREDIT','CNY',NULL),(16,NULL,14,'短期借款','LIABILITY','2201','CREDIT','CNY',NULL),(17,NULL,14,'应付账款','LIABILITY','2202','CREDIT','CNY',NULL),(18,NULL,14,'应付职工薪酬','LIABILITY','2203','CREDIT','CNY',NULL),(19,NULL,14,'其他流动负债','LIABILITY','2209','CREDIT','CNY',NULL),(20,NULL,3,'实收资本','EQUITY','3001','CREDIT','CNY',NULL),(21,NULL,3,'留存收益','EQUITY','3002','CREDIT','CNY',NULL),(22,NULL,3,'本年利润','EQUITY','3003','CREDIT','CNY',NULL),(23,NULL,4,'主营业务收入','INCOME','6001','CREDIT','CNY',NULL),(24,NULL,5,'主营业务成本','EXPENSE','6401','DEBIT','CNY',NULL),(25,NULL,5,'管理费用','EXPENSE','6602','DEBIT','CNY',NULL),(27,NULL,25,'管理费用-工资','EXPENSE','660201','DEBIT','CNY',NULL),(28,NULL,1,'应收账款','ASSET','1122','DEBIT','CNY',NULL),(29,NULL,1,'库存商品','ASSET','1405','DEBIT','CNY',NULL),(30,NULL,25,'管理费用-办公费','EXPENSE','660202','DEBIT','CNY',NULL),(31,NULL,5,'销售费用','EXPENSE','6601','DEBIT','CNY',NULL),(32,NULL,5,'财务费用','EXPENSE','6603','DEBIT','CNY',NULL),(33,NULL,3,'本年利润','EQUITY','3103','CREDIT','CNY',NULL),(34,NULL,6,'预付账款','ASSET','1123','DEBIT','CNY',NULL),(35,NULL,14,'预收账款','LIABILITY','2205','CREDIT','CNY',NULL),(36,NULL,14,'应交税费','LIABILITY','2221','CREDIT','CNY',NULL),(37,NULL,14,'其他应付款','LIABILITY','2241','CREDIT','CNY',NULL);
 /*!40000 ALTER TABLE `finance_account` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `finance_account_balance`
+--
+
+DROP TABLE IF EXISTS `finance_account_balance`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_account_balance` (
+  `account_id` bigint NOT NULL,
+  `book_id` bigint NOT NULL DEFAULT '0' COMMENT '0 表示未指定账簿的凭证',
+  `debit_total` decimal(18,2) NOT NULL DEFAULT '0.00' COMMENT '已过账借方累计',
+  `credit_total` decimal(18,2) NOT NULL DEFAULT '0.00' COMMENT '已过账贷方累计',
+  `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`account_id`,`book_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_account_balance`
+--
+
+LOCK TABLES `finance_account_balance` WRITE;
+/*!40000 ALTER TABLE `finance_account_balance` DISABLE KEYS */;
+INSERT INTO `finance_account_balance` VALUES (8,0,0.00,4060.00,'2025-12-12 14:15:27'),(9,0,25000.00,0.00,'2025-12-10 19:04:41'),(9,1,1000000.00,0.00,'2025-12-09 23:14:03'),(10,1,2440.00,0.00,'2025-12-10 13:43:59'),(17,0,560.00,2120.00,'2025-12-12 14:15:27'),(17,1,0.00,2440.00,'2025-12-10 13:43:59'),(20,1,0.00,1000000.00,'2025-12-09 23:14:03'),(23,0,0.00,25000.00,'2025-12-10 19:04:41'),(27,0,3500.00,0.00,'2025-12-10 19:53:15'),(29,0,2120.00,0.00,'2025-12-11 08:31:15');
+/*!40000 ALTER TABLE `finance_account_balance` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_balance_snapshot`
+--
+
+DROP TABLE IF EXISTS `finance_balance_snapshot`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_balance_snapshot` (
+  `period` char(7) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '会计期间 yyyy-MM',
+  `account_id` bigint NOT NULL,
+  `book_id` bigint NOT NULL DEFAULT '0',
+  `debit_total` decimal(18,2) NOT NULL DEFAULT '0.00' COMMENT '截至期末借方累计',
+  `credit_total` decimal(18,2) NOT NULL DEFAULT '0.00' COMMENT '截至期末贷方累计',
+  PRIMARY KEY (`period`,`account_id`,`book_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_balance_snapshot`
+--
+
+LOCK TABLES `finance_balance_snapshot` WRITE;
+/*!40000 ALTER TABLE `finance_balance_snapshot` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_balance_snapshot` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `finance_book`
 --
@@ -145,7 +198,11 @@ CREATE TABLE `finance_invoice` (
   `total_amount` decimal(15,2) DEFAULT NULL,
   `status` varchar(20) COLLATE utf8mb4_unicode_ci DEFAULT 'DRAFT',
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
-  PRIMARY KEY (`invoice_id`)
+  `transaction_id` bigint DEFAULT NULL,
+  `paid_amount` decimal(15,2) NOT NULL DEFAULT '0.00' COMMENT '已核销金额',
+  PRIMARY KEY (`invoice_id`),
+  KEY `idx_invoice_status` (`status`,`invoice_id`),
+  KEY `idx_invoice_customer_due` (`customer_id`,`status`,`due_date`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -172,7 +229,8 @@ CREATE TABLE `finance_invoice_item` (
   `quantity` decimal(10,2) DEFAULT NULL,
   `unit_price` decimal(15,2) DEFAULT NULL,
   `line_amount` decimal(15,2) DEFAULT NULL,
-  PRIMARY KEY (`item_id`)
+  PRIMARY KEY (`item_id`),
+  KEY `idx_invoice_item_invoice` (`invoice_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -185,6 +243,227 @@ LOCK TABLES `finance_invoice_item` WRITE;
 /*!40000 ALTER TABLE `finance_invoice_item` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `finance_journal_checkpoint`
+--
+
+DROP TABLE IF EXISTS `finance_journal_checkpoint`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_journal_checkpoint` (
+  `journal_name` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `applied_offset` bigint NOT NULL DEFAULT '0' COMMENT '已写入数据库的日志偏移 (不含)',
+  `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`journal_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_journal_checkpoint`
+--
+
+LOCK TABLES `finance_journal_checkpoint` WRITE;
+/*!40000 ALTER TABLE `finance_journal_checkpoint` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_journal_checkpoint` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_journal_rejection`
+--
+
+DROP TABLE IF EXISTS `finance_journal_rejection`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_journal_rejection` (
+  `rejection_id` bigint NOT NULL AUTO_INCREMENT,
+  `journal_name` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `end_offset` bigint NOT NULL COMMENT '该记录在日志中的结束偏移',
+  `payload` mediumtext COLLATE utf8mb4_unicode_ci COMMENT '日志记录原文 (凭证 JSON)',
+  `message` varchar(500) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '拒绝原因',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`rejection_id`),
+  UNIQUE KEY `uk_journal_rejection_offset` (`journal_name`,`end_offset`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_journal_rejection`
+--
+
+LOCK TABLES `finance_journal_rejection` WRITE;
+/*!40000 ALTER TABLE `finance_journal_rejection` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_journal_rejection` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_payment`
+--
+
+DROP TABLE IF EXISTS `finance_payment`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_payment` (
+  `payment_ref` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '收付款流水号',
+  `direction` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'RECEIVE=收款, PAY=付款',
+  `customer_id` bigint NOT NULL COMMENT '客户 / 供应商ID',
+  `amount` decimal(15,2) NOT NULL,
+  `applied_amount` decimal(15,2) NOT NULL DEFAULT '0.00' COMMENT '核销到发票的金额',
+  `unapplied_amount` decimal(15,2) NOT NULL DEFAULT '0.00' COMMENT '未核销、转入预收 / 预付的金额',
+  `transaction_id` bigint NOT NULL COMMENT '收付款凭证ID',
+  `payment_date` date NOT NULL,
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`payment_ref`),
+  KEY `idx_payment_tx` (`transaction_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_payment`
+--
+
+LOCK TABLES `finance_payment` WRITE;
+/*!40000 ALTER TABLE `finance_payment` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_payment` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_payroll_run`
+--
+
+DROP TABLE IF EXISTS `finance_payroll_run`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_payroll_run` (
+  `period` char(7) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '工资月份 yyyy-MM',
+  `book_id` bigint NOT NULL DEFAULT '0',
+  `transaction_id` bigint NOT NULL COMMENT '计提凭证ID',
+  `voucher_no` varchar(32) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `employees` int NOT NULL DEFAULT '0' COMMENT '计入的人数',
+  `net_pay` decimal(15,2) NOT NULL DEFAULT '0.00' COMMENT '实发合计',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`period`,`book_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_payroll_run`
+--
+
+LOCK TABLES `finance_payroll_run` WRITE;
+/*!40000 ALTER TABLE `finance_payroll_run` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_payroll_run` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_period_close`
+--
+
+DROP TABLE IF EXISTS `finance_period_close`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_period_close` (
+  `period` char(7) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '会计期间 yyyy-MM',
+  `close_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`period`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_period_close`
+--
+
+LOCK TABLES `finance_period_close` WRITE;
+/*!40000 ALTER TABLE `finance_period_close` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_period_close` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_posting_rule`
+--
+
+DROP TABLE IF EXISTS `finance_posting_rule`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_posting_rule` (
+  `rule_id` bigint NOT NULL AUTO_INCREMENT,
+  `doc_type` varchar(32) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '单据类型，如 PURCHASE / SALE / PAY / RECEIVE / PAYROLL / PAYROLL_ACCRUE',
+  `line_no` int NOT NULL COMMENT '分录顺序',
+  `account_code` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '科目编码',
+  `dc_direction` int NOT NULL COMMENT '1=借, -1=贷',
+  `amount_expr` varchar(200) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '金额表达式，如 TOTAL、TOTAL-TAX、TOTAL*0.13',
+  `per_line` tinyint(1) NOT NULL DEFAULT '0' COMMENT '1=单据每条明细生成一行分录',
+  `summary` varchar(100) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '分录摘要，为空时取明细或单据摘要',
+  PRIMARY KEY (`rule_id`),
+  KEY `idx_posting_rule_doc` (`doc_type`,`line_no`)
+) ENGINE=InnoDB AUTO_INCREMENT=17 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_posting_rule`
+--
+
+LOCK TABLES `finance_posting_rule` WRITE;
+/*!40000 ALTER TABLE `finance_posting_rule` DISABLE KEYS */;
+INSERT INTO `finance_posting_rule` VALUES (1,'PURCHASE',1,'1405',1,'TOTAL',1,NULL),(2,'PURCHASE',2,'2202',-1,'TOTAL',0,'应付供应商'),(3,'SALE',1,'1122',1,'TOTAL',0,'应收客户款'),(4,'SALE',2,'6001',-1,'TOTAL',1,NULL),(5,'PAY',1,'2202',1,'TOTAL',0,'冲销应付账款'),(6,'PAY',3,'1002',-1,'TOTAL+UNAPPLIED',0,'银行转账支出'),(7,'RECEIVE',1,'1002',1,'TOTAL+UNAPPLIED',0,'收到客户汇款'),(8,'RECEIVE',2,'1122',-1,'TOTAL',0,'核销应收账款'),(9,'PAYROLL',1,'2203',1,'TOTAL',0,NULL),(10,'PAYROLL',2,'1002',-1,'TOTAL',0,NULL),(11,'PAYROLL_ACCRUE',1,'660201',1,'TOTAL',1,NULL),(12,'PAYROLL_ACCRUE',2,'2203',-1,'NET',1,NULL),(13,'PAYROLL_ACCRUE',3,'2241',-1,'SOCIAL+HOUSING',1,NULL),(14,'PAYROLL_ACCRUE',4,'2221',-1,'TAX',1,NULL),(15,'PAY',2,'1123',1,'UNAPPLIED',0,'预付供应商款'),(16,'RECEIVE',3,'2205',-1,'UNAPPLIED',0,'预收客户款');
+/*!40000 ALTER TABLE `finance_posting_rule` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_sequence`
+--
+
+DROP TABLE IF EXISTS `finance_sequence`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_sequence` (
+  `seq_name` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '表名 (主键号段) 或 voucher_no:账簿:yyyyMM (凭证号)',
+  `next_value` bigint NOT NULL DEFAULT '1' COMMENT '下一个未分配的号',
+  `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`seq_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_sequence`
+--
+
+LOCK TABLES `finance_sequence` WRITE;
+/*!40000 ALTER TABLE `finance_sequence` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_sequence` ENABLE KEYS */;
+UNLOCK TABLES;
+
+--
+-- Table structure for table `finance_settlement`
+--
+
+DROP TABLE IF EXISTS `finance_settlement`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `finance_settlement` (
+  `settlement_id` bigint NOT NULL AUTO_INCREMENT,
+  `payment_ref` varchar(64) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '收付款流水号',
+  `direction` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'RECEIVE=收款核销销售发票, PAY=付款核销采购发票',
+  `invoice_id` bigint NOT NULL,
+  `transaction_id` bigint NOT NULL COMMENT '收付款凭证ID',
+  `amount` decimal(15,2) NOT NULL COMMENT '本次核销金额',
+  `settle_date` date NOT NULL,
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`settlement_id`),
+  KEY `idx_settlement_invoice` (`invoice_id`),
+  KEY `idx_settlement_tx` (`transaction_id`),
+  KEY `idx_settlement_ref` (`payment_ref`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `finance_settlement`
+--
+
+LOCK TABLES `finance_settlement` WRITE;
+/*!40000 ALTER TABLE `finance_settlement` DISABLE KEYS */;
+/*!40000 ALTER TABLE `finance_settlement` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `finance_split`
 --
@@ -200,7 +479,9 @@ CREATE TABLE `finance_split` (
   `amount` decimal(15,2) NOT NULL,
   `reconcile_state` char(1) COLLATE utf8mb4_unicode_ci DEFAULT 'n',
   `summary` varchar(255) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
-  PRIMARY KEY (`split_id`)
+  PRIMARY KEY (`split_id`),
+  KEY `idx_split_account_tx` (`account_id`,`transaction_id`,`dc_direction`,`amount`),
+  KEY `idx_split_tx` (`transaction_id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=27 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -228,7 +509,11 @@ CREATE TABLE `finance_transaction` (
   `description` varchar(255) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
   `status` varchar(20) COLLATE utf8mb4_unicode_ci DEFAULT 'DRAFT' COMMENT '状态: DRAFT-草稿, POSTED-已过账',
-  PRIMARY KEY (`transaction_id`)
+  `voucher_no` varchar(32) COLLATE utf8mb4_unicode_ci DEFAULT NULL COMMENT '凭证号 yyyyMM-序号，按 账簿 + 月份 编号',
+  PRIMARY KEY (`transaction_id`),
+  KEY `idx_tx_status_date` (`status`,`voucher_date`),
+  KEY `idx_tx_date_id` (`voucher_date`,`transaction_id`),
+  KEY `idx_tx_voucher_no` (`voucher_no`)
 ) ENGINE=InnoDB AUTO_INCREMENT=13 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -238,7 +523,7 @@ CREATE TABLE `finance_transaction` (
 
 LOCK TABLES `finance_transaction` WRITE;
 /*!40000 ALTER TABLE `finance_transaction` DISABLE KEYS */;
-INSERT INTO `finance_transaction` VALUES (1,1,'2025-12-09','初始化-老板注资','2025-12-09 23:14:03','POSTED'),(7,1,'2025-12-10','采购入库 - ','2025-12-10 13:43:59','POSTED'),(8,NULL,'2025-12-10','销售出库 - ','2025-12-10 19:04:41','POSTED'),(9,NULL,'2025-12-10','2025-12 工资发放','2025-12-10 19:53:15','POSTED'),(10,NULL,'2025-12-11','采购办公用品','2025-12-11 08:06:46','POSTED'),(11,NULL,'2025-12-11','采购入库 - ','2025-12-11 08:31:15','POSTED'),(12,NULL,'2025-12-12','付款 - 采购办公用品','2025-12-12 14:15:27','POSTED');
+INSERT INTO `finance_transaction` VALUES (1,1,'2025-12-09','初始化-老板注资','2025-12-09 23:14:03','POSTED',NULL),(7,1,'2025-12-10','采购入库 - ','2025-12-10 13:43:59','POSTED',NULL),(8,NULL,'2025-12-10','销售出库 - ','2025-12-10 19:04:41','POSTED',NULL),(9,NULL,'2025-12-10','2025-12 工资发放','2025-12-10 19:53:15','POSTED',NULL),(10,NULL,'2025-12-11','采购办公用品','2025-12-11 08:06:46','POSTED',NULL),(11,NULL,'2025-12-11','采购入库 - ','2025-12-11 08:31:15','POSTED',NULL),(12,NULL,'2025-12-12','付款 - 采购办公用品','2025-12-12 14:15:27','POSTED',NULL);
 /*!40000 ALTER TABLE `finance_transaction` ENABLE KEYS */;
 UNLOCK TABLES;
 
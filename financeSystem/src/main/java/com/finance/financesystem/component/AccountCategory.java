@@ -0,0 +1,30 @@
+package com.finance.financesystem.component;
+
+/**
+ * 科目报表分类
+ *
+ * 每个科目在加载科目表时解析一次，报表按分类直接累加，不再逐行做字符串匹配。
+ */
+public enum AccountCategory {
+    /** 收入 (主营业务收入等) */
+    REVENUE,
+    /** 成本 (主营业务成本等，64xx) */
+    COST,
+    /** 经营费用 (管理费用、销售费用等) */
+    OPERATING_EXPENSE,
+    /** 财务费用 (6603) */
+    FINANCE_EXPENSE,
+    /** 现金及银行存款 */
+    CASH,
+    /** 本年利润 */
+    PROFIT_CARRY_FORWARD,
+    /** 其他 (资产、负债、权益等) */
+    OTHER;
+
+    /**
+     * 是否计入费用 (成本 / 经营费用 / 财务费用)
+     */
+    public boolean isExpense() {
+        return this == COST || this == OPERATING_EXPENSE || this == FINANCE_EXPENSE;
+    }
+}
@@ -0,0 +1,105 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.FinanceAccount;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 科目分类器
+ *
+ * 科目代码规则放在一棵前缀树里，一次遍历代码即可得到最长前缀 / 精确匹配的分类；
+ * 再结合科目类型和名称，按原报表的判断顺序得出最终分类：
+ * 收入 > 费用 (成本 > 财务费用 > 经营费用) > 现金 > 本年利润 > 其他
+ */
+public final class AccountClassifier {
+
+    public static final AccountClassifier DEFAULT = new AccountClassifier();
+
+    private final TrieNode root = new TrieNode();
+
+    private AccountClassifier() {
+        prefix("4", AccountCategory.REVENUE);
+        exact("6001", AccountCategory.REVENUE);
+        prefix("5", AccountCategory.OPERATING_EXPENSE);
+        prefix("66", AccountCategory.OPERATING_EXPENSE);
+        prefix("64", AccountCategory.COST);
+        prefix("6603", AccountCategory.FINANCE_EXPENSE);
+        exact("1001", AccountCategory.CASH);
+        exact("1002", AccountCategory.CASH);
+        exact("3103", AccountCategory.PROFIT_CARRY_FORWARD);
+        exact("3131", AccountCategory.PROFIT_CARRY_FORWARD);
+    }
+
+    public AccountCategory classify(FinanceAccount acc) {
+        String type = acc.getAccountType() != null ? acc.getAccountType() : "";
+        String name = acc.getAccountName() != null ? acc.getAccountName() : "";
+        AccountCategory byCode = matchCode(acc.getAccountCode());
+
+        if ("INCOME".equals(type) || byCode == AccountCategory.REVENUE || name.contains("收入")) {
+            return AccountCategory.REVENUE;
+        }
+        if ("EXPENSE".equals(type) || (byCode != null && byCode.isExpense())) {
+            if (byCode == AccountCategory.COST || name.contains("成本")) {
+                return AccountCategory.COST;
+            }
+            if (byCode == AccountCategory.FINANCE_EXPENSE || name.contains("财务费用")) {
+                return AccountCategory.FINANCE_EXPENSE;
+            }
+            return AccountCategory.OPERATING_EXPENSE;
+        }
+        if (byCode == AccountCategory.CASH
+                || name.contains("货币资金") || name.contains("现金") || name.contains("银行存款")) {
+            return AccountCategory.CASH;
+        }
+        if (byCode == AccountCategory.PROFIT_CARRY_FORWARD || name.contains("本年利润")) {
+            return AccountCategory.PROFIT_CARRY_FORWARD;
+        }
+        return AccountCategory.OTHER;
+    }
+
+    /**
+     * 按科目代码查前缀树：代码完全匹配到精确规则时取精确规则，否则取最长前缀规则
+     *
+     * @return 没有任何规则命中时返回 null
+     */
+    AccountCategory matchCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        TrieNode node = root;
+        AccountCategory longestPrefix = null;
+        for (int i = 0; i < code.length(); i++) {
+            node = node.children.get(code.charAt(i));
+            if (node == null) {
+                return longestPrefix;
+            }
+            if (node.prefixCategory != null) {
+                longestPrefix = node.prefixCategory;
+            }
+        }
+        return node.exactCategory != null ? node.exactCategory : longestPrefix;
+    }
+
+    private void prefix(String code, AccountCategory category) {
+        insert(code).prefixCategory = category;
+    }
+
+    private void exact(String code, AccountCategory category) {
+        insert(code).exactCategory = category;
+    }
+
+    private TrieNode insert(String code) {
+        TrieNode node = root;
+        for (int i = 0; i < code.length(); i++) {
+            node = node.children.computeIfAbsent(code.charAt(i), c -> new TrieNode());
+        }
+        return node;
+    }
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>(4);
+        AccountCategory prefixCategory;
+        AccountCategory exactCategory;
+    }
+}
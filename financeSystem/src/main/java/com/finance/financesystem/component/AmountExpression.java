@@ -0,0 +1,190 @@
+package com.finance.financesystem.component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 过账规则金额表达式编译器
+ *
+ * 语法：expr := term (('+' | '-') term)*，term := factor (('*' | '/') 常数)*，
+ * factor := 变量 | 常数 | '(' expr ')' | '-' factor。
+ * 变量见 {@link PostingVar}，常数为十进制数 (金额常数按元，如 100.50)。
+ *
+ * 编译结果是一棵 lambda 树，求值时只做 long 运算和数组下标访问；
+ * 乘除常数按 HALF_UP 舍入到分，溢出抛 ArithmeticException。
+ */
+final class AmountExpression {
+
+    /**
+     * 编译后的表达式
+     */
+    @FunctionalInterface
+    interface Compiled {
+        /**
+         * @param vars 按 {@link PostingVar} 序号排列的金额 (分)
+         * @return 金额 (分)
+         */
+        long eval(long[] vars);
+    }
+
+    private final String text;
+    private int pos;
+
+    private AmountExpression(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @throws IllegalArgumentException 语法错误或未知变量
+     */
+    static Compiled compile(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("金额表达式为空");
+        }
+        AmountExpression parser = new AmountExpression(text);
+        Compiled expr = parser.expr();
+        parser.skipSpaces();
+        if (parser.pos != text.length()) {
+            throw parser.error("多余的字符");
+        }
+        return expr;
+    }
+
+    private Compiled expr() {
+        Compiled left = term();
+        while (true) {
+            char op = peek();
+            if (op != '+' && op != '-') {
+                return left;
+            }
+            pos++;
+            Compiled l = left;
+            Compiled r = term();
+            left = op == '+' ? vars -> Math.addExact(l.eval(vars), r.eval(vars))
+                             : vars -> Math.subtractExact(l.eval(vars), r.eval(vars));
+        }
+    }
+
+    private Compiled term() {
+        Compiled left = factor();
+        while (true) {
+            char op = peek();
+            if (op != '*' && op != '/') {
+                return left;
+            }
+            pos++;
+            BigDecimal c = number();
+            if (c == null) {
+                throw error("乘除只支持常数");
+            }
+            left = op == '*' ? multiply(left, c) : divide(left, c);
+        }
+    }
+
+    private Compiled factor() {
+        char c = peek();
+        if (c == '(') {
+            pos++;
+            Compiled inner = expr();
+            if (peek() != ')') {
+                throw error("缺少 )");
+            }
+            pos++;
+            return inner;
+        }
+        if (c == '-') {
+            pos++;
+            Compiled inner = factor();
+            return vars -> Math.negateExact(inner.eval(vars));
+        }
+        BigDecimal constant = number();
+        if (constant != null) {
+            long cents = CentsLedger.toCents(constant.setScale(2, RoundingMode.HALF_UP));
+            return vars -> cents;
+        }
+        String name = identifier();
+        PostingVar var = PostingVar.find(name);
+        if (var == null) {
+            throw error(name.isEmpty() ? "缺少变量或常数" : "未知变量 " + name);
+        }
+        int index = var.ordinal();
+        return vars -> vars[index];
+    }
+
+    /**
+     * 金额 (分) × 常数：常数拆成 unscaled / 10^scale，整数运算后舍入
+     */
+    private Compiled multiply(Compiled left, BigDecimal factor) {
+        BigDecimal f = factor.stripTrailingZeros();
+        if (f.scale() <= 0) {
+            long k = f.longValueExact();
+            return vars -> Math.multiplyExact(left.eval(vars), k);
+        }
+        long unscaled = f.unscaledValue().longValueExact();
+        long divisor = BigDecimal.TEN.pow(f.scale()).longValueExact();
+        return vars -> divideRound(Math.multiplyExact(left.eval(vars), unscaled), divisor);
+    }
+
+    private Compiled divide(Compiled left, BigDecimal divisor) {
+        if (divisor.signum() == 0) {
+            throw error("除数为 0");
+        }
+        BigDecimal d = divisor.stripTrailingZeros();
+        long multiplier = d.scale() > 0 ? BigDecimal.TEN.pow(d.scale()).longValueExact() : 1L;
+        long unscaled = d.scale() > 0 ? d.unscaledValue().longValueExact() : d.longValueExact();
+        return vars -> divideRound(Math.multiplyExact(left.eval(vars), multiplier), unscaled);
+    }
+
+    /**
+     * 四舍五入 (HALF_UP，远离 0) 的整数除法
+     */
+    static long divideRound(long dividend, long divisor) {
+        long q = dividend / divisor;
+        long r = dividend % divisor;
+        if (Math.abs(r) * 2 >= Math.abs(divisor)) {
+            q += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return q;
+    }
+
+    private BigDecimal number() {
+        skipSpaces();
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (start == pos) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("常数格式错误");
+        }
+    }
+
+    private String identifier() {
+        skipSpaces();
+        int start = pos;
+        while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+            pos++;
+        }
+        return text.substring(start, pos);
+    }
+
+    private char peek() {
+        skipSpaces();
+        return pos < text.length() ? text.charAt(pos) : '\0';
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("金额表达式 \"" + text + "\" 第 " + (pos + 1) + " 个字符: " + message);
+    }
+}
@@ -0,0 +1,128 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.FinanceAccount;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 以「分」为单位的科目借贷累加器
+ *
+ * 金额字段均为 decimal(15,2)，乘以 100 后一定落在 long 范围内。
+ * 累加器按 {@link ChartOfAccounts} 的科目序号排成两个 long 数组，
+ * 累加过程不装箱、不创建 BigDecimal，只在输出报表时用 {@link #toAmount(long)} 转回。
+ * 溢出时抛 ArithmeticException 而不是静默回绕。
+ *
+ * 非线程安全，每次报表计算各自 new 一个。
+ */
+public final class CentsLedger {
+
+    /** 借方，与 finance_split.dc_direction 一致 */
+    public static final int DEBIT = 1;
+    /** 贷方 */
+    public static final int CREDIT = -1;
+
+    private final ChartOfAccounts chart;
+    private final long[] debit;
+    private final long[] credit;
+
+    public CentsLedger(ChartOfAccounts chart) {
+        this.chart = chart;
+        this.debit = new long[chart.size()];
+        this.credit = new long[chart.size()];
+    }
+
+    public ChartOfAccounts getChart() {
+        return chart;
+    }
+
+    /**
+     * 金额转为分，超过两位小数时抛 ArithmeticException
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * 分转回金额，固定两位小数
+     */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * 按序号累加，dcDirection 为 {@link #DEBIT} 记借方，其余记贷方
+     */
+    public void addCents(int ordinal, int dcDirection, long cents) {
+        if (dcDirection == DEBIT) {
+            debit[ordinal] = Math.addExact(debit[ordinal], cents);
+        } else {
+            credit[ordinal] = Math.addExact(credit[ordinal], cents);
+        }
+    }
+
+    /**
+     * 按科目ID累加一条 (汇总) 分录，科目表中不存在的科目忽略
+     */
+    public void add(Long accountId, Integer dcDirection, BigDecimal amount) {
+        int ordinal = chart.ordinalOf(accountId);
+        if (ordinal < 0 || amount == null) {
+            return;
+        }
+        addCents(ordinal, dcDirection != null ? dcDirection : CREDIT, toCents(amount));
+    }
+
+    /**
+     * 累加 accountId -> [借方合计, 贷方合计] 形式的汇总
+     */
+    public void addTotals(Map<Long, BigDecimal[]> totals) {
+        for (Map.Entry<Long, BigDecimal[]> e : totals.entrySet()) {
+            int ordinal = chart.ordinalOf(e.getKey());
+            if (ordinal < 0) {
+                continue;
+            }
+            addCents(ordinal, DEBIT, toCents(e.getValue()[0]));
+            addCents(ordinal, CREDIT, toCents(e.getValue()[1]));
+        }
+    }
+
+    public long debitCents(int ordinal) {
+        return debit[ordinal];
+    }
+
+    public long creditCents(int ordinal) {
+        return credit[ordinal];
+    }
+
+    public boolean isEmpty(int ordinal) {
+        return debit[ordinal] == 0 && credit[ordinal] == 0;
+    }
+
+    /**
+     * 按科目余额方向计算的余额：资产、费用类为 借 - 贷，其余为 贷 - 借
+     */
+    public long balanceCents(int ordinal) {
+        return isDebitBalance(chart.getAccounts().get(ordinal))
+            ? Math.subtractExact(debit[ordinal], credit[ordinal])
+            : Math.subtractExact(credit[ordinal], debit[ordinal]);
+    }
+
+    /**
+     * 全部科目的余额 (分)，下标为科目序号
+     */
+    public long[] balances() {
+        long[] result = new long[debit.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = balanceCents(i);
+        }
+        return result;
+    }
+
+    public static boolean isDebitBalance(FinanceAccount account) {
+        String type = account.getAccountType() != null ? account.getAccountType() : "ASSET";
+        return "ASSET".equals(type) || "EXPENSE".equals(type);
+    }
+}
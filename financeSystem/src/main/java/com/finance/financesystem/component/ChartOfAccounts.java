@@ -0,0 +1,207 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.AccountTreeVO;
+import com.finance.financesystem.entity.FinanceAccount;
+
+import java.util.*;
+
+/**
+ * 会计科目表的只读快照
+ *
+ * 一次线性扫描建立索引：
+ * id -> 科目、科目编码 -> 科目、账簿 -> 科目列表、parentId -> 子科目列表、类型 -> 顶级科目 / 全部科目，
+ * 同时用 {@link AccountClassifier} 把每个科目解析为报表分类。
+ * 科目在 accounts 中的下标即为稠密序号 (ordinal)，供 {@link CentsLedger} 用原始数组累加。
+ * 快照创建后不再修改，可被多个请求线程同时读取。
+ */
+public final class ChartOfAccounts {
+
+    private final List<FinanceAccount> accounts;
+    private final Map<Long, FinanceAccount> byId;
+    private final Map<String, FinanceAccount> byCode;
+    private final Map<Long, Map<String, FinanceAccount>> byBookCode;
+    private final Map<Long, List<FinanceAccount>> byBook;
+    private final Map<Long, List<FinanceAccount>> childrenByParent;
+    private final Map<String, List<FinanceAccount>> rootsByType;
+    private final Map<String, List<FinanceAccount>> byType;
+    private final Map<Long, Integer> ordinals;
+    private final AccountCategory[] categories;
+
+    public ChartOfAccounts(List<FinanceAccount> accounts) {
+        Map<Long, FinanceAccount> idMap = new HashMap<>(accounts.size() * 2);
+        Map<String, FinanceAccount> codeMap = new HashMap<>(accounts.size() * 2);
+        Map<Long, Map<String, FinanceAccount>> bookCodeMap = new HashMap<>();
+        Map<Long, List<FinanceAccount>> bookMap = new HashMap<>();
+        Map<Long, List<FinanceAccount>> childMap = new HashMap<>();
+        Map<String, List<FinanceAccount>> rootMap = new HashMap<>();
+        Map<String, List<FinanceAccount>> typeMap = new HashMap<>();
+        Map<Long, Integer> ordinalMap = new HashMap<>(accounts.size() * 2);
+        AccountCategory[] categoryArr = new AccountCategory[accounts.size()];
+
+        for (int i = 0; i < accounts.size(); i++) {
+            FinanceAccount acc = accounts.get(i);
+            idMap.put(acc.getAccountId(), acc);
+            // 编码重复时保留第一个，与原先 LIMIT 1 按主键顺序取的结果一致
+            if (acc.getAccountCode() != null) {
+                codeMap.putIfAbsent(acc.getAccountCode(), acc);
+                if (acc.getBookId() != null) {
+                    bookCodeMap.computeIfAbsent(acc.getBookId(), k -> new HashMap<>())
+                        .putIfAbsent(acc.getAccountCode(), acc);
+                }
+            }
+            if (acc.getBookId() != null) {
+                bookMap.computeIfAbsent(acc.getBookId(), k -> new ArrayList<>()).add(acc);
+            }
+            ordinalMap.put(acc.getAccountId(), i);
+            categoryArr[i] = AccountClassifier.DEFAULT.classify(acc);
+            String type = acc.getAccountType() != null ? acc.getAccountType() : "";
+            typeMap.computeIfAbsent(type, k -> new ArrayList<>()).add(acc);
+            if (isRoot(acc)) {
+                rootMap.computeIfAbsent(type, k -> new ArrayList<>()).add(acc);
+            } else {
+                childMap.computeIfAbsent(acc.getParentId(), k -> new ArrayList<>()).add(acc);
+            }
+        }
+
+        this.accounts = List.copyOf(accounts);
+        this.byId = idMap;
+        this.byCode = codeMap;
+        this.byBookCode = bookCodeMap;
+        this.byBook = freeze(bookMap);
+        this.childrenByParent = freeze(childMap);
+        this.rootsByType = freeze(rootMap);
+        this.byType = freeze(typeMap);
+        this.ordinals = ordinalMap;
+        this.categories = categoryArr;
+    }
+
+    private static boolean isRoot(FinanceAccount acc) {
+        return acc.getParentId() == null || acc.getParentId() == 0;
+    }
+
+    private static <K> Map<K, List<FinanceAccount>> freeze(Map<K, List<FinanceAccount>> map) {
+        map.replaceAll((k, v) -> List.copyOf(v));
+        return map;
+    }
+
+    public List<FinanceAccount> getAccounts() {
+        return accounts;
+    }
+
+    public FinanceAccount getById(Long accountId) {
+        return byId.get(accountId);
+    }
+
+    /**
+     * 按科目编码查找，编码不存在返回 null
+     */
+    public FinanceAccount getByCode(String accountCode) {
+        return accountCode != null ? byCode.get(accountCode) : null;
+    }
+
+    /**
+     * 按 账簿 + 科目编码 查找：优先取该账簿自己的科目，没有时按编码全局查找
+     *
+     * @param bookId 账簿ID，为 null 时等同于 {@link #getByCode(String)}
+     */
+    public FinanceAccount getByCode(Long bookId, String accountCode) {
+        if (bookId != null && accountCode != null) {
+            FinanceAccount own = byBookCode.getOrDefault(bookId, Map.of()).get(accountCode);
+            if (own != null) {
+                return own;
+            }
+        }
+        return getByCode(accountCode);
+    }
+
+    /**
+     * 属于某账簿的科目 (不含 bookId 为空的公共科目)
+     */
+    public List<FinanceAccount> getByBook(Long bookId) {
+        return byBook.getOrDefault(bookId, List.of());
+    }
+
+    /**
+     * 科目数量，也是序号的上界 (不含)
+     */
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * 科目的稠密序号，未知科目返回 -1
+     */
+    public int ordinalOf(Long accountId) {
+        Integer ordinal = accountId != null ? ordinals.get(accountId) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * 科目的报表分类，未知科目返回 OTHER
+     */
+    public AccountCategory getCategory(Long accountId) {
+        return getCategory(ordinalOf(accountId));
+    }
+
+    public AccountCategory getCategory(int ordinal) {
+        return ordinal >= 0 ? categories[ordinal] : AccountCategory.OTHER;
+    }
+
+    public List<FinanceAccount> getChildren(Long parentId) {
+        return childrenByParent.getOrDefault(parentId, List.of());
+    }
+
+    /**
+     * 某类型下 parentId 为空或 0 的顶级科目
+     */
+    public List<FinanceAccount> getRoots(String accountType) {
+        return rootsByType.getOrDefault(accountType, List.of());
+    }
+
+    public List<FinanceAccount> getByType(String accountType) {
+        return byType.getOrDefault(accountType, List.of());
+    }
+
+    /**
+     * 所有顶级科目 (parentId 为空或 0)，按科目表原顺序
+     */
+    public List<FinanceAccount> getAllRoots() {
+        List<FinanceAccount> roots = new ArrayList<>();
+        for (FinanceAccount acc : accounts) {
+            if (isRoot(acc)) {
+                roots.add(acc);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * 以 rootId 为根构建科目树，父节点金额 = 自身余额 + 子节点之和
+     * 每个科目只访问一次，整体 O(n)；金额以分累加，只在写入节点时转换为 BigDecimal
+     *
+     * @param balanceCents 按序号排列的科目余额 (分)，为 null 时全部按 0 处理
+     */
+    public AccountTreeVO buildTree(Long rootId, long[] balanceCents) {
+        FinanceAccount rootAccount = byId.get(rootId);
+        if (rootAccount == null) return null;
+        return buildNode(rootAccount, balanceCents, new long[1]);
+    }
+
+    private AccountTreeVO buildNode(FinanceAccount account, long[] balanceCents, long[] subtotal) {
+        AccountTreeVO node = new AccountTreeVO();
+        node.setId(account.getAccountId());
+        node.setName(account.getAccountName());
+        node.setCode(account.getAccountCode());
+        node.setType(account.getAccountType());
+        node.setDirection(account.getBalanceDirection());
+
+        long cents = balanceCents != null ? balanceCents[ordinals.get(account.getAccountId())] : 0L;
+        for (FinanceAccount child : getChildren(account.getAccountId())) {
+            node.getChildren().add(buildNode(child, balanceCents, subtotal));
+            cents = Math.addExact(cents, subtotal[0]);
+        }
+        node.setAmount(CentsLedger.toAmount(cents));
+        subtotal[0] = cents;
+        return node;
+    }
+}
@@ -0,0 +1,52 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.service.IFinanceAccountService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会计科目注册表
+ *
+ * 持有 finance_account 的不可变快照 {@link ChartOfAccounts}，按 id / 编码 / 账簿 查科目都只是内存查表，
+ * 过账路径上不再为找科目访问数据库。
+ *
+ * - 第一次使用时加载
+ * - 科目新增 / 修改 / 删除后调用 {@link #refresh()}：立即重新加载并整体替换快照 (写时复制)，
+ *   读方要么看到旧快照要么看到新快照，不会看到一半
+ */
+@Component
+public class ChartOfAccountsIndex {
+
+    @Autowired
+    private IFinanceAccountService accountService;
+
+    private volatile ChartOfAccounts snapshot;
+
+    /**
+     * 获取当前科目表快照 (必要时从数据库加载)
+     */
+    public ChartOfAccounts get() {
+        ChartOfAccounts current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = new ChartOfAccounts(accountService.list());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 科目表写入后重新加载并替换快照
+     *
+     * 加载与替换在同一把锁内完成，并发的两次刷新不会让先读到的旧数据覆盖后读到的新数据。
+     */
+    public void refresh() {
+        synchronized (this) {
+            snapshot = new ChartOfAccounts(accountService.list());
+        }
+    }
+}
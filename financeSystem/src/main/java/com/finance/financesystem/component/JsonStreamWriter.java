@@ -0,0 +1,106 @@
+package com.finance.financesystem.component;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式 JSON 响应
+ *
+ * 在请求线程里用 Jackson 的 JsonGenerator 直接写到响应输出流，
+ * 数据来自 MyBatis Cursor (MySQL 逐行返回)，写一行丢一行，堆占用与结果行数无关。
+ * Cursor 只在 SqlSession 打开期间有效，所以整个写出过程包在一个只读事务里。
+ *
+ * - 游标在写出第一个字节之前打开，查询失败时响应尚未提交，重置后抛出，由 Spring 返回 500
+ * - 响应已提交后出错不关闭 JsonGenerator (关闭会补齐括号，客户端会当成完整数组)，
+ *   直接抛出，由容器中断连接，客户端收到的是不完整的响应
+ */
+@Component
+public class JsonStreamWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonStreamWriter.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * 向 JsonGenerator 写出响应内容
+     */
+    @FunctionalInterface
+    public interface Body {
+        void write(JsonGenerator gen) throws IOException;
+    }
+
+    /**
+     * 以 application/json 写出响应
+     */
+    public void stream(HttpServletResponse response, Body body) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        JsonGenerator gen = objectMapper.createGenerator(response.getOutputStream(), JsonEncoding.UTF8)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try {
+                    body.write(gen);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            abort(response, e);
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            abort(response, e);
+            throw e;
+        }
+        gen.close();
+    }
+
+    private static void abort(HttpServletResponse response, Exception e) {
+        if (!response.isCommitted()) {
+            log.error("流式 JSON 响应写出前失败", e);
+            response.reset();
+        } else {
+            log.error("流式 JSON 响应写出中途失败，中断连接", e);
+        }
+    }
+
+    /**
+     * 把游标逐行写成 JSON 数组并关闭游标
+     */
+    public static <T> void writeArray(JsonGenerator gen, Cursor<T> cursor) throws IOException {
+        try (cursor) {
+            gen.writeStartArray();
+            for (T row : cursor) {
+                gen.writeObject(row);
+            }
+            gen.writeEndArray();
+        }
+    }
+}
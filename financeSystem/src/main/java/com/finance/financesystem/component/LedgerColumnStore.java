@@ -0,0 +1,445 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.LedgerRowVO;
+import com.finance.financesystem.mapper.FinanceSplitMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * 列式内存账簿
+ *
+ * 已过账分录按列存放在平行的原始数组中，每条分录约 29 字节：
+ * 科目序号 int、凭证ID long、凭证日期 epochDay int、
+ * 账簿 int、金额 (分) long、标志位 byte (借贷方向 + 现金流类别)。
+ * 不保存分录ID，只能按凭证ID整体增删。
+ * 报表在这些数组上顺序扫描，不再为每条分录创建实体对象。
+ *
+ * - 启动完成后在后台线程从 finance_split ⋈ finance_transaction 流式加载
+ * - 凭证过账的事务提交后按凭证ID追加 (必须在账簿版本号加一之前注册)；
+ *   注册之后开始过的全量加载可能已经扫到这些凭证，追加前先去掉重复的行
+ * - 加载完成前或加载失败时 {@link #isReady()} 为 false，调用方回退到 SQL 聚合
+ *
+ * 读操作无锁：每次读取先拿到一份 {@link Columns} 快照，只访问快照 size 以内的行；
+ * 写操作串行，只写 size 之后的位置，写完再发布新的快照。
+ */
+@Component
+public class LedgerColumnStore {
+
+    /** 现金流类别，下标即标志位中的类别编码 */
+    public static final String[] CASH_FLOW_CATEGORIES = {"SALES_IN", "OTHER_IN", "PURCHASE_OUT", "SALARY_OUT", "OTHER_OUT"};
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerColumnStore.class);
+
+    private static final int DEBIT_FLAG = 1;
+    private static final int CATEGORY_SHIFT = 1;
+
+    @Autowired
+    private FinanceSplitMapper splitMapper;
+
+    @Value("${finance.ledger-store.enabled:true}")
+    private boolean enabled;
+
+    /** 已发布的快照，null 表示未就绪 */
+    private volatile Columns columns;
+
+    // ---- 以下字段只在持有 writeLock 时访问 ----
+    private final Object writeLock = new Object();
+    private Builder builder;
+    private boolean loading;
+    private boolean reloadRequested;
+    private Map<Long, List<LedgerRowVO>> pendingDuringLoad;
+    /** 每开始一次全量加载加一，追加时据此判断加载的扫描是否可能已包含这些凭证 */
+    private long loadGeneration;
+
+    /** 追加方无法确定是否与全量加载重叠时使用，一律先去重 */
+    private static final long UNKNOWN_GENERATION = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reloadAsync();
+        }
+    }
+
+    public boolean isReady() {
+        return columns != null;
+    }
+
+    /**
+     * 在后台线程全量重新加载 (启动、科目余额重建后调用)；加载期间调用方走 SQL
+     */
+    public void reloadAsync() {
+        synchronized (writeLock) {
+            if (loading) {
+                return;
+            }
+            loading = true;
+            loadGeneration++;
+            pendingDuringLoad = new LinkedHashMap<>();
+            columns = null;
+        }
+        Thread.ofVirtual().name("ledger-column-store-loader").start(this::load);
+    }
+
+    private void load() {
+        Builder loaded = new Builder();
+        try {
+            splitMapper.scanPostedRows(null, ctx -> loaded.append(ctx.getResultObject()));
+        } catch (Exception e) {
+            synchronized (writeLock) {
+                loading = false;
+                reloadRequested = false;
+                pendingDuringLoad = null;
+            }
+            log.error("列式账簿加载失败，报表将使用 SQL 聚合", e);
+            return;
+        }
+        synchronized (writeLock) {
+            if (reloadRequested) {
+                // 加载期间有追加失败，本次结果可能缺行，重新加载
+                reloadRequested = false;
+                loadGeneration++;
+                pendingDuringLoad = new LinkedHashMap<>();
+                Thread.ofVirtual().name("ledger-column-store-loader").start(this::load);
+                return;
+            }
+            // 加载期间提交的凭证以追加查询的结果为准，去掉全量扫描里可能重复的行
+            if (!pendingDuringLoad.isEmpty()) {
+                loaded.removeTransactions(pendingDuringLoad.keySet());
+                pendingDuringLoad.values().forEach(rows -> rows.forEach(loaded::append));
+            }
+            builder = loaded;
+            loading = false;
+            pendingDuringLoad = null;
+            columns = loaded.publish();
+        }
+    }
+
+    /**
+     * 当前事务提交后把这些凭证的已过账分录追加到列存；不在事务中时立即追加
+     */
+    public void appendAfterCommit(Collection<Long> transactionIds) {
+        if (!enabled || transactionIds == null || transactionIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(transactionIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 已经提交，提交之后可能已有加载扫到这些凭证
+            append(ids, UNKNOWN_GENERATION);
+            return;
+        }
+        // 在提交之前记下加载代数：之后没有新开始的加载，则已发布的列存一定不含这些凭证
+        long generation;
+        synchronized (writeLock) {
+            generation = loading ? UNKNOWN_GENERATION : loadGeneration;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(ids, generation);
+            }
+        });
+    }
+
+    private void append(List<Long> transactionIds, long generation) {
+        List<LedgerRowVO> rows = new ArrayList<>();
+        try {
+            splitMapper.scanPostedRows(transactionIds, ctx -> rows.add(ctx.getResultObject()));
+        } catch (Exception e) {
+            // 追加失败时列存已不完整，重新全量加载，期间调用方走 SQL
+            log.warn("列式账簿追加 {} 张凭证失败，重新加载", transactionIds.size(), e);
+            synchronized (writeLock) {
+                if (loading) {
+                    reloadRequested = true;
+                    return;
+                }
+            }
+            reloadAsync();
+            return;
+        }
+        synchronized (writeLock) {
+            if (loading) {
+                for (LedgerRowVO row : rows) {
+                    pendingDuringLoad.computeIfAbsent(row.getTransactionId(), k -> new ArrayList<>()).add(row);
+                }
+                return;
+            }
+            if (builder == null) {
+                return;
+            }
+            if (generation != loadGeneration) {
+                // 注册之后完成过全量加载，可能已含这些凭证；复制后去掉，已发布的快照共用原数组不能原地改
+                builder = builder.without(Set.copyOf(transactionIds));
+            }
+            rows.forEach(builder::append);
+            columns = builder.publish();
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 按科目累加 from ~ to (含，可空) 的已过账借贷发生额
+     *
+     * @param bookId 账簿ID (null 不过滤，0 表示未指定账簿的凭证)
+     * @return 列存未就绪时返回 null
+     */
+    public CentsLedger sumByAccount(ChartOfAccounts chart, Long bookId, LocalDate from, LocalDate to) {
+        Columns c = columns;
+        if (c == null) {
+            return null;
+        }
+        CentsLedger ledger = new CentsLedger(chart);
+        int[] chartOrdinals = c.chartOrdinals(chart);
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        boolean anyBook = bookId == null;
+        int book = anyBook ? 0 : Math.toIntExact(bookId);
+
+        for (int i = 0; i < c.size; i++) {
+            int day = c.epochDay[i];
+            if (day < fromDay || day > toDay || (!anyBook && c.book[i] != book)) {
+                continue;
+            }
+            int ordinal = chartOrdinals[c.account[i]];
+            if (ordinal >= 0) {
+                ledger.addCents(ordinal, (c.flags[i] & DEBIT_FLAG) != 0 ? CentsLedger.DEBIT : CentsLedger.CREDIT, c.cents[i]);
+            }
+        }
+        return ledger;
+    }
+
+    /**
+     * 合并报表用的一次扫描：截至 to 的累计、from ~ to 的发生额、现金科目按类别的发生额
+     *
+     * @param cumulative     截至 to 的累计 (可为 null，只算现金流量表时不需要)
+     * @param period         from ~ to 发生额 (可为 null)
+     * @param cashByCategory 长度为 {@link #CASH_FLOW_CATEGORIES} 的数组，按类别累加现金科目发生额 (分)
+     * @return 列存未就绪时返回 false
+     */
+    public boolean sumStatements(ChartOfAccounts chart, Long bookId, LocalDate from, LocalDate to,
+                                 CentsLedger cumulative, CentsLedger period, long[] cashByCategory) {
+        Columns c = columns;
+        if (c == null) {
+            return false;
+        }
+        int[] chartOrdinals = c.chartOrdinals(chart);
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        boolean anyBook = bookId == null;
+        int book = anyBook ? 0 : Math.toIntExact(bookId);
+
+        for (int i = 0; i < c.size; i++) {
+            int day = c.epochDay[i];
+            if (day > toDay || (!anyBook && c.book[i] != book)) {
+                continue;
+            }
+            int ordinal = chartOrdinals[c.account[i]];
+            if (ordinal < 0) {
+                continue;
+            }
+            int flags = c.flags[i];
+            int dc = (flags & DEBIT_FLAG) != 0 ? CentsLedger.DEBIT : CentsLedger.CREDIT;
+            long cents = c.cents[i];
+            if (cumulative != null) {
+                cumulative.addCents(ordinal, dc, cents);
+            }
+            if (day >= fromDay) {
+                if (period != null) {
+                    period.addCents(ordinal, dc, cents);
+                }
+                if (chart.getCategory(ordinal) == AccountCategory.CASH) {
+                    int category = flags >>> CATEGORY_SHIFT;
+                    cashByCategory[category] = Math.addExact(cashByCategory[category], cents);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 列存统计：行数、列数组占用字节
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Columns c = columns;
+        result.put("enabled", enabled);
+        result.put("ready", c != null);
+        result.put("rows", c != null ? c.size : 0);
+        result.put("capacity", c != null ? c.account.length : 0);
+        result.put("bytes", c != null ? (long) c.account.length * Columns.BYTES_PER_ROW : 0L);
+        return result;
+    }
+
+    /**
+     * 已发布的只读快照，数组可能与后续快照共用，只能访问 size 以内的行
+     */
+    private static final class Columns {
+        /** 科目序号 + 凭证ID + 日期 + 账簿 + 金额 + 标志位，不含分录ID */
+        static final int BYTES_PER_ROW = 4 + 8 + 4 + 4 + 8 + 1;
+
+        final int size;
+        final int[] account;
+        final long[] transactionId;
+        final int[] epochDay;
+        final int[] book;
+        final long[] cents;
+        final byte[] flags;
+        /** 科目ID -> 列存内科目序号 */
+        final Map<Long, Integer> accountOrdinals;
+        /** 列存内科目序号 -> 科目ID */
+        final long[] accountIds;
+
+        private ChartOfAccounts mappedChart;
+        private int[] mappedOrdinals;
+
+        Columns(Builder b) {
+            this.size = b.size;
+            this.account = b.account;
+            this.transactionId = b.transactionId;
+            this.epochDay = b.epochDay;
+            this.book = b.book;
+            this.cents = b.cents;
+            this.flags = b.flags;
+            this.accountOrdinals = Map.copyOf(b.accountOrdinals);
+            this.accountIds = Arrays.copyOf(b.accountIds, b.accountOrdinals.size());
+        }
+
+        /**
+         * 列存科目序号 -> 科目表序号 的换算表 (科目表中已不存在的为 -1)，按科目表快照缓存
+         */
+        int[] chartOrdinals(ChartOfAccounts chart) {
+            synchronized (this) {
+                if (mappedChart != chart) {
+                    int[] mapping = new int[accountIds.length];
+                    for (int i = 0; i < mapping.length; i++) {
+                        mapping[i] = chart.ordinalOf(accountIds[i]);
+                    }
+                    mappedOrdinals = mapping;
+                    mappedChart = chart;
+                }
+                return mappedOrdinals;
+            }
+        }
+    }
+
+    /**
+     * 可增长的列数组，由写线程独占
+     */
+    private static final class Builder {
+        int size;
+        int[] account = new int[1024];
+        long[] transactionId = new long[1024];
+        int[] epochDay = new int[1024];
+        int[] book = new int[1024];
+        long[] cents = new long[1024];
+        byte[] flags = new byte[1024];
+        final Map<Long, Integer> accountOrdinals = new HashMap<>();
+        long[] accountIds = new long[64];
+
+        void append(LedgerRowVO row) {
+            if (row.getAccountId() == null || row.getAmount() == null || row.getVoucherDate() == null) {
+                return;
+            }
+            if (size == account.length) {
+                grow(size + (size >> 1));
+            }
+            account[size] = accountOrdinal(row.getAccountId());
+            transactionId[size] = row.getTransactionId();
+            epochDay[size] = (int) row.getVoucherDate().toEpochDay();
+            book[size] = row.getBookId() != null ? Math.toIntExact(row.getBookId()) : 0;
+            cents[size] = CentsLedger.toCents(row.getAmount());
+            int debit = row.getDcDirection() != null && row.getDcDirection() == 1 ? DEBIT_FLAG : 0;
+            flags[size] = (byte) (debit | categoryCode(row.getCategory()) << CATEGORY_SHIFT);
+            size++;
+        }
+
+        /**
+         * 删除属于这些凭证的行 (保持其余行的相对顺序)
+         */
+        void removeTransactions(Set<Long> transactionIds) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (transactionIds.contains(transactionId[i])) {
+                    continue;
+                }
+                account[kept] = account[i];
+                transactionId[kept] = transactionId[i];
+                epochDay[kept] = epochDay[i];
+                book[kept] = book[i];
+                cents[kept] = cents[i];
+                flags[kept] = flags[i];
+                kept++;
+            }
+            size = kept;
+        }
+
+        /**
+         * 不含这些凭证的副本 (新数组，科目序号不变)
+         */
+        Builder without(Set<Long> transactionIds) {
+            Builder copy = new Builder();
+            copy.grow(Math.max(size, 1024));
+            copy.accountOrdinals.putAll(accountOrdinals);
+            copy.accountIds = accountIds.clone();
+            for (int i = 0; i < size; i++) {
+                if (transactionIds.contains(transactionId[i])) {
+                    continue;
+                }
+                int k = copy.size++;
+                copy.account[k] = account[i];
+                copy.transactionId[k] = transactionId[i];
+                copy.epochDay[k] = epochDay[i];
+                copy.book[k] = book[i];
+                copy.cents[k] = cents[i];
+                copy.flags[k] = flags[i];
+            }
+            return copy;
+        }
+
+        Columns publish() {
+            return new Columns(this);
+        }
+
+        private int accountOrdinal(Long accountId) {
+            Integer ordinal = accountOrdinals.get(accountId);
+            if (ordinal == null) {
+                ordinal = accountOrdinals.size();
+                accountOrdinals.put(accountId, ordinal);
+                if (ordinal == accountIds.length) {
+                    accountIds = Arrays.copyOf(accountIds, ordinal * 2);
+                }
+                accountIds[ordinal] = accountId;
+            }
+            return ordinal;
+        }
+
+        private void grow(int capacity) {
+            account = Arrays.copyOf(account, capacity);
+            transactionId = Arrays.copyOf(transactionId, capacity);
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            book = Arrays.copyOf(book, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+
+        private static int categoryCode(String category) {
+            for (int i = 0; i < CASH_FLOW_CATEGORIES.length; i++) {
+                if (CASH_FLOW_CATEGORIES[i].equals(category)) {
+                    return i;
+                }
+            }
+            return CASH_FLOW_CATEGORIES.length - 1;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.finance.financesystem.component;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 账簿版本号
+ *
+ * 单调递增，任何写分录、改凭证状态、改科目的操作都会使其加一。
+ * 报表缓存以版本号作为 key 的一部分，版本变化后旧结果自然失效。
+ */
+@Component
+public class LedgerVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 立即加一 (非事务写操作使用)
+     */
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * 在当前事务提交后加一；不在事务中时立即加一
+     *
+     * 必须在提交后才加：否则并发的报表请求可能用未提交前的数据
+     * 计算出结果并缓存到新版本号下。
+     */
+    public void bumpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump();
+            }
+        });
+    }
+}
@@ -0,0 +1,398 @@
+package com.finance.financesystem.component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 基于内存映射文件的追加式日志 (组提交)
+ *
+ * 日志由若干段文件组成，文件名为该段起始的逻辑偏移 (20 位十进制)。
+ * 每条记录为 [长度 int][CRC32C int][内容]，长度 -1 表示本段剩余空间不用，跳到下一段；
+ * 映射文件初始全为 0，长度为 0 即日志末尾。
+ *
+ * - 写入方在锁内把记录拷进映射区后立即返回偏移，再调用 {@link #awaitDurable(long)} 等待落盘
+ * - 后台刷盘线程每次把「上次刷到的位置 ~ 当前写到的位置」一次 force，
+ *   这期间到达的所有写入共用一次 fsync，即组提交
+ * - 读取方只能读到已落盘的位置
+ * - 恢复时从指定偏移开始逐条校验 CRC，第一条不完整或校验失败的记录处即为日志末尾
+ *
+ * 偏移是跨段的逻辑字节位置，段的起始偏移 = 上一段起始偏移 + 上一段大小。
+ */
+public final class MappedJournal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int SKIP_MARKER = -1;
+    private static final String SUFFIX = ".journal";
+
+    private final Path dir;
+    private final int segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+
+    // ---- 以下字段只在持有 lock 时访问 ----
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private Segment current;
+    private long writeOffset;
+    private long durableOffset;
+    private boolean closed;
+    private long forces;
+    private Thread flusher;
+
+    public MappedJournal(Path dir, int segmentSize) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("段大小至少 1KB: " + segmentSize);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 打开日志并从 fromOffset 起恢复，启动刷盘线程
+     *
+     * @param fromOffset 已处理到的偏移 (检查点)，之前的段会被删除；为 null 时从现存最早的段开始
+     * @return 实际开始恢复的偏移，即第一条待处理记录的位置
+     */
+    public long open(Long fromOffset) throws IOException {
+        long start;
+        Files.createDirectories(dir);
+        lock.lock();
+        try {
+            List<Path> files;
+            try (Stream<Path> list = Files.list(dir)) {
+                files = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                segments.put(base, Segment.map(file, base, (int) Files.size(file)));
+            }
+
+            start = fromOffset != null ? fromOffset : (segments.isEmpty() ? 0L : segments.firstKey());
+            if (!segments.isEmpty() && start < segments.firstKey()) {
+                throw new IllegalStateException("日志偏移 " + start + " 之前的段已不存在，无法恢复");
+            }
+            release(start);
+            if (segments.isEmpty()) {
+                current = createSegment(start);
+                writeOffset = start;
+            } else {
+                writeOffset = scanToEnd(start);
+            }
+            durableOffset = writeOffset;
+        } finally {
+            lock.unlock();
+        }
+        flusher = Thread.ofPlatform().daemon().name("journal-flusher").start(this::flushLoop);
+        return start;
+    }
+
+    /**
+     * 从 start 逐条校验到日志末尾，清掉末尾之后的残留，返回写入位置
+     */
+    private long scanToEnd(long start) throws IOException {
+        long pos = start;
+        Segment seg = segments.floorEntry(pos).getValue();
+        while (true) {
+            int rel = (int) (pos - seg.base);
+            int length = rel + HEADER_BYTES <= seg.size ? seg.buffer.getInt(rel) : SKIP_MARKER;
+            if (length == SKIP_MARKER) {
+                Segment next = segments.get(seg.base + seg.size);
+                if (next == null) {
+                    // 本段已满但下一段还没建：从下一段开始写
+                    pos = seg.base + seg.size;
+                    break;
+                }
+                seg = next;
+                pos = seg.base;
+                continue;
+            }
+            if (length <= 0 || rel + HEADER_BYTES + length > seg.size
+                    || readCrc(seg, rel) != crc(seg, rel + HEADER_BYTES, length)) {
+                break;
+            }
+            pos += HEADER_BYTES + length;
+        }
+
+        // 末尾之后的段是断电前未完整写入的部分，丢弃
+        for (Segment tail : new ArrayList<>(segments.tailMap(pos, false).values())) {
+            segments.remove(tail.base);
+            Files.deleteIfExists(tail.file);
+        }
+        Segment last = segments.floorEntry(pos) != null ? segments.floorEntry(pos).getValue() : null;
+        if (last == null || pos >= last.base + last.size) {
+            current = createSegment(pos);
+        } else {
+            current = last;
+            byte[] zeros = new byte[64 * 1024];
+            for (int i = (int) (pos - last.base); i < last.size; i += zeros.length) {
+                last.buffer.put(i, zeros, 0, Math.min(zeros.length, last.size - i));
+            }
+            last.buffer.force();
+        }
+        return pos;
+    }
+
+    /**
+     * 追加一条记录，返回记录结束的偏移 (尚未落盘)
+     */
+    public long append(byte[] payload) {
+        if (payload.length == 0 || payload.length > segmentSize - HEADER_BYTES) {
+            throw new IllegalArgumentException("记录长度无效: " + payload.length);
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("日志已关闭");
+            }
+            int rel = (int) (writeOffset - current.base);
+            if (rel + HEADER_BYTES + payload.length > current.size) {
+                roll(rel);
+                rel = 0;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            // 先写内容再写长度：长度非 0 的记录一定是完整的
+            current.buffer.putInt(rel + 4, (int) crc.getValue());
+            current.buffer.put(rel + HEADER_BYTES, payload);
+            current.buffer.putInt(rel, payload.length);
+            writeOffset += HEADER_BYTES + payload.length;
+            written.signal();
+            return writeOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前段放不下时，写跳段标记、把本段刷盘，再建下一段
+     */
+    private void roll(int rel) {
+        if (rel + 4 <= current.size) {
+            current.buffer.putInt(rel, SKIP_MARKER);
+        }
+        current.buffer.force();
+        forces++;
+        long nextBase = current.base + current.size;
+        try {
+            current = createSegment(nextBase);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建日志段失败", e);
+        }
+        writeOffset = nextBase;
+        if (durableOffset < nextBase) {
+            durableOffset = nextBase;
+            durable.signalAll();
+        }
+    }
+
+    /**
+     * 等待 offset 之前的记录落盘
+     */
+    public void awaitDurable(long offset) throws InterruptedException {
+        lock.lock();
+        try {
+            while (durableOffset < offset) {
+                if (closed) {
+                    throw new IllegalStateException("日志已关闭");
+                }
+                durable.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待 offset 之后有新的已落盘记录，最多等 timeoutMillis
+     */
+    public void awaitData(long offset, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (durableOffset <= offset && !closed) {
+                durable.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Segment seg;
+            long from;
+            long target;
+            lock.lock();
+            try {
+                while (writeOffset == durableOffset && !closed) {
+                    written.awaitUninterruptibly();
+                }
+                if (writeOffset == durableOffset) {
+                    return;
+                }
+                seg = current;
+                from = Math.max(durableOffset, seg.base);
+                target = writeOffset;
+            } finally {
+                lock.unlock();
+            }
+
+            // 锁外 fsync，期间到达的写入留给下一轮一起刷
+            seg.buffer.force((int) (from - seg.base), (int) (target - from));
+
+            lock.lock();
+            try {
+                forces++;
+                if (target > durableOffset) {
+                    durableOffset = target;
+                }
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 从 offset 开始读取最多 maxRecords 条已落盘记录
+     */
+    public List<Record> read(long offset, int maxRecords) {
+        List<Record> records = new ArrayList<>();
+        lock.lock();
+        try {
+            long pos = offset;
+            while (records.size() < maxRecords && pos < durableOffset) {
+                Map.Entry<Long, Segment> entry = segments.floorEntry(pos);
+                Segment seg = entry.getValue();
+                int rel = (int) (pos - seg.base);
+                int length = rel + HEADER_BYTES <= seg.size ? seg.buffer.getInt(rel) : SKIP_MARKER;
+                if (length == SKIP_MARKER || length == 0) {
+                    pos = seg.base + seg.size;
+                    continue;
+                }
+                byte[] payload = new byte[length];
+                seg.buffer.get(rel + HEADER_BYTES, payload);
+                pos += HEADER_BYTES + length;
+                records.add(new Record(pos, payload));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return records;
+    }
+
+    /**
+     * 删除完全位于 offset 之前的段 (当前段除外)
+     */
+    public void release(long offset) {
+        lock.lock();
+        try {
+            while (!segments.isEmpty()) {
+                Segment first = segments.firstEntry().getValue();
+                if (first == current || first.base + first.size > offset) {
+                    break;
+                }
+                segments.remove(first.base);
+                Files.deleteIfExists(first.file);
+            }
+        } catch (IOException e) {
+            // 删除失败不影响正确性，下次再删
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            return Map.of(
+                "writeOffset", writeOffset,
+                "durableOffset", durableOffset,
+                "segments", segments.size(),
+                "forces", forces);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 停止刷盘线程；关闭前已追加的记录全部落盘
+     */
+    @Override
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            written.signal();
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            flusher.join();
+        }
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path file = dir.resolve(String.format("%020d%s", base, SUFFIX));
+        Segment seg = Segment.map(file, base, segmentSize);
+        segments.put(base, seg);
+        return seg;
+    }
+
+    private static int readCrc(Segment seg, int rel) {
+        return seg.buffer.getInt(rel + 4);
+    }
+
+    private static int crc(Segment seg, int from, int length) {
+        byte[] bytes = new byte[length];
+        seg.buffer.get(from, bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 一条记录及其结束偏移 (处理完这条后的检查点)
+     */
+    public record Record(long endOffset, byte[] payload) {
+    }
+
+    private static final class Segment {
+        final Path file;
+        final long base;
+        final int size;
+        final MappedByteBuffer buffer;
+
+        private Segment(Path file, long base, int size, MappedByteBuffer buffer) {
+            this.file = file;
+            this.base = base;
+            this.size = size;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path file, long base, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // 映射在通道关闭后仍然有效
+                return new Segment(file, base, size, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
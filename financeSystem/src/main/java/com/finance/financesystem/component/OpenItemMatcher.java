@@ -0,0 +1,185 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.OpenItemVO;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 收付款与未结发票的内存匹配 (单线程，非线程安全，每次核销 new 一个)
+ *
+ * 建立三类索引：
+ * - 发票ID / 发票编号 → 发票 (收付款指定了发票时)
+ * - (往来单位, 发票类型, 未结金额分) → 按到期日排序的发票队列 (金额恰好相等的优先全额核销)
+ * - (往来单位, 发票类型) → 按 到期日、发票ID 排序的数组 + 游标 (先到期先核销)
+ *
+ * 一笔款依次：先核销指定的发票；余额与某张发票未结金额相等则核销该张；
+ * 仍有余额时从最早到期的发票开始逐张核销，最后一张可部分核销。
+ * 核销后未结金额变化的发票重新挂到新金额的队列尾部，已结清的发票在各索引里惰性跳过。
+ * 每笔款的匹配是 O(1) 哈希查找加上游标前移，整体近似线性。
+ */
+public final class OpenItemMatcher {
+
+    /**
+     * 一张未结发票及其在本次核销中的状态
+     */
+    public static final class OpenItem {
+        public final long invoiceId;
+        public final long customerId;
+        public final String type;
+        public final String invoiceCode;
+        public final LocalDate dueDate;
+        public final long totalCents;
+        /** 加载时的已核销金额，写库前用来确认发票没有被其他操作改过 */
+        public final long loadedPaidCents;
+        long outstandingCents;
+
+        OpenItem(OpenItemVO vo) {
+            this.invoiceId = vo.invoiceId();
+            this.customerId = vo.customerId() != null ? vo.customerId() : 0L;
+            this.type = vo.type();
+            this.invoiceCode = vo.invoiceCode();
+            this.dueDate = vo.dueDate();
+            this.totalCents = CentsLedger.toCents(vo.totalAmount());
+            this.loadedPaidCents = CentsLedger.toCents(vo.paidAmount());
+            this.outstandingCents = totalCents - loadedPaidCents;
+        }
+
+        public long getOutstandingCents() {
+            return outstandingCents;
+        }
+
+        public long getPaidCents() {
+            return totalCents - outstandingCents;
+        }
+
+        boolean isOpen() {
+            return outstandingCents > 0;
+        }
+    }
+
+    /**
+     * 一笔款核销到一张发票的金额
+     */
+    public record Allocation(OpenItem item, long cents) {
+    }
+
+    private record PartyKey(long customerId, String type) {
+    }
+
+    private record AmountKey(long customerId, String type, long cents) {
+    }
+
+    /**
+     * 按到期日排好序的发票 + 第一张可能未结的位置
+     */
+    private static final class Ledger {
+        final List<OpenItem> items = new ArrayList<>();
+        int head;
+    }
+
+    private static final Comparator<OpenItem> DUE_ORDER = Comparator
+        .comparing((OpenItem i) -> i.dueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparingLong(i -> i.invoiceId);
+
+    private final Map<Long, OpenItem> byId = new HashMap<>();
+    private final Map<String, OpenItem> byCode = new HashMap<>();
+    private final Map<PartyKey, Ledger> byParty = new HashMap<>();
+    private final Map<AmountKey, ArrayDeque<OpenItem>> byAmount = new HashMap<>();
+
+    /**
+     * 加入一张未结发票，全部加入后调用 {@link #seal()}
+     */
+    public void add(OpenItemVO vo) {
+        OpenItem item = new OpenItem(vo);
+        if (!item.isOpen()) {
+            return;
+        }
+        byId.put(item.invoiceId, item);
+        if (item.invoiceCode != null) {
+            byCode.putIfAbsent(item.invoiceCode, item);
+        }
+        byParty.computeIfAbsent(new PartyKey(item.customerId, item.type), k -> new Ledger()).items.add(item);
+    }
+
+    /**
+     * 各往来单位的发票按到期日排序，并按排序后的顺序建立金额索引
+     */
+    public void seal() {
+        for (Ledger ledger : byParty.values()) {
+            ledger.items.sort(DUE_ORDER);
+            for (OpenItem item : ledger.items) {
+                indexAmount(item);
+            }
+        }
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * 为一笔款匹配发票并立即扣减未结金额
+     *
+     * @param type       要核销的发票类型 (SALE / PURCHASE)
+     * @param hintId     指定的发票ID，可空
+     * @param hintCode   指定的发票编号，可空
+     * @param cents      收付款金额 (分)
+     * @param sink       收到的核销明细，按核销顺序
+     * @return 未能核销的余额 (分)
+     */
+    public long match(long customerId, String type, Long hintId, String hintCode, long cents, List<Allocation> sink) {
+        long remaining = cents;
+
+        OpenItem hinted = hintId != null ? byId.get(hintId) : hintCode != null ? byCode.get(hintCode) : null;
+        if (hinted != null && hinted.isOpen() && hinted.customerId == customerId && type.equals(hinted.type)) {
+            remaining = allocate(hinted, remaining, sink);
+        }
+        if (remaining == 0) {
+            return 0;
+        }
+
+        ArrayDeque<OpenItem> exact = byAmount.get(new AmountKey(customerId, type, remaining));
+        while (exact != null && !exact.isEmpty()) {
+            OpenItem item = exact.pollFirst();
+            // 队列里可能是已结清或金额已变的旧条目
+            if (item.outstandingCents == remaining) {
+                return allocate(item, remaining, sink);
+            }
+        }
+
+        Ledger ledger = byParty.get(new PartyKey(customerId, type));
+        if (ledger == null) {
+            return remaining;
+        }
+        while (remaining > 0 && ledger.head < ledger.items.size()) {
+            OpenItem item = ledger.items.get(ledger.head);
+            if (!item.isOpen()) {
+                ledger.head++;
+                continue;
+            }
+            remaining = allocate(item, remaining, sink);
+        }
+        return remaining;
+    }
+
+    private long allocate(OpenItem item, long remaining, List<Allocation> sink) {
+        long cents = Math.min(item.outstandingCents, remaining);
+        item.outstandingCents -= cents;
+        sink.add(new Allocation(item, cents));
+        if (item.isOpen()) {
+            indexAmount(item);
+        }
+        return remaining - cents;
+    }
+
+    private void indexAmount(OpenItem item) {
+        byAmount.computeIfAbsent(new AmountKey(item.customerId, item.type, item.outstandingCents),
+            k -> new ArrayDeque<>(1)).addLast(item);
+    }
+}
@@ -0,0 +1,205 @@
+package com.finance.financesystem.component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 工资计算 (按分计算，不用 BigDecimal)
+ *
+ * 员工数据按列存放在 {@link Batch} 的数组里，用 fork/join 按下标区间切分并行计算：
+ * 每个叶子任务算出区间内每个人的应发、社保、公积金、个税、实发，同时按部门累加，
+ * 合并时把两个子任务的部门合计相加。任务之间不共享可变状态，不需要加锁。
+ *
+ * 每个人：
+ * - 应发 = 基本工资 + 奖金 + 津贴 - 缺勤扣款
+ * - 社保 / 公积金 = 缴费基数 × 个人比例，缴费基数为基本工资并限制在 [下限, 上限] 内
+ * - 应纳税所得额 = 应发 - 社保 - 公积金 - 起征点 - 专项附加扣除，按月度综合所得税率表计算个税
+ * - 实发 = 应发 - 社保 - 公积金 - 个税
+ */
+public final class PayrollCalculator {
+
+    /** 部门合计数组里各列的位置，部门 d 的第 c 列在 d * WIDTH + c */
+    public static final int EMPLOYEES = 0;
+    public static final int GROSS = 1;
+    public static final int SOCIAL = 2;
+    public static final int HOUSING = 3;
+    public static final int TAX = 4;
+    public static final int NET = 5;
+    public static final int WIDTH = 6;
+
+    /** 计算结果：正常 */
+    public static final byte OK = 0;
+    /** 计算结果：没有基本工资 */
+    public static final byte NO_SALARY = 1;
+    /** 计算结果：扣款超过应发 */
+    public static final byte OVERDRAWN = 2;
+
+    private static final int LEAF_SIZE = 4096;
+
+    /** 月度税率表：应纳税所得额上限 (分)、税率 (万分比)、速算扣除数 (分) */
+    private static final long[] BRACKET_UPPER = {
+        3_000_00L, 12_000_00L, 25_000_00L, 35_000_00L, 55_000_00L, 80_000_00L, Long.MAX_VALUE};
+    private static final int[] BRACKET_RATE = {300, 1000, 2000, 2500, 3000, 3500, 4500};
+    private static final long[] QUICK_DEDUCTION = {
+        0L, 210_00L, 1_410_00L, 2_660_00L, 4_410_00L, 7_160_00L, 15_160_00L};
+
+    /**
+     * 计算参数
+     *
+     * @param socialBp       社保个人缴费比例 (万分比)
+     * @param housingBp      公积金个人缴费比例 (万分比)
+     * @param baseMinCents   缴费基数下限 (分)
+     * @param baseMaxCents   缴费基数上限 (分)，0 表示不限
+     * @param thresholdCents 个税起征点 (分)
+     */
+    public record Rates(int socialBp, int housingBp, long baseMinCents, long baseMaxCents, long thresholdCents) {
+    }
+
+    /**
+     * 一批员工，下标相同的元素属于同一人；输入由调用方填好，输出由 {@link #compute} 写入
+     */
+    public static final class Batch {
+        public final int size;
+        // 输入 (分)
+        public final int[] department;
+        public final long[] basic;
+        public final long[] bonus;
+        public final long[] allowance;
+        public final long[] deduction;
+        public final long[] special;
+        // 输出 (分)
+        public final long[] gross;
+        public final long[] social;
+        public final long[] housing;
+        public final long[] tax;
+        public final long[] net;
+        public final byte[] status;
+
+        public Batch(int size) {
+            this.size = size;
+            department = new int[size];
+            basic = new long[size];
+            bonus = new long[size];
+            allowance = new long[size];
+            deduction = new long[size];
+            special = new long[size];
+            gross = new long[size];
+            social = new long[size];
+            housing = new long[size];
+            tax = new long[size];
+            net = new long[size];
+            status = new byte[size];
+        }
+    }
+
+    private PayrollCalculator() {
+    }
+
+    /**
+     * 并行计算整批员工
+     *
+     * @param departments 部门个数，{@link Batch#department} 的取值范围为 [0, departments)
+     * @return 各部门合计 (只含计算成功的员工)，长度 departments * WIDTH
+     */
+    public static long[] compute(Batch batch, int departments, Rates rates) {
+        if (batch.size == 0) {
+            return new long[departments * WIDTH];
+        }
+        return ForkJoinPool.commonPool().invoke(new Task(batch, departments, rates, 0, batch.size));
+    }
+
+    /**
+     * 按月度税率表计算个税
+     *
+     * @param taxableCents 应纳税所得额 (分)
+     */
+    public static long incomeTax(long taxableCents) {
+        if (taxableCents <= 0) {
+            return 0;
+        }
+        int i = 0;
+        while (taxableCents > BRACKET_UPPER[i]) {
+            i++;
+        }
+        return Math.max(0, percent(taxableCents, BRACKET_RATE[i]) - QUICK_DEDUCTION[i]);
+    }
+
+    /**
+     * cents × bp / 10000，四舍五入到分
+     */
+    private static long percent(long cents, int bp) {
+        return Math.floorDiv(Math.multiplyExact(cents, bp) + 5_000, 10_000);
+    }
+
+    private static void computeOne(Batch b, int i, Rates r) {
+        if (b.basic[i] <= 0) {
+            b.status[i] = NO_SALARY;
+            return;
+        }
+        long gross = b.basic[i] + b.bonus[i] + b.allowance[i] - b.deduction[i];
+        long base = Math.max(b.basic[i], r.baseMinCents());
+        if (r.baseMaxCents() > 0) {
+            base = Math.min(base, r.baseMaxCents());
+        }
+        long social = percent(base, r.socialBp());
+        long housing = percent(base, r.housingBp());
+        long tax = incomeTax(gross - social - housing - r.thresholdCents() - b.special[i]);
+        long net = gross - social - housing - tax;
+        if (net < 0) {
+            b.status[i] = OVERDRAWN;
+            return;
+        }
+        b.gross[i] = gross;
+        b.social[i] = social;
+        b.housing[i] = housing;
+        b.tax[i] = tax;
+        b.net[i] = net;
+        b.status[i] = OK;
+    }
+
+    private static final class Task extends RecursiveTask<long[]> {
+        private final Batch batch;
+        private final int departments;
+        private final Rates rates;
+        private final int from;
+        private final int to;
+
+        Task(Batch batch, int departments, Rates rates, int from, int to) {
+            this.batch = batch;
+            this.departments = departments;
+            this.rates = rates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= LEAF_SIZE) {
+                long[] totals = new long[departments * WIDTH];
+                for (int i = from; i < to; i++) {
+                    computeOne(batch, i, rates);
+                    if (batch.status[i] != OK) {
+                        continue;
+                    }
+                    int o = batch.department[i] * WIDTH;
+                    totals[o + EMPLOYEES]++;
+                    totals[o + GROSS] += batch.gross[i];
+                    totals[o + SOCIAL] += batch.social[i];
+                    totals[o + HOUSING] += batch.housing[i];
+                    totals[o + TAX] += batch.tax[i];
+                    totals[o + NET] += batch.net[i];
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            Task left = new Task(batch, departments, rates, from, mid);
+            left.fork();
+            long[] totals = new Task(batch, departments, rates, mid, to).compute();
+            long[] other = left.join();
+            for (int k = 0; k < totals.length; k++) {
+                totals[k] += other[k];
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.finance.financesystem.component;
+
+import java.util.List;
+
+/**
+ * 一种单据类型编译好的过账计划 (不可变，可并发使用)
+ *
+ * 由 {@link PostingRules} 从 finance_posting_rule 编译：科目编码已解析为科目ID，
+ * 金额表达式已编译为 {@link AmountExpression.Compiled}，生成分录时不查库、不反射、不查表。
+ * 编译失败 (科目不存在、表达式错误) 的计划保留错误信息，使用时直接返回该错误。
+ */
+public final class PostingPlan {
+
+    /**
+     * 单据的一条明细：摘要 + 按 {@link PostingVar} 序号排列的金额 (分)
+     */
+    public record Line(String summary, long[] vars) {
+    }
+
+    /**
+     * 接收生成的分录
+     */
+    @FunctionalInterface
+    public interface SplitSink {
+        void accept(Long accountId, int dcDirection, long cents, String summary);
+    }
+
+    record Step(Long accountId, int dcDirection, AmountExpression.Compiled amount, boolean perLine, String summary) {
+    }
+
+    private final String docType;
+    private final List<Step> steps;
+    private final String error;
+
+    PostingPlan(String docType, List<Step> steps, String error) {
+        this.docType = docType;
+        this.steps = steps;
+        this.error = error;
+    }
+
+    public String getDocType() {
+        return docType;
+    }
+
+    /**
+     * 编译错误，可用时为 null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * 分录模板行数
+     */
+    public int size() {
+        return steps.size();
+    }
+
+    /**
+     * 按模板顺序生成分录：按单据的规则用 header 求值，按明细的规则对每条明细各求值一次。
+     * 金额为 0 的分录跳过，为负数时反向记账。
+     *
+     * @param header      单据级变量 (分)
+     * @param description 单据摘要，模板未指定摘要时使用
+     * @param lines       明细，没有按明细的规则时可为空
+     * @return 不能生成的原因 (计划编译失败或金额溢出)，成功时返回 null
+     */
+    public String apply(long[] header, String description, List<Line> lines, SplitSink sink) {
+        if (error != null) {
+            return error;
+        }
+        try {
+            for (Step step : steps) {
+                if (!step.perLine) {
+                    emit(step, step.amount.eval(header), step.summary != null ? step.summary : description, sink);
+                    continue;
+                }
+                for (Line line : lines) {
+                    String summary = step.summary != null ? step.summary
+                        : line.summary() != null ? line.summary() : description;
+                    emit(step, step.amount.eval(line.vars()), summary, sink);
+                }
+            }
+        } catch (ArithmeticException e) {
+            return "金额计算溢出";
+        }
+        return null;
+    }
+
+    private static void emit(Step step, long cents, String summary, SplitSink sink) {
+        if (cents == 0) {
+            return;
+        }
+        if (cents < 0) {
+            sink.accept(step.accountId, -step.dcDirection, Math.negateExact(cents), summary);
+        } else {
+            sink.accept(step.accountId, step.dcDirection, cents, summary);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.FinanceAccount;
+import com.finance.financesystem.entity.FinancePostingRule;
+import com.finance.financesystem.service.IFinancePostingRuleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 过账规则注册表
+ *
+ * 从 finance_posting_rule 加载全部规则，按单据类型编译为 {@link PostingPlan}，整体作为不可变快照发布。
+ *
+ * - 第一次使用时加载
+ * - 规则新增 / 修改 / 删除后调用 {@link #refresh()} 重新加载并替换快照
+ * - 科目表刷新后 ({@link ChartOfAccountsIndex} 换了快照) 下次访问时用已加载的规则重新编译，
+ *   科目编码总是按最新科目表解析
+ */
+@Component
+public class PostingRules {
+
+    @Autowired
+    private IFinancePostingRuleService ruleService;
+
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    private record Snapshot(List<FinancePostingRule> rules, ChartOfAccounts chart, Map<String, PostingPlan> plans) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 某单据类型的过账计划，没有规则时返回 null
+     */
+    public PostingPlan get(String docType) {
+        return docType != null ? current().plans.get(docType) : null;
+    }
+
+    /**
+     * 全部单据类型的过账计划 (按单据类型排序)
+     */
+    public Map<String, PostingPlan> getAll() {
+        return current().plans;
+    }
+
+    /**
+     * 规则写入后重新加载并编译
+     */
+    public void refresh() {
+        synchronized (this) {
+            snapshot = compile(ruleService.list(), chartIndex.get());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        ChartOfAccounts chart = chartIndex.get();
+        if (current == null || current.chart != chart) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = compile(ruleService.list(), chart);
+                    snapshot = current;
+                } else if (current.chart != chart) {
+                    current = compile(current.rules, chart);
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Snapshot compile(List<FinancePostingRule> rules, ChartOfAccounts chart) {
+        Map<String, List<FinancePostingRule>> byType = rules.stream()
+            .filter(r -> r.getDocType() != null)
+            .sorted(Comparator.comparing(FinancePostingRule::getDocType)
+                .thenComparing(r -> r.getLineNo() != null ? r.getLineNo() : 0))
+            .collect(Collectors.groupingBy(FinancePostingRule::getDocType, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, PostingPlan> plans = new LinkedHashMap<>();
+        byType.forEach((docType, docRules) -> plans.put(docType, compilePlan(docType, docRules, chart)));
+        return new Snapshot(List.copyOf(rules), chart, Collections.unmodifiableMap(plans));
+    }
+
+    private static PostingPlan compilePlan(String docType, List<FinancePostingRule> rules, ChartOfAccounts chart) {
+        List<PostingPlan.Step> steps = new ArrayList<>(rules.size());
+        for (FinancePostingRule rule : rules) {
+            String where = docType + " 规则第 " + rule.getLineNo() + " 行: ";
+            FinanceAccount account = chart.getByCode(rule.getAccountCode());
+            if (account == null) {
+                return new PostingPlan(docType, List.of(), where + "系统未找到科目 " + rule.getAccountCode());
+            }
+            Integer dc = rule.getDcDirection();
+            if (dc == null || (dc != 1 && dc != -1)) {
+                return new PostingPlan(docType, List.of(), where + "借贷方向无效: " + dc);
+            }
+            AmountExpression.Compiled amount;
+            try {
+                amount = AmountExpression.compile(rule.getAmountExpr());
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return new PostingPlan(docType, List.of(), where + e.getMessage());
+            }
+            steps.add(new PostingPlan.Step(account.getAccountId(), dc, amount,
+                Boolean.TRUE.equals(rule.getPerLine()), rule.getSummary()));
+        }
+        return new PostingPlan(docType, List.copyOf(steps), null);
+    }
+}
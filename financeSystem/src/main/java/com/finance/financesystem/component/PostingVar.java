@@ -0,0 +1,42 @@
+package com.finance.financesystem.component;
+
+/**
+ * 过账规则金额表达式可用的变量
+ *
+ * 单据 (或单据的一条明细) 按变量序号把金额 (分) 放在 long[] 里，表达式编译后直接按下标取值。
+ */
+public enum PostingVar {
+    /** 金额合计 (含税)；按明细的规则里是明细金额；工资单里是应发工资 */
+    TOTAL,
+    /** 税额；工资单里是代扣个人所得税 */
+    TAX,
+    /** 代扣社会保险费 (个人部分) */
+    SOCIAL,
+    /** 代扣住房公积金 (个人部分) */
+    HOUSING,
+    /** 实发金额 */
+    NET,
+    /** 收付款未核销到发票的余额，转入预收 / 预付 */
+    UNAPPLIED;
+
+    private static final PostingVar[] VALUES = values();
+
+    /**
+     * 新建一个全为 0 的变量向量
+     */
+    public static long[] vector() {
+        return new long[VALUES.length];
+    }
+
+    /**
+     * 按名称 (不区分大小写) 查找，不存在返回 null
+     */
+    static PostingVar find(String name) {
+        for (PostingVar v : VALUES) {
+            if (v.name().equalsIgnoreCase(name)) {
+                return v;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.finance.financesystem.component;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 报表结果缓存
+ *
+ * key = (报表类型, 账簿, 期间, 账簿版本号)，容量有上限，按 LRU 淘汰。
+ * 账簿版本号变化后旧 key 不会再被命中，随后被 LRU 挤出。
+ */
+@Component
+public class ReportCache {
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    private final int maxEntries;
+
+    private final Map<Key, Object> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReportCache(@Value("${finance.report-cache.max-entries:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() > ReportCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 取缓存结果，未命中时计算并放入缓存
+     *
+     * 计算在锁外进行，同一 key 并发未命中时可能重复计算，结果相同，后写覆盖前写。
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrCompute(String reportType, Long bookId, String period, Supplier<T> loader) {
+        // 先取版本号再计算：计算期间若有新过账，结果只会落在旧版本号下
+        Key key = new Key(reportType, bookId, period, ledgerVersion.current());
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return (T) cached;
+            }
+        }
+        misses.incrementAndGet();
+        T value = loader.get();
+        if (value != null) {
+            synchronized (entries) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 命中 / 未命中统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long h = hits.get();
+        long m = misses.get();
+        result.put("size", size);
+        result.put("maxEntries", maxEntries);
+        result.put("hits", h);
+        result.put("misses", m);
+        result.put("evictions", evictions.get());
+        result.put("hitRate", h + m == 0 ? 0.0 : (double) h / (h + m));
+        result.put("ledgerVersion", ledgerVersion.current());
+        return result;
+    }
+
+    private record Key(String reportType, Long bookId, String period, long version) {
+    }
+}
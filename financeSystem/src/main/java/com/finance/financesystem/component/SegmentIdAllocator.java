@@ -0,0 +1,186 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.mapper.FinanceSequenceMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 号段分配器 (hi/lo)
+ *
+ * 每个序列在 finance_sequence 表里一行，一次取走 step 个号放在内存里发放：
+ * 取号只是一次 AtomicLong 自增，不加锁、不访问数据库；
+ * 号段用到 80% 时在后台预取下一段，正常情况下取号不会等数据库。
+ *
+ * - 主键：序列名为表名，首次使用时从表中现有最大主键 + 1 开始
+ * - 凭证号：按 账簿 + 月份 各一个序列，格式 yyyyMM-00001
+ *
+ * 号段在独立事务里分配，调用方事务回滚不会退回号，重启时内存里没用完的号作废，
+ * 所以主键和凭证号都可能不连续，但不会重复。
+ */
+@Component
+public class SegmentIdAllocator {
+
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private FinanceSequenceMapper sequenceMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** 主键每次取号个数 */
+    @Value("${finance.id.step:1000}")
+    private int idStep;
+
+    /** 凭证号每次取号个数，越小重启后的断号越少 */
+    @Value("${finance.id.voucher-no-step:20}")
+    private int voucherNoStep;
+
+    private final ConcurrentHashMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+    private final ExecutorService prefetcher =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("id-segment-prefetch").factory());
+    private TransactionTemplate requiresNew;
+
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdown();
+    }
+
+    /**
+     * 下一个主键
+     *
+     * @param table     表名
+     * @param keyColumn 主键列名，首次使用时按它取表中最大值
+     */
+    public long nextId(String table, String keyColumn) {
+        return sequences.computeIfAbsent(table, name -> new Sequence(name, idStep,
+            () -> sequenceMapper.insertIfAbsentFromMax(name, table, keyColumn))).next();
+    }
+
+    /**
+     * 下一个凭证号，按 账簿 + 凭证日期所在月份 编号
+     */
+    public String nextVoucherNo(Long bookId, LocalDate voucherDate) {
+        String period = voucherDate.format(PERIOD_FORMAT);
+        String seqName = "voucher_no:" + (bookId != null ? bookId : 0L) + ":" + period;
+        long no = sequences.computeIfAbsent(seqName, name -> new Sequence(name, voucherNoStep,
+            () -> sequenceMapper.insertIfAbsent(name, 1L))).next();
+        return period + "-" + String.format("%05d", no);
+    }
+
+    /**
+     * 号段 [start, end)，cursor 越过 end 即用完
+     */
+    private static final class Segment {
+        static final Segment EMPTY = new Segment(0, 0);
+
+        final long end;
+        final long prefetchAt;
+        final AtomicLong cursor;
+
+        Segment(long start, long end) {
+            this.end = end;
+            this.prefetchAt = start + (end - start) * 4 / 5;
+            this.cursor = new AtomicLong(start);
+        }
+    }
+
+    private final class Sequence {
+        final String name;
+        final int step;
+        final Runnable create;
+        final ReentrantLock refillLock = new ReentrantLock();
+        volatile Segment current = Segment.EMPTY;
+        // 只在持有 refillLock 时访问
+        CompletableFuture<Segment> prefetch;
+
+        Sequence(String name, int step, Runnable create) {
+            this.name = name;
+            this.step = step;
+            this.create = create;
+        }
+
+        long next() {
+            while (true) {
+                Segment seg = current;
+                long value = seg.cursor.getAndIncrement();
+                if (value < seg.end) {
+                    if (value == seg.prefetchAt) {
+                        prefetchAsync();
+                    }
+                    return value;
+                }
+                refill(seg);
+            }
+        }
+
+        private void refill(Segment exhausted) {
+            refillLock.lock();
+            try {
+                if (current != exhausted) {
+                    return;  // 其他线程已换上新号段
+                }
+                Segment next = null;
+                if (prefetch != null) {
+                    try {
+                        next = prefetch.join();
+                    } catch (CompletionException e) {
+                        // 预取失败，下面同步再取一次
+                    }
+                    prefetch = null;
+                }
+                current = next != null ? next : fetch();
+            } finally {
+                refillLock.unlock();
+            }
+        }
+
+        private void prefetchAsync() {
+            refillLock.lock();
+            try {
+                if (prefetch == null) {
+                    prefetch = CompletableFuture.supplyAsync(this::fetch, prefetcher);
+                }
+            } finally {
+                refillLock.unlock();
+            }
+        }
+
+        /**
+         * 独立事务里锁定序列行、取走 step 个号
+         */
+        private Segment fetch() {
+            return requiresNew.execute(status -> {
+                Long start = sequenceMapper.selectNextForUpdate(name);
+                if (start == null) {
+                    create.run();
+                    start = sequenceMapper.selectNextForUpdate(name);
+                }
+                sequenceMapper.updateNext(name, start + step);
+                return new Segment(start, start + step);
+            });
+        }
+    }
+}
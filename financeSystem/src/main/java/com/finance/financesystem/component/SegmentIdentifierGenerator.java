@@ -0,0 +1,28 @@
+package com.finance.financesystem.component;
+
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * MyBatis-Plus 主键生成器：IdType.ASSIGN_ID 的实体在插入前从号段分配器取主键
+ *
+ * 主键在插入前就已确定，凭证主表和分录可以在同一批语句里一起插入，不必等主表回填自增ID。
+ * 分配器依赖 Mapper，而 Mapper 又依赖本生成器所在的 SqlSessionFactory，所以延迟注入。
+ */
+@Component
+public class SegmentIdentifierGenerator implements IdentifierGenerator {
+
+    @Lazy
+    @Autowired
+    private SegmentIdAllocator idAllocator;
+
+    @Override
+    public Number nextId(Object entity) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entity.getClass());
+        return idAllocator.nextId(tableInfo.getTableName(), tableInfo.getKeyColumn());
+    }
+}
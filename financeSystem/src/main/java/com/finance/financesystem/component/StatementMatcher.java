@@ -0,0 +1,103 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.ReconcileSplitVO;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 银行对账单与账面分录的内存匹配 (单线程，非线程安全，每次对账 new 一个)
+ *
+ * 分录按 (带方向的金额分, 凭证日期) 放进哈希桶，存入为正、支出为负，同一桶内按分录加入顺序排队。
+ * 对账单一行只查 2 * window + 1 个桶：同一天优先，其次账面日期早一天、晚一天……
+ * (银行入账通常晚于记账)，每行匹配 O(window)，整体近似线性。
+ * 每条分录只在一个桶里，匹配上即出队，不会被两行对账单重复使用。
+ */
+public final class StatementMatcher {
+
+    private record Key(long cents, long epochDay) {
+    }
+
+    private static final class Entry {
+        final ReconcileSplitVO split;
+        boolean matched;
+
+        Entry(ReconcileSplitVO split) {
+            this.split = split;
+        }
+    }
+
+    private final int windowDays;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Key, ArrayDeque<Entry>> buckets = new HashMap<>();
+
+    /**
+     * @param windowDays 对账单日期与凭证日期最多相差的天数
+     */
+    public StatementMatcher(int windowDays) {
+        this.windowDays = Math.max(0, windowDays);
+    }
+
+    /**
+     * 加入一条未对账分录，借方 (存入) 为正、贷方 (支出) 为负
+     */
+    public void add(ReconcileSplitVO split) {
+        Entry entry = new Entry(split);
+        entries.add(entry);
+        buckets.computeIfAbsent(new Key(signedCents(split), split.voucherDate().toEpochDay()),
+            k -> new ArrayDeque<>(1)).addLast(entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 为对账单一行找一条金额相同、日期最接近的分录并占用
+     *
+     * @param cents 存入为正，支出为负
+     * @return 匹配上的分录，没有时返回 null
+     */
+    public ReconcileSplitVO match(long cents, LocalDate date) {
+        long day = date.toEpochDay();
+        for (int offset = 0; offset <= windowDays; offset++) {
+            Entry entry = poll(cents, day - offset);
+            if (entry == null && offset > 0) {
+                entry = poll(cents, day + offset);
+            }
+            if (entry != null) {
+                entry.matched = true;
+                return entry.split;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 凭证日期在 [from, to] 内、没有被匹配的分录，按加入顺序
+     */
+    public List<ReconcileSplitVO> unmatched(LocalDate from, LocalDate to) {
+        List<ReconcileSplitVO> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            LocalDate d = entry.split.voucherDate();
+            if (!entry.matched && !d.isBefore(from) && !d.isAfter(to)) {
+                result.add(entry.split);
+            }
+        }
+        return result;
+    }
+
+    private Entry poll(long cents, long epochDay) {
+        ArrayDeque<Entry> bucket = buckets.get(new Key(cents, epochDay));
+        return bucket != null ? bucket.pollFirst() : null;
+    }
+
+    private static long signedCents(ReconcileSplitVO split) {
+        long cents = CentsLedger.toCents(split.amount());
+        return split.dcDirection() != null && split.dcDirection() < 0 ? -cents : cents;
+    }
+}
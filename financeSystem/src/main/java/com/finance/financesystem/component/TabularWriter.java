@@ -0,0 +1,187 @@
+package com.finance.financesystem.component;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * 表格导出：逐行写 CSV 或 xlsx，内存占用与行数无关
+ *
+ * - CSV：UTF-8 带 BOM (Excel 直接打开不乱码)，按 RFC 4180 转义
+ * - xlsx：POI SXSSF，内存中只保留最近 {@link #XLSX_WINDOW} 行，其余刷到压缩临时文件；
+ *   超过单表最大行数时自动换到下一个工作表，每个工作表都重复表头
+ *
+ * 调用方负责关闭传入的输出流；{@link #close()} 只把缓冲内容写完。
+ */
+public abstract class TabularWriter implements AutoCloseable {
+
+    static final int XLSX_WINDOW = 200;
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String value) {
+            for (Format f : values()) {
+                if (f.extension.equalsIgnoreCase(value)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("不支持的导出格式: " + value);
+        }
+    }
+
+    public static TabularWriter open(Format format, OutputStream out) {
+        return format == Format.XLSX ? new Xlsx(out) : new Csv(out);
+    }
+
+    /**
+     * 写表头，须在第一行数据之前调用
+     */
+    public abstract void header(String... names) throws IOException;
+
+    /**
+     * 写一行，值可以是 String、Number、LocalDate 或 null
+     */
+    public abstract void row(Object... values) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    private static final class Csv extends TabularWriter {
+        private final Writer writer;
+
+        Csv(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public void header(String... names) throws IOException {
+            writer.write('\uFEFF');
+            row((Object[]) names);
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String s = value instanceof BigDecimal d ? d.toPlainString() : value.toString();
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                writer.write(s);
+                return;
+            }
+            writer.write('"');
+            writer.write(s.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class Xlsx extends TabularWriter {
+        private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+        private final OutputStream out;
+        // 不用共享字符串表，否则字符串全部留在内存里
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(null, XLSX_WINDOW, true, false);
+        private final CellStyle dateStyle;
+        private String[] header;
+        private SXSSFSheet sheet;
+        private int rowIndex;
+
+        Xlsx(OutputStream out) {
+            this.out = out;
+            this.dateStyle = workbook.createCellStyle();
+            this.dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        }
+
+        @Override
+        public void header(String... names) {
+            this.header = names;
+            newSheet();
+        }
+
+        private void newSheet() {
+            sheet = workbook.createSheet("Sheet" + (workbook.getNumberOfSheets() + 1));
+            rowIndex = 0;
+            if (header != null) {
+                writeRow(header);
+            }
+        }
+
+        @Override
+        public void row(Object... values) {
+            if (sheet == null || rowIndex == MAX_ROWS) {
+                newSheet();
+            }
+            writeRow(values);
+        }
+
+        private void writeRow(Object[] values) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof Number n) {
+                    cell.setCellValue(n.doubleValue());
+                } else if (value instanceof LocalDate d) {
+                    cell.setCellValue(d);
+                    cell.setCellStyle(dateStyle);
+                } else {
+                    cell.setCellValue(value.toString());
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (sheet == null) {
+                    newSheet();
+                }
+                workbook.write(out);
+                out.flush();
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+    }
+}
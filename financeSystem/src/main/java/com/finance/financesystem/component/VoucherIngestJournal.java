@@ -0,0 +1,312 @@
+package com.finance.financesystem.component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.financesystem.entity.FinanceJournalCheckpoint;
+import com.finance.financesystem.entity.FinanceJournalRejection;
+import com.finance.financesystem.entity.VoucherImportDTO;
+import com.finance.financesystem.entity.VoucherImportResultVO;
+import com.finance.financesystem.mapper.FinanceJournalCheckpointMapper;
+import com.finance.financesystem.mapper.FinanceJournalRejectionMapper;
+import com.finance.financesystem.service.IFinanceTransactionService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 凭证写前日志 (高频接入模式，默认关闭)
+ *
+ * 开启方式：finance.journal.enabled=true，可选 finance.journal.dir / segment-size / apply-batch-size。
+ *
+ * - 接入：凭证先校验，通过的序列化后追加到 {@link MappedJournal}，落盘 (组提交 fsync) 后即应答客户端
+ * - 回放：后台线程按批读取日志，每批一个数据库事务批量写入凭证，
+ *   并在同一事务里把检查点更新为这批最后一条记录的结束偏移
+ * - 恢复：启动时从数据库检查点开始重放，检查点与凭证同时提交，所以不会重复也不会遗漏
+ *
+ * 回放时只跳过确定性失败的记录：无法解析，或校验不通过 (例如应答之后期间已结账)。
+ * 这些记录连同原文写入 finance_journal_rejection，与检查点同一事务提交，stats 的 recentRejections 只是最近几条的内存视图。
+ * 写库抛异常 (数据库不可用、锁超时等) 不跳过，退避后从同一偏移一直重试。
+ */
+@Component
+@ConditionalOnProperty(prefix = "finance.journal", name = "enabled", havingValue = "true")
+public class VoucherIngestJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(VoucherIngestJournal.class);
+
+    static final String JOURNAL_NAME = "voucher";
+
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+    private static final int MAX_RECENT_REJECTIONS = 100;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+    private static final String UNPARSABLE = "日志记录无法解析";
+
+    @Autowired
+    private IFinanceTransactionService transactionService;
+
+    @Autowired
+    private FinanceJournalCheckpointMapper checkpointMapper;
+
+    @Autowired
+    private FinanceJournalRejectionMapper rejectionMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${finance.journal.dir:data/journal}")
+    private String dir;
+
+    @Value("${finance.journal.segment-size:67108864}")
+    private int segmentSize;
+
+    @Value("${finance.journal.apply-batch-size:2000}")
+    private int applyBatchSize;
+
+    private MappedJournal journal;
+    private Thread applier;
+    private volatile boolean ready;
+    private volatile boolean running;
+    private volatile long appliedOffset;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Deque<Map<String, Object>> recentRejections = new ArrayDeque<>();
+
+    /**
+     * 读检查点、恢复日志、启动回放线程；检查点读不到时启动失败，不能在不知道重放位置的情况下接收凭证
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() throws IOException {
+        FinanceJournalCheckpoint checkpoint = checkpointMapper.selectById(JOURNAL_NAME);
+        journal = new MappedJournal(Path.of(dir), segmentSize);
+        appliedOffset = journal.open(checkpoint != null ? checkpoint.getAppliedOffset() : null);
+        running = true;
+        applier = Thread.ofVirtual().name("voucher-journal-applier").start(this::applyLoop);
+        ready = true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        ready = false;
+        running = false;
+        if (applier != null) {
+            applier.join(30_000);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * 校验并写入日志，全部落盘后返回
+     *
+     * @return 与入参一一对应的结果；成功只表示已持久化到日志，transactionId 为空
+     */
+    public List<VoucherImportResultVO> submit(List<VoucherImportDTO> vouchers)
+            throws JsonProcessingException, InterruptedException {
+        if (!ready) {
+            throw new IllegalStateException("凭证日志未就绪");
+        }
+        List<VoucherImportResultVO> results = new ArrayList<>(vouchers.size());
+        long end = -1;
+        for (int i = 0; i < vouchers.size(); i++) {
+            String error = transactionService.validateImport(vouchers.get(i));
+            if (error != null) {
+                results.add(VoucherImportResultVO.fail(i, error));
+                continue;
+            }
+            end = journal.append(objectMapper.writeValueAsBytes(vouchers.get(i)));
+            results.add(VoucherImportResultVO.ok(i, null));
+        }
+        // 一次等待覆盖本请求的全部记录，同时到达的其他请求共用同一次 fsync
+        if (end >= 0) {
+            journal.awaitDurable(end);
+            accepted.addAndGet(results.stream().filter(VoucherImportResultVO::isSuccess).count());
+        }
+        return results;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("appliedOffset", appliedOffset);
+        stats.put("accepted", accepted.get());
+        stats.put("applied", applied.get());
+        stats.put("rejected", rejected.get());
+        if (journal != null) {
+            stats.putAll(journal.stats());
+        }
+        synchronized (recentRejections) {
+            stats.put("recentRejections", new ArrayList<>(recentRejections));
+        }
+        return stats;
+    }
+
+    // ==================== 回放 ====================
+
+    private void applyLoop() {
+        long offset = appliedOffset;
+        while (running) {
+            try {
+                List<MappedJournal.Record> records = journal.read(offset, applyBatchSize);
+                if (records.isEmpty()) {
+                    journal.awaitData(offset, 1000);
+                    continue;
+                }
+                long next = applyBatch(offset, records);
+                if (next == offset) {
+                    // 写库抛异常 (数据库不可用等)，退避后从同一位置重试，不越过记录
+                    Thread.sleep(RETRY_BACKOFF_MILLIS);
+                }
+                offset = next;
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 一批记录一个事务 (凭证 + 拒绝记录 + 检查点)；失败时逐条写入以定位出错的记录
+     *
+     * @return 已提交到的偏移
+     */
+    private long applyBatch(long offset, List<MappedJournal.Record> records) {
+        List<VoucherImportDTO> vouchers = new ArrayList<>(records.size());
+        List<MappedJournal.Record> parsed = new ArrayList<>(records.size());
+        List<FinanceJournalRejection> rejections = new ArrayList<>();
+        for (MappedJournal.Record record : records) {
+            VoucherImportDTO voucher = parse(record);
+            if (voucher != null) {
+                vouchers.add(voucher);
+                parsed.add(record);
+            } else {
+                rejections.add(rejection(record, UNPARSABLE));
+            }
+        }
+
+        long end = records.get(records.size() - 1).endOffset();
+        try {
+            long ok = transactionTemplate.execute(status -> {
+                long n = 0;
+                for (VoucherImportResultVO r : transactionService.importVouchersInTransaction(vouchers, 0)) {
+                    if (r.isSuccess()) {
+                        n++;
+                    } else {
+                        rejections.add(rejection(parsed.get(r.getIndex()), r.getMessage()));
+                    }
+                }
+                rejections.forEach(rejectionMapper::insert);
+                checkpointMapper.upsert(JOURNAL_NAME, end);
+                return n;
+            });
+            applied.addAndGet(ok);
+            rejections.forEach(this::countRejection);
+            advance(end);
+            return end;
+        } catch (Exception e) {
+            // 整批已回滚，逐条写入
+            log.warn("凭证日志批量写库失败 (偏移 {}，{} 条)，改为逐条写入", offset, records.size(), e);
+        }
+
+        long committed = offset;
+        for (MappedJournal.Record record : records) {
+            if (!applyOne(record)) {
+                return committed;
+            }
+            committed = record.endOffset();
+        }
+        return committed;
+    }
+
+    /**
+     * 单条记录一个事务；只有无法解析或校验不通过时才记为拒绝并越过该记录
+     *
+     * @return false 表示写库抛了异常，检查点未移动，需要稍后从这条记录重试
+     */
+    private boolean applyOne(MappedJournal.Record record) {
+        VoucherImportDTO voucher = parse(record);
+        long end = record.endOffset();
+        try {
+            FinanceJournalRejection rejection = transactionTemplate.execute(status -> {
+                FinanceJournalRejection r = null;
+                if (voucher == null) {
+                    r = rejection(record, UNPARSABLE);
+                } else {
+                    VoucherImportResultVO result = transactionService.importVouchersInTransaction(List.of(voucher), 0).get(0);
+                    if (!result.isSuccess()) {
+                        r = rejection(record, result.getMessage());
+                    }
+                }
+                if (r != null) {
+                    rejectionMapper.insert(r);
+                }
+                checkpointMapper.upsert(JOURNAL_NAME, end);
+                return r;
+            });
+            if (rejection != null) {
+                countRejection(rejection);
+            } else {
+                applied.incrementAndGet();
+            }
+            advance(end);
+            return true;
+        } catch (Exception e) {
+            log.error("凭证日志记录写库失败 (结束偏移 {})，稍后重试", end, e);
+            return false;
+        }
+    }
+
+    private VoucherImportDTO parse(MappedJournal.Record record) {
+        try {
+            return objectMapper.readValue(record.payload(), VoucherImportDTO.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private FinanceJournalRejection rejection(MappedJournal.Record record, String message) {
+        FinanceJournalRejection r = new FinanceJournalRejection();
+        r.setJournalName(JOURNAL_NAME);
+        r.setEndOffset(record.endOffset());
+        r.setPayload(new String(record.payload(), StandardCharsets.UTF_8));
+        r.setMessage(message != null && message.length() > MAX_MESSAGE_LENGTH
+                ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+        r.setCreateTime(LocalDateTime.now());
+        return r;
+    }
+
+    private void countRejection(FinanceJournalRejection rejection) {
+        rejected.incrementAndGet();
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("endOffset", rejection.getEndOffset());
+        item.put("message", rejection.getMessage());
+        synchronized (recentRejections) {
+            if (recentRejections.size() == MAX_RECENT_REJECTIONS) {
+                recentRejections.removeFirst();
+            }
+            recentRejections.addLast(item);
+        }
+    }
+
+    private void advance(long offset) {
+        appliedOffset = offset;
+        journal.release(offset);
+    }
+}
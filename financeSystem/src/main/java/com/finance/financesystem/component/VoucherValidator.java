@@ -0,0 +1,92 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.FinanceSplit;
+import com.finance.financesystem.entity.FinanceTransaction;
+import com.finance.financesystem.service.IFinancePeriodService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 凭证入账前校验
+ *
+ * - 凭证日期不能为空，已过账凭证不能落在已结账期间
+ * - 至少两条分录，科目必须存在于当前科目表快照
+ * - 借贷方向为 1 / -1，金额为正且最多两位小数
+ * - 借方合计 = 贷方合计 (以分为单位比较)
+ */
+@Component
+public class VoucherValidator {
+
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    @Autowired
+    private IFinancePeriodService periodService;
+
+    /**
+     * @return 校验失败的原因，通过时返回 null
+     */
+    public String validate(FinanceTransaction tx, List<FinanceSplit> splits) {
+        return validate(tx.getVoucherDate(), isPosted(tx.getStatus()), splits);
+    }
+
+    /**
+     * @param posting 是否要过账 (过账才检查期间是否已结账)
+     * @return 校验失败的原因，通过时返回 null
+     */
+    public String validate(LocalDate voucherDate, boolean posting, List<FinanceSplit> splits) {
+        if (voucherDate == null) {
+            return "凭证日期不能为空";
+        }
+        if (posting) {
+            List<YearMonth> closed = periodService.listClosedPeriods();
+            if (!closed.isEmpty() && !YearMonth.from(voucherDate).isAfter(closed.get(closed.size() - 1))) {
+                return "会计期间 " + YearMonth.from(voucherDate) + " 已结账，不能过账";
+            }
+        }
+        if (splits == null || splits.size() < 2) {
+            return "分录至少两条";
+        }
+
+        ChartOfAccounts chart = chartIndex.get();
+        long debit = 0;
+        long credit = 0;
+        for (int i = 0; i < splits.size(); i++) {
+            FinanceSplit split = splits.get(i);
+            int line = i + 1;
+            if (chart.ordinalOf(split.getAccountId()) < 0) {
+                return "第 " + line + " 条分录科目不存在: " + split.getAccountId();
+            }
+            Integer dc = split.getDcDirection();
+            if (dc == null || (dc != 1 && dc != -1)) {
+                return "第 " + line + " 条分录借贷方向无效: " + dc;
+            }
+            if (split.getAmount() == null || split.getAmount().signum() <= 0) {
+                return "第 " + line + " 条分录金额必须大于 0";
+            }
+            long cents;
+            try {
+                cents = CentsLedger.toCents(split.getAmount());
+            } catch (ArithmeticException e) {
+                return "第 " + line + " 条分录金额最多两位小数: " + split.getAmount();
+            }
+            if (dc == 1) {
+                debit = Math.addExact(debit, cents);
+            } else {
+                credit = Math.addExact(credit, cents);
+            }
+        }
+        if (debit != credit) {
+            return "借贷不平: 借方 " + CentsLedger.toAmount(debit) + "，贷方 " + CentsLedger.toAmount(credit);
+        }
+        return null;
+    }
+
+    public static boolean isPosted(String status) {
+        return status == null || "POSTED".equals(status);
+    }
+}
@@ -0,0 +1,83 @@
+package com.finance.financesystem.controller;
+
+import com.finance.financesystem.entity.ReconciliationResultVO;
+import com.finance.financesystem.service.IBankReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * 银行对账 API
+ * </p>
+ */
+@RestController
+@RequestMapping("/reconcile")
+@CrossOrigin(origins = "*")
+public class BankReconciliationController {
+
+    @Autowired
+    private IBankReconciliationService reconciliationService;
+
+    /**
+     * 导入银行对账单 (CSV) 并自动勾对，匹配上的分录标记为已结清
+     *
+     * @param accountCode 对账科目编码，不传时对全部现金 / 银行科目
+     * @param windowDays  日期容差 (天)
+     */
+    @PostMapping("/statement")
+    public Map<String, Object> importStatement(@RequestParam("file") MultipartFile file,
+                                               @RequestParam(required = false) Long bookId,
+                                               @RequestParam(required = false) String accountCode,
+                                               @RequestParam(required = false) Integer windowDays) {
+        Map<String, Object> result = new HashMap<>();
+        if (file == null || file.isEmpty()) {
+            result.put("code", 400);
+            result.put("msg", "文件不能为空");
+            return result;
+        }
+        try (InputStream in = file.getInputStream()) {
+            ReconciliationResultVO vo = reconciliationService.reconcileStatement(in, bookId, accountCode, windowDays);
+            result.put("code", 200);
+            result.put("msg", "对账单 " + vo.getStatementLines() + " 行，匹配 " + vo.getMatched()
+                + " 行，未达账项：银行 " + vo.getUnmatchedLines() + " 笔、账面 " + vo.getUnmatchedSplits() + " 笔");
+            result.put("data", vo);
+        } catch (IllegalArgumentException e) {
+            result.put("code", 400);
+            result.put("msg", e.getMessage());
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("msg", "对账失败: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 确认对账：截至指定日期已结清的分录改为已对账
+     *
+     * @param to 截止日期，不传时为今天
+     */
+    @PostMapping("/confirm")
+    public Map<String, Object> confirm(@RequestParam(required = false) Long bookId,
+                                       @RequestParam(required = false) String accountCode,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            int updated = reconciliationService.confirm(bookId, accountCode, to);
+            result.put("code", 200);
+            result.put("msg", "已确认 " + updated + " 条分录");
+            result.put("data", updated);
+        } catch (IllegalArgumentException e) {
+            result.put("code", 400);
+            result.put("msg", e.getMessage());
+        }
+        return result;
+    }
+}
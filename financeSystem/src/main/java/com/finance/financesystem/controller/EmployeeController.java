@@ -1,16 +1,13 @@
 package com.finance.financesystem.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.PostingVar;
 import com.finance.financesystem.entity.Employee;
-import com.finance.financesystem.entity.FinanceAccount;
-import com.finance.financesystem.entity.FinanceSplit;
-import com.finance.financesystem.entity.FinanceTransaction;
+import com.finance.financesystem.entity.PayrollRunDTO;
+import com.finance.financesystem.entity.PayrollRunResultVO;
 import com.finance.financesystem.service.IEmployeeService;
-import com.finance.financesystem.service.IFinanceAccountService;
-import com.finance.financesystem.service.IFinanceSplitService;
 import com.finance.financesystem.service.IFinanceTransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -31,15 +28,9 @@ public class EmployeeController {
     @Autowired
     private IEmployeeService employeeService;
 
-    @Autowired
-    private IFinanceAccountService accountService;
-
     @Autowired
     private IFinanceTransactionService transactionService;
 
-    @Autowired
-    private IFinanceSplitService splitService;
-
     // ================= 原有基础功能 =================
 
     @GetMapping("/list")
@@ -57,10 +48,46 @@ public class EmployeeController {
         return employeeService.removeById(id);
     }
 
+    // ================= 工资计算 =================
+
+    /**
+     * 试算当月工资，不生成凭证
+     */
+    @PostMapping("/payroll/preview")
+    public Map<String, Object> previewPayroll(@RequestBody PayrollRunDTO run) {
+        return payrollResult(run, false);
+    }
+
+    /**
+     * 计算当月工资并生成按部门汇总的计提凭证；之后按结果中的实发合计调用 /payroll 发放
+     */
+    @PostMapping("/payroll/run")
+    public Map<String, Object> runPayroll(@RequestBody PayrollRunDTO run) {
+        return payrollResult(run, true);
+    }
+
+    private Map<String, Object> payrollResult(PayrollRunDTO run, boolean post) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            PayrollRunResultVO vo = employeeService.runPayroll(run, post);
+            result.put("code", 200);
+            result.put("message", "计算 " + vo.getEmployees() + " 人，实发合计 " + vo.getNetPay()
+                + (vo.getSkipped() > 0 ? "，" + vo.getSkipped() + " 人未计入" : "")
+                + (vo.getTransactionId() != null ? "，已生成计提凭证 " + vo.getVoucherNo() : ""));
+            result.put("data", vo);
+        } catch (IllegalArgumentException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "工资计算失败：" + e.getMessage());
+        }
+        return result;
+    }
+
     // ================= 新增：一键发放工资 =================
 
     @PostMapping("/payroll")
-    @Transactional
     public Map<String, Object> issuePayroll(@RequestBody Map<String, Object> params) {
         Map<String, Object> result = new HashMap<>();
 
@@ -69,47 +96,12 @@ public class EmployeeController {
             String month = (String) params.get("month");
             BigDecimal totalAmount = new BigDecimal(params.get("totalAmount").toString());
 
-            // 2. 【关键修复】查找必要的会计科目 (使用代码查找)
-            // 1002 = 银行存款, 2211 = 应付职工薪酬
-            FinanceAccount bankAccount = accountService.getOne(new QueryWrapper<FinanceAccount>()
-                    .eq("account_code", "1002").last("LIMIT 1"));
-            FinanceAccount salaryAccount = accountService.getOne(new QueryWrapper<FinanceAccount>()
-                    .eq("account_code", "2211").last("LIMIT 1"));
-
-            // 3. 检查科目是否存在
-            if (bankAccount == null) {
-                throw new RuntimeException("系统未找到【1002 银行存款】科目，请先在基础设置中添加！");
-            }
-            if (salaryAccount == null) {
-                throw new RuntimeException("系统未找到【2211 应付职工薪酬】科目，请先在基础设置中添加！");
-            }
-
-            // 4. 创建主凭证
-            FinanceTransaction tx = new FinanceTransaction();
-            tx.setVoucherDate(LocalDate.now());
-            tx.setDescription(month + "月份员工工资发放");
-            tx.setStatus("POSTED");
-            transactionService.save(tx);
-            Long txId = tx.getTransactionId();
-
-            // 5. 创建分录
-            // 借：应付职工薪酬
-            FinanceSplit splitDebit = new FinanceSplit();
-            splitDebit.setTransactionId(txId);
-            splitDebit.setAccountId(salaryAccount.getAccountId());
-            splitDebit.setSummary(month + " 工资支出");
-            splitDebit.setDcDirection(1);
-            splitDebit.setAmount(totalAmount);
-            splitService.save(splitDebit);
-
-            // 贷：银行存款
-            FinanceSplit splitCredit = new FinanceSplit();
-            splitCredit.setTransactionId(txId);
-            splitCredit.setAccountId(bankAccount.getAccountId());
-            splitCredit.setSummary(month + " 工资支出");
-            splitCredit.setDcDirection(-1);
-            splitCredit.setAmount(totalAmount);
-            splitService.save(splitCredit);
+            // 2. 按 PAYROLL 过账规则生成凭证 (默认 借 2203 应付职工薪酬 / 贷 1002 银行存款)，
+            //    主表、分录、科目余额在同一事务里写入
+            long[] header = PostingVar.vector();
+            header[PostingVar.TOTAL.ordinal()] = CentsLedger.toCents(totalAmount);
+            transactionService.postByRule("PAYROLL", null, LocalDate.now(), month + "月份员工工资发放",
+                    header, List.of());
 
             result.put("code", 200);
             result.put("message", "发放成功！已自动生成财务凭证。");
@@ -0,0 +1,103 @@
+package com.finance.financesystem.controller;
+
+import com.finance.financesystem.component.TabularWriter;
+import com.finance.financesystem.service.IFinanceExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 账簿导出控制器
+ *
+ * 审计用的全年序时账 / 科目明细账，边从数据库读边写到响应，内存占用与行数无关。
+ *
+ * 公共参数：
+ * - format：csv (默认) 或 xlsx
+ * - gzip：true 时整个文件再 gzip 压缩，文件名加 .gz (CSV 通常可压到 1/5 以下)
+ * - from / to：凭证日期区间 (含)，格式 yyyy-MM-dd
+ */
+@RestController
+@RequestMapping("/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    @Autowired
+    private IFinanceExportService exportService;
+
+    /**
+     * 序时账：区间内全部已过账凭证的分录
+     */
+    @GetMapping("/journal")
+    public ResponseEntity<?> exportJournal(
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("journal" + suffix(from, to), format, gzip,
+            writer -> exportService.writeJournal(writer, bookId, from, to));
+    }
+
+    /**
+     * 科目明细账：期初余额 + 逐笔分录及累计余额 + 期末余额
+     */
+    @GetMapping("/ledger/{accountId}")
+    public ResponseEntity<?> exportLedger(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("ledger-" + accountId + suffix(from, to), format, gzip,
+            writer -> exportService.writeLedger(writer, accountId, from, to));
+    }
+
+    @FunctionalInterface
+    private interface Rows {
+        void write(TabularWriter writer) throws IOException;
+    }
+
+    private ResponseEntity<?> export(String baseName, String format, boolean gzip, Rows rows) {
+        TabularWriter.Format fmt;
+        try {
+            fmt = TabularWriter.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("code", 400);
+            result.put("msg", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+
+        String fileName = baseName + "." + fmt.extension + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            try (TabularWriter writer = TabularWriter.open(fmt, target)) {
+                rows.write(writer);
+            }
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : fmt.contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString())
+            .body(body);
+    }
+
+    private static String suffix(LocalDate from, LocalDate to) {
+        return (from != null ? "_" + from : "") + (to != null ? "_" + to : "");
+    }
+}
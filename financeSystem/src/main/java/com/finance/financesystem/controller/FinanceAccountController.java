@@ -1,10 +1,15 @@
 package com.finance.financesystem.controller;
 
+import com.finance.financesystem.component.ChartOfAccounts;
+import com.finance.financesystem.component.ChartOfAccountsIndex;
+import com.finance.financesystem.component.LedgerVersion;
+import com.finance.financesystem.entity.AccountTreeVO;
 import com.finance.financesystem.entity.FinanceAccount;
 import com.finance.financesystem.service.IFinanceAccountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -15,6 +20,12 @@ public class FinanceAccountController {
     @Autowired
     private IFinanceAccountService accountService;
 
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
     /**
      * 获取所有会计科目列表
      */
@@ -25,11 +36,16 @@ public class FinanceAccountController {
 
     /**
      * 获取树形结构的科目表
+     * 基于缓存的科目索引一次线性遍历构建，不含余额
      */
     @GetMapping("/tree")
-    public List<FinanceAccount> tree() {
-        // 返回所有科目，前端可以自己构建树
-        return accountService.list();
+    public List<AccountTreeVO> tree() {
+        ChartOfAccounts chart = chartIndex.get();
+        List<AccountTreeVO> roots = new ArrayList<>();
+        for (FinanceAccount root : chart.getAllRoots()) {
+            roots.add(chart.buildTree(root.getAccountId(), null));
+        }
+        return roots;
     }
 
     /**
@@ -46,6 +62,8 @@ public class FinanceAccountController {
     @PostMapping
     public String add(@RequestBody FinanceAccount account) {
         accountService.save(account);
+        chartIndex.refresh();
+        ledgerVersion.bump();
         return "新增成功";
     }
 
@@ -55,6 +73,8 @@ public class FinanceAccountController {
     @PutMapping
     public String update(@RequestBody FinanceAccount account) {
         accountService.updateById(account);
+        chartIndex.refresh();
+        ledgerVersion.bump();
         return "更新成功";
     }
 
@@ -64,6 +84,8 @@ public class FinanceAccountController {
     @DeleteMapping("/{id}")
     public String delete(@PathVariable Long id) {
         accountService.removeById(id);
+        chartIndex.refresh();
+        ledgerVersion.bump();
         return "删除成功";
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.finance.financesystem.controller;
+
+import com.finance.financesystem.service.IFinancePeriodService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 会计期间结账控制器
+ * 
+ * 结账后写入期末余额快照，历史报表 = 快照 + 之后的分录增量
+ */
+@RestController
+@RequestMapping("/financePeriod")
+@CrossOrigin(origins = "*")
+public class FinancePeriodController {
+
+    @Autowired
+    private IFinancePeriodService periodService;
+
+    /**
+     * 已结账期间列表 (yyyy-MM，升序)
+     */
+    @GetMapping("/list")
+    public List<String> list() {
+        return periodService.listClosedPeriods().stream()
+            .map(YearMonth::toString)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 结账
+     * 请求体：{"period": "2025-12"}
+     */
+    @PostMapping("/close")
+    public Map<String, Object> close(@RequestBody Map<String, Object> body) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            YearMonth period = YearMonth.parse((String) body.get("period"));
+            periodService.closePeriod(period);
+            result.put("code", 200);
+            result.put("msg", period + " 结账成功");
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("msg", "结账失败: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 反结账 (撤销最近一个已结账期间)
+     */
+    @PostMapping("/reopen")
+    public Map<String, Object> reopen() {
+        Map<String, Object> result = new HashMap<>();
+        YearMonth reopened = periodService.reopenLatest();
+        if (reopened == null) {
+            result.put("code", 400);
+            result.put("msg", "没有已结账的期间");
+        } else {
+            result.put("code", 200);
+            result.put("msg", reopened + " 已反结账");
+        }
+        return result;
+    }
+}
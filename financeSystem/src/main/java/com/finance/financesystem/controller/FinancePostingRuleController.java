@@ -0,0 +1,100 @@
+package com.finance.financesystem.controller;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.finance.financesystem.component.PostingPlan;
+import com.finance.financesystem.component.PostingRules;
+import com.finance.financesystem.entity.FinancePostingRule;
+import com.finance.financesystem.service.IFinancePostingRuleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 过账规则控制器
+ *
+ * 维护 单据类型 → 分录模板；每次写入后重新编译规则，返回该单据类型的编译结果。
+ */
+@RestController
+@RequestMapping("/postingRule")
+@CrossOrigin(origins = "*")
+public class FinancePostingRuleController {
+
+    @Autowired
+    private IFinancePostingRuleService ruleService;
+
+    @Autowired
+    private PostingRules postingRules;
+
+    /**
+     * 规则列表，按 单据类型、分录顺序 排序
+     */
+    @GetMapping("/list")
+    public List<FinancePostingRule> list(@RequestParam(required = false) String docType) {
+        QueryWrapper<FinancePostingRule> q = new QueryWrapper<>();
+        q.eq(docType != null, "doc_type", docType);
+        q.orderByAsc("doc_type", "line_no");
+        return ruleService.list(q);
+    }
+
+    /**
+     * 各单据类型的编译状态：分录模板行数、编译错误
+     */
+    @GetMapping("/plans")
+    public Map<String, Object> plans() {
+        Map<String, Object> plans = new LinkedHashMap<>();
+        for (PostingPlan plan : postingRules.getAll().values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("steps", plan.size());
+            item.put("error", plan.getError());
+            plans.put(plan.getDocType(), item);
+        }
+        return plans;
+    }
+
+    /**
+     * 新增规则
+     */
+    @PostMapping
+    public Map<String, Object> add(@RequestBody FinancePostingRule rule) {
+        ruleService.save(rule);
+        return refreshed(rule.getDocType(), "新增成功");
+    }
+
+    /**
+     * 更新规则
+     */
+    @PutMapping
+    public Map<String, Object> update(@RequestBody FinancePostingRule rule) {
+        ruleService.updateById(rule);
+        return refreshed(rule.getDocType(), "更新成功");
+    }
+
+    /**
+     * 删除规则
+     */
+    @DeleteMapping("/{id}")
+    public Map<String, Object> delete(@PathVariable Long id) {
+        FinancePostingRule rule = ruleService.getById(id);
+        ruleService.removeById(id);
+        return refreshed(rule != null ? rule.getDocType() : null, "删除成功");
+    }
+
+    private Map<String, Object> refreshed(String docType, String msg) {
+        postingRules.refresh();
+        PostingPlan plan = postingRules.get(docType);
+        Map<String, Object> result = new HashMap<>();
+        if (plan != null && plan.getError() != null) {
+            // 已保存，但该单据类型在修正之前无法过账
+            result.put("code", 400);
+            result.put("msg", msg + "，但规则编译失败: " + plan.getError());
+        } else {
+            result.put("code", 200);
+            result.put("msg", msg);
+        }
+        return result;
+    }
+}
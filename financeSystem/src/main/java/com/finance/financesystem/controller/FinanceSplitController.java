@@ -1,20 +1,18 @@
 package com.finance.financesystem.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.finance.financesystem.entity.FinanceAccount;
-import com.finance.financesystem.entity.FinanceSplit;
-import com.finance.financesystem.service.IFinanceAccountService;
+import com.finance.financesystem.component.JsonStreamWriter;
 import com.finance.financesystem.service.IFinanceSplitService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.io.IOException;
 
 /**
  * 分录控制器
  * 
- * 提供分录查询接口，用于凭证流水展示
+ * 提供分录查询接口，用于凭证流水展示。
+ * 不带条件时会返回全部分录，因此从数据库游标逐行写出 JSON，不在内存里组装列表。
  */
 @RestController
 @RequestMapping("/financeSplit")
@@ -23,53 +21,20 @@ public class FinanceSplitController {
 
     @Autowired
     private IFinanceSplitService splitService;
-    
+
     @Autowired
-    private IFinanceAccountService accountService;
+    private JsonStreamWriter jsonStreams;
 
     /**
      * 根据凭证ID获取分录列表
      * 
-     * @param transactionId 凭证ID
+     * @param transactionId 凭证ID，不传返回全部分录
      * @return 分录列表（包含科目名称）
      */
     @GetMapping("/list")
-    public List<Map<String, Object>> getList(@RequestParam(required = false) Long transactionId) {
-        QueryWrapper<FinanceSplit> qw = new QueryWrapper<>();
-        
-        if (transactionId != null) {
-            qw.eq("transaction_id", transactionId);
-        }
-        
-        qw.orderByAsc("split_id");
-        List<FinanceSplit> splits = splitService.list(qw);
-        
-        // 获取所有科目信息
-        List<FinanceAccount> accounts = accountService.list();
-        Map<Long, String> accountNameMap = accounts.stream()
-            .collect(Collectors.toMap(
-                FinanceAccount::getAccountId, 
-                FinanceAccount::getAccountName,
-                (a, b) -> a
-            ));
-        
-        // 构建返回数据
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (FinanceSplit split : splits) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("splitId", split.getSplitId());
-            item.put("transactionId", split.getTransactionId());
-            item.put("accountId", split.getAccountId());
-            item.put("accountName", accountNameMap.getOrDefault(split.getAccountId(), "未知科目"));
-            item.put("dcDirection", split.getDcDirection());
-            item.put("amount", split.getAmount());
-            item.put("summary", split.getSummary());
-            item.put("reconcileState", split.getReconcileState());
-            
-            result.add(item);
-        }
-        
-        return result;
+    public void getList(@RequestParam(required = false) Long transactionId, HttpServletResponse response) throws IOException {
+        jsonStreams.stream(response, gen ->
+            JsonStreamWriter.writeArray(gen, splitService.openSplitRows(transactionId, null)));
     }
 
     /**
@@ -79,26 +44,8 @@ public class FinanceSplitController {
      * @return 分录列表
      */
     @GetMapping("/byAccount/{accountId}")
-    public List<Map<String, Object>> getByAccount(@PathVariable Long accountId) {
-        QueryWrapper<FinanceSplit> qw = new QueryWrapper<>();
-        qw.eq("account_id", accountId);
-        qw.orderByAsc("split_id");
-        
-        List<FinanceSplit> splits = splitService.list(qw);
-        
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (FinanceSplit split : splits) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("splitId", split.getSplitId());
-            item.put("transactionId", split.getTransactionId());
-            item.put("accountId", split.getAccountId());
-            item.put("dcDirection", split.getDcDirection());
-            item.put("amount", split.getAmount());
-            item.put("summary", split.getSummary());
-            
-            result.add(item);
-        }
-        
-        return result;
+    public void getByAccount(@PathVariable Long accountId, HttpServletResponse response) throws IOException {
+        jsonStreams.stream(response, gen ->
+            JsonStreamWriter.writeArray(gen, splitService.openSplitRows(null, accountId)));
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,28 @@
 package com.finance.financesystem.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
-import com.finance.financesystem.entity.FinanceAccount;
+import com.finance.financesystem.component.JsonStreamWriter;
+import com.finance.financesystem.component.VoucherIngestJournal;
 import com.finance.financesystem.entity.FinanceSplit;
 import com.finance.financesystem.entity.FinanceTransaction;
-import com.finance.financesystem.service.IFinanceAccountService;
-import com.finance.financesystem.service.IFinanceSplitService;
+import com.finance.financesystem.entity.PostingResultVO;
+import com.finance.financesystem.entity.TrialBalanceVO;
+import com.finance.financesystem.entity.VoucherImportDTO;
+import com.finance.financesystem.entity.VoucherImportResultVO;
+import com.finance.financesystem.service.IFinanceLedgerService;
 import com.finance.financesystem.service.IFinanceTransactionService;
+import com.finance.financesystem.service.IFinanceTrialBalanceService;
+import com.finance.financesystem.service.IJournalImportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 凭证/交易控制器
@@ -23,7 +31,7 @@ import java.util.stream.Collectors;
  * 1. 凭证录入（草稿/直接过账）
  * 2. 过账审核
  * 3. 科目明细账查询
- * 4. 科目余额汇总
+ * 4. 科目余额汇总 (试算平衡表)
  */
 @RestController
 @RequestMapping("/financeTransaction")
@@ -34,40 +42,48 @@ public class FinanceTransactionController {
     private IFinanceTransactionService transactionService;
 
     @Autowired
-    private IFinanceSplitService splitService;
+    private IFinanceLedgerService ledgerService;
 
     @Autowired
-    private IFinanceAccountService accountService;
+    private IFinanceTrialBalanceService trialBalanceService;
+
+    @Autowired
+    private JsonStreamWriter jsonStreams;
+
+    @Autowired
+    private IJournalImportService journalImportService;
+
+    /** 写前日志接入模式，未开启 finance.journal.enabled 时为 null */
+    @Autowired(required = false)
+    private VoucherIngestJournal ingestJournal;
 
     // ==================== 凭证列表 ====================
     
+    private static final int MAX_PAGE_SIZE = 5000;
+    
+    /**
+     * 凭证列表，按 凭证日期、凭证ID 倒序，返回数组 (从数据库游标流式写出，不在内存中聚集)
+     * 
+     * 传 limit 时按游标分页：把本页最后一行的 voucherDate / transactionId 作为 cursorDate / cursorId 传回，
+     * 返回条数小于 limit 即为最后一页；不传 limit 时返回全部凭证 (与分页前的行为一致)
+     * 
+     * @param status DRAFT / POSTED，不传则全部
+     * @param from   凭证日期下限 (含)
+     * @param to     凭证日期上限 (含)
+     * @param limit  每页条数，最多 5000，不传则不分页
+     */
     @GetMapping("/list")
-    public List<Map<String, Object>> getList() {
-        List<FinanceTransaction> transactions = transactionService.list(
-            new QueryWrapper<FinanceTransaction>().orderByDesc("voucher_date", "transaction_id")
-        );
-        
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (FinanceTransaction tx : transactions) {
-            Map<String, Object> map = new HashMap<>();
-            map.put("transactionId", tx.getTransactionId());
-            map.put("voucherDate", tx.getVoucherDate());
-            map.put("description", tx.getDescription());
-            map.put("status", tx.getStatus());
-            
-            // 计算凭证总金额（借方合计）
-            QueryWrapper<FinanceSplit> qw = new QueryWrapper<>();
-            qw.eq("transaction_id", tx.getTransactionId());
-            qw.eq("dc_direction", 1);
-            List<FinanceSplit> debitSplits = splitService.list(qw);
-            BigDecimal totalAmount = debitSplits.stream()
-                .map(FinanceSplit::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            map.put("totalAmount", totalAmount);
-            
-            result.add(map);
-        }
-        return result;
+    public void getList(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response) throws IOException {
+        Integer pageSize = limit == null ? null : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        jsonStreams.stream(response, gen -> JsonStreamWriter.writeArray(gen,
+            transactionService.openVoucherPage(status, from, to, cursorDate, cursorId, pageSize)));
     }
 
     // ==================== 添加凭证 ====================
@@ -94,37 +110,37 @@ public class FinanceTransactionController {
             tx.setVoucherDate(LocalDate.parse(voucherDateStr));
             tx.setDescription(description);
             tx.setStatus(status);  // ✅ 使用前端传递的状态
-            transactionService.save(tx);
-            
-            Long txId = tx.getTransactionId();
             
             // 创建分录
+            List<FinanceSplit> splits = new ArrayList<>();
             for (Map<String, Object> splitData : splitsData) {
                 FinanceSplit split = new FinanceSplit();
-                split.setTransactionId(txId);
                 
+                // 前端可能传数字或字符串，统一按字符串解析，不再丢弃非 Integer/Long 的值
                 Object accIdObj = splitData.get("accountId");
-                if (accIdObj instanceof Integer) {
-                    split.setAccountId(((Integer) accIdObj).longValue());
-                } else if (accIdObj instanceof Long) {
-                    split.setAccountId((Long) accIdObj);
+                if (accIdObj != null && !accIdObj.toString().isBlank()) {
+                    split.setAccountId(new BigDecimal(accIdObj.toString().trim()).longValueExact());
                 }
                 
                 split.setSummary((String) splitData.get("summary"));
                 
                 Object dirObj = splitData.get("dcDirection");
-                if (dirObj instanceof Integer) {
-                    split.setDcDirection((Integer) dirObj);
+                if (dirObj != null && !dirObj.toString().isBlank()) {
+                    split.setDcDirection(new BigDecimal(dirObj.toString().trim()).intValueExact());
                 }
                 
                 Object amtObj = splitData.get("amount");
-                if (amtObj instanceof Number) {
-                    split.setAmount(new BigDecimal(amtObj.toString()));
+                if (amtObj != null && !amtObj.toString().isBlank()) {
+                    split.setAmount(new BigDecimal(amtObj.toString().trim()));
                 }
                 
-                splitService.save(split);
+                splits.add(split);
             }
             
+            // 主表、分录、科目余额在同一事务里写入
+            transactionService.saveVoucher(tx, splits);
+            Long txId = tx.getTransactionId();
+            
             result.put("code", 200);
             result.put("message", status.equals("DRAFT") ? "草稿保存成功" : "凭证保存并过账成功");
             result.put("transactionId", txId);
@@ -138,6 +154,129 @@ public class FinanceTransactionController {
         return result;
     }
 
+    // ==================== 批量导入 ====================
+    
+    private static final int MAX_BULK_SIZE = 10000;
+    
+    /**
+     * 批量导入凭证 (历史数据迁移)
+     * 
+     * 每张凭证单独校验借贷平衡，通过的按块批量写库；
+     * 返回每张凭证的结果，失败的凭证不影响其他凭证
+     */
+    @PostMapping("/bulk")
+    public Map<String, Object> bulkImport(@RequestBody List<VoucherImportDTO> vouchers) {
+        Map<String, Object> result = new HashMap<>();
+        
+        if (vouchers == null || vouchers.isEmpty()) {
+            result.put("code", 400);
+            result.put("message", "凭证不能为空");
+            return result;
+        }
+        if (vouchers.size() > MAX_BULK_SIZE) {
+            result.put("code", 400);
+            result.put("message", "单次最多导入 " + MAX_BULK_SIZE + " 张凭证");
+            return result;
+        }
+        
+        long start = System.currentTimeMillis();
+        List<VoucherImportResultVO> results = transactionService.importVouchers(vouchers, 0);
+        long succeeded = results.stream().filter(VoucherImportResultVO::isSuccess).count();
+        
+        result.put("code", 200);
+        result.put("message", "导入完成，成功 " + succeeded + " 张，失败 " + (results.size() - succeeded) + " 张");
+        result.put("total", results.size());
+        result.put("succeeded", succeeded);
+        result.put("failed", results.size() - succeeded);
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        result.put("results", results);
+        return result;
+    }
+
+    /**
+     * 高频接入：凭证校验后写入本地写前日志，落盘即返回，由后台批量写库
+     * 
+     * 需要开启 finance.journal.enabled；返回成功只表示已持久化到日志，凭证ID在写库后才产生
+     */
+    @PostMapping("/journal")
+    public Map<String, Object> submitToJournal(@RequestBody List<VoucherImportDTO> vouchers) {
+        Map<String, Object> result = new HashMap<>();
+        if (ingestJournal == null) {
+            result.put("code", 400);
+            result.put("message", "未开启写前日志接入 (finance.journal.enabled)");
+            return result;
+        }
+        if (vouchers == null || vouchers.isEmpty()) {
+            result.put("code", 400);
+            result.put("message", "凭证不能为空");
+            return result;
+        }
+        if (vouchers.size() > MAX_BULK_SIZE) {
+            result.put("code", 400);
+            result.put("message", "单次最多提交 " + MAX_BULK_SIZE + " 张凭证");
+            return result;
+        }
+        try {
+            List<VoucherImportResultVO> results = ingestJournal.submit(vouchers);
+            long accepted = results.stream().filter(VoucherImportResultVO::isSuccess).count();
+            result.put("code", 200);
+            result.put("message", "已接收 " + accepted + " 张，拒绝 " + (results.size() - accepted) + " 张");
+            result.put("accepted", accepted);
+            result.put("rejected", results.size() - accepted);
+            result.put("results", results);
+        } catch (IllegalStateException e) {
+            result.put("code", 503);
+            result.put("message", e.getMessage());
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "写入日志失败: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 写前日志状态 (写入 / 落盘 / 已写库偏移、fsync 次数、回放拒绝的凭证)
+     */
+    @GetMapping("/journal/stats")
+    public Map<String, Object> getJournalStats() {
+        if (ingestJournal == null) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("enabled", false);
+            return result;
+        }
+        Map<String, Object> stats = ingestJournal.stats();
+        stats.put("enabled", true);
+        return stats;
+    }
+
+    /**
+     * 分录文件导入 (CSV / JSON Lines)，流式解析，文件大小不受内存限制
+     * 
+     * @param format csv / jsonl，不传时按文件扩展名判断
+     */
+    @PostMapping("/import")
+    public Map<String, Object> importJournal(@RequestParam("file") MultipartFile file,
+                                             @RequestParam(required = false) String format) {
+        Map<String, Object> result = new HashMap<>();
+        if (file == null || file.isEmpty()) {
+            result.put("code", 400);
+            result.put("message", "文件不能为空");
+            return result;
+        }
+        String fmt = format;
+        if (fmt == null) {
+            String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+            fmt = name.endsWith(".jsonl") || name.endsWith(".json") || name.endsWith(".ndjson") ? "jsonl" : "csv";
+        }
+        try (InputStream in = file.getInputStream()) {
+            return journalImportService.importJournal(in, fmt);
+        } catch (Exception e) {
+            result.put("code", 500);
+            result.put("message", "导入失败: " + e.getMessage());
+            return result;
+        }
+    }
+
     // ==================== 批量过账 ====================
     
     @PostMapping("/post")
@@ -151,14 +290,18 @@ public class FinanceTransactionController {
                 return result;
             }
             
-            // 批量更新状态为 POSTED
-            UpdateWrapper<FinanceTransaction> uw = new UpdateWrapper<>();
-            uw.in("transaction_id", transactionIds);
-            uw.set("status", "POSTED");
-            transactionService.update(uw);
+            // 分块校验借贷平衡、更新状态为 POSTED，并累加科目余额
+            List<PostingResultVO> results = transactionService.postVouchers(transactionIds);
+            long posted = results.stream().filter(PostingResultVO::isSuccess).count();
+            long failed = results.size() - posted;
             
             result.put("code", 200);
-            result.put("msg", "过账成功，共处理 " + transactionIds.size() + " 张凭证");
+            result.put("msg", failed == 0
+                ? "过账成功，共处理 " + posted + " 张凭证"
+                : "过账完成，成功 " + posted + " 张，失败 " + failed + " 张");
+            result.put("posted", posted);
+            result.put("failed", failed);
+            result.put("results", results);
             
         } catch (Exception e) {
             result.put("code", 500);
@@ -170,165 +313,47 @@ public class FinanceTransactionController {
 
     // ==================== 科目明细账 ====================
     
+    private static final int DEFAULT_LEDGER_PAGE_SIZE = 500;
+    
+    /**
+     * 科目明细账 (游标分页)，按 凭证日期、凭证ID、分录ID 排序
+     * 
+     * 下一页：把返回的 nextCursor (cursorDate / cursorId / cursorSplitId) 原样传回；
+     * totalDebit / totalCredit / finalBalance 始终是整个 from ~ to 区间的合计
+     * 
+     * @param from  期间开始 (含)，之前的发生额计入期初余额
+     * @param to    期间结束 (含)
+     * @param limit 每页行数，默认 500，最多 5000
+     */
     @GetMapping("/ledger/{accountId}")
-    public Map<String, Object> getLedger(@PathVariable Long accountId) {
-        Map<String, Object> result = new HashMap<>();
-        
-        // 获取科目信息
-        FinanceAccount account = accountService.getById(accountId);
-        result.put("account", account);
-        
-        // 获取该科目的所有分录
-        QueryWrapper<FinanceSplit> qw = new QueryWrapper<>();
-        qw.eq("account_id", accountId);
-        List<FinanceSplit> splits = splitService.list(qw);
-        
-        // 获取所有相关凭证
-        List<Long> txIds = splits.stream()
-            .map(FinanceSplit::getTransactionId)
-            .distinct()
-            .collect(Collectors.toList());
-        
-        Map<Long, FinanceTransaction> txMap = new HashMap<>();
-        if (!txIds.isEmpty()) {
-            List<FinanceTransaction> txList = transactionService.listByIds(txIds);
-            txList.forEach(tx -> txMap.put(tx.getTransactionId(), tx));
-        }
-        
-        // 构建明细列表
-        List<Map<String, Object>> entries = new ArrayList<>();
-        BigDecimal runningBalance = BigDecimal.ZERO;
-        BigDecimal totalDebit = BigDecimal.ZERO;
-        BigDecimal totalCredit = BigDecimal.ZERO;
-        
-        // 判断科目余额方向
-        boolean isDebitBalance = account != null && 
-            ("ASSET".equals(account.getAccountType()) || "EXPENSE".equals(account.getAccountType()));
-        
-        for (FinanceSplit split : splits) {
-            FinanceTransaction tx = txMap.get(split.getTransactionId());
-            
-            // 只显示已过账的（状态为 POSTED 或 状态为空的老数据）
-            if (tx == null) {
-                continue;
-            }
-            String txStatus = tx.getStatus();
-            if (txStatus != null && !"POSTED".equals(txStatus)) {
-                continue;
-            }
-            
-            Map<String, Object> entry = new HashMap<>();
-            entry.put("splitId", split.getSplitId());
-            entry.put("transactionId", split.getTransactionId());
-            entry.put("voucherId", split.getTransactionId());
-            entry.put("date", tx.getVoucherDate());
-            entry.put("summary", split.getSummary());
-            entry.put("dcDirection", split.getDcDirection());
-            entry.put("amount", split.getAmount());
-            
-            // 计算累计余额
-            if (split.getDcDirection() != null && split.getDcDirection() == 1) {
-                totalDebit = totalDebit.add(split.getAmount());
-                if (isDebitBalance) {
-                    runningBalance = runningBalance.add(split.getAmount());
-                } else {
-                    runningBalance = runningBalance.subtract(split.getAmount());
-                }
-            } else {
-                totalCredit = totalCredit.add(split.getAmount());
-                if (isDebitBalance) {
-                    runningBalance = runningBalance.subtract(split.getAmount());
-                } else {
-                    runningBalance = runningBalance.add(split.getAmount());
-                }
-            }
-            
-            entry.put("balance", runningBalance);
-            entry.put("balanceDirection", runningBalance.compareTo(BigDecimal.ZERO) >= 0 ? "借" : "贷");
-            
-            entries.add(entry);
-        }
-        
-        result.put("entries", entries);
-        result.put("totalDebit", totalDebit);
-        result.put("totalCredit", totalCredit);
-        result.put("finalBalance", runningBalance);
-        
-        return result;
+    public void getLedger(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(required = false) Long cursorSplitId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response) throws IOException {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_LEDGER_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        jsonStreams.stream(response, gen ->
+            ledgerService.writeLedger(gen, accountId, from, to, cursorDate, cursorId, cursorSplitId, pageSize));
     }
 
     // ==================== 科目余额汇总 ====================
     
+    /**
+     * 试算平衡表 (期初 / 本期发生 / 期末)，只含已过账凭证
+     * 
+     * @param bookId 账簿ID，为空表示全部账簿
+     * @param from   期间开始 (含)，为空不限
+     * @param to     期间结束 (含)，为空不限
+     */
     @GetMapping("/ledger/summary")
-    public List<Map<String, Object>> getLedgerSummary() {
-        List<Map<String, Object>> result = new ArrayList<>();
-        
-        // 获取所有科目
-        List<FinanceAccount> accounts = accountService.list();
-        
-        // 获取所有已过账凭证的ID（状态为 POSTED 或 null）
-        List<FinanceTransaction> allTxList = transactionService.list();
-        Set<Long> postedTxIds = allTxList.stream()
-            .filter(tx -> tx.getStatus() == null || "POSTED".equals(tx.getStatus()))
-            .map(FinanceTransaction::getTransactionId)
-            .collect(Collectors.toSet());
-        
-        // 获取所有分录
-        List<FinanceSplit> allSplits = splitService.list();
-        
-        // 按科目汇总
-        Map<Long, BigDecimal> debitMap = new HashMap<>();
-        Map<Long, BigDecimal> creditMap = new HashMap<>();
-        
-        for (FinanceSplit split : allSplits) {
-            // 只统计已过账的
-            if (!postedTxIds.contains(split.getTransactionId())) {
-                continue;
-            }
-            
-            Long accId = split.getAccountId();
-            BigDecimal amt = split.getAmount() != null ? split.getAmount() : BigDecimal.ZERO;
-            
-            if (split.getDcDirection() != null && split.getDcDirection() == 1) {
-                debitMap.merge(accId, amt, BigDecimal::add);
-            } else {
-                creditMap.merge(accId, amt, BigDecimal::add);
-            }
-        }
-        
-        // 构建返回数据
-        for (FinanceAccount acc : accounts) {
-            Long accId = acc.getAccountId();
-            BigDecimal debit = debitMap.getOrDefault(accId, BigDecimal.ZERO);
-            BigDecimal credit = creditMap.getOrDefault(accId, BigDecimal.ZERO);
-            
-            // 跳过没有交易的科目
-            if (debit.compareTo(BigDecimal.ZERO) == 0 && credit.compareTo(BigDecimal.ZERO) == 0) {
-                continue;
-            }
-            
-            // 计算余额
-            BigDecimal balance;
-            boolean isDebitBalance = "ASSET".equals(acc.getAccountType()) || "EXPENSE".equals(acc.getAccountType());
-            if (isDebitBalance) {
-                balance = debit.subtract(credit);
-            } else {
-                balance = credit.subtract(debit);
-            }
-            
-            Map<String, Object> item = new HashMap<>();
-            item.put("accountId", accId);
-            item.put("accountCode", acc.getAccountCode());
-            item.put("accountName", acc.getAccountName());
-            item.put("accountType", acc.getAccountType());
-            item.put("totalDebit", debit);
-            item.put("totalCredit", credit);
-            item.put("balance", balance);
-            item.put("balanceDirection", isDebitBalance ? "借" : "贷");
-            
-            result.add(item);
-        }
-        
-        return result;
+    public TrialBalanceVO getLedgerSummary(
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trialBalanceService.getTrialBalance(bookId, from, to);
     }
 }
\ No newline at end of file
@@ -2,11 +2,14 @@ package com.finance.financesystem.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.finance.financesystem.entity.Invoice;
+import com.finance.financesystem.entity.InvoicePostingSummaryVO;
 import com.finance.financesystem.service.IInvoiceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -35,4 +38,34 @@ public class InvoiceController {
     public boolean delete(@PathVariable Long id) {
         return invoiceService.removeById(id);
     }
+
+    /**
+     * 全部草稿发票入账 (月末批量)
+     *
+     * @param bookId 凭证所属账簿，可空
+     */
+    @PostMapping("/post-drafts")
+    public Map<String, Object> postDrafts(@RequestParam(required = false) Long bookId) {
+        return postingResult(invoiceService.postDraftInvoices(bookId));
+    }
+
+    /**
+     * 指定发票入账
+     *
+     * @param invoiceIds 发票ID列表
+     */
+    @PostMapping("/post")
+    public Map<String, Object> post(@RequestBody List<Long> invoiceIds,
+                                    @RequestParam(required = false) Long bookId) {
+        return postingResult(invoiceService.postInvoices(invoiceIds, bookId));
+    }
+
+    private Map<String, Object> postingResult(InvoicePostingSummaryVO summary) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("msg", "入账 " + summary.getPosted() + " 张，失败 " + summary.getFailed()
+            + " 张，跳过 " + summary.getSkipped() + " 张");
+        result.put("data", summary);
+        return result;
+    }
 }
\ No newline at end of file
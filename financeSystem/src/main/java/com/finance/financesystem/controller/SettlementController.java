@@ -0,0 +1,43 @@
+package com.finance.financesystem.controller;
+
+import com.finance.financesystem.entity.PaymentDTO;
+import com.finance.financesystem.entity.SettlementSummaryVO;
+import com.finance.financesystem.service.IFinanceSettlementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 收付款核销 API
+ * </p>
+ */
+@RestController
+@RequestMapping("/settlement")
+@CrossOrigin(origins = "*")
+public class SettlementController {
+
+    @Autowired
+    private IFinanceSettlementService settlementService;
+
+    /**
+     * 批量核销收付款
+     *
+     * @param payments 收付款 (银行流水、收款单等)
+     * @param bookId   凭证所属账簿，可空
+     */
+    @PostMapping
+    public Map<String, Object> settle(@RequestBody List<PaymentDTO> payments,
+                                      @RequestParam(required = false) Long bookId) {
+        SettlementSummaryVO summary = settlementService.settle(payments, bookId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 200);
+        result.put("msg", "全额核销 " + summary.getFullyApplied() + " 笔，部分核销 " + summary.getPartlyApplied()
+            + " 笔，未匹配 " + summary.getUnmatched() + " 笔，失败 " + summary.getFailed() + " 笔");
+        result.put("data", summary);
+        return result;
+    }
+}
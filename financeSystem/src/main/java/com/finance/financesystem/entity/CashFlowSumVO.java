@@ -0,0 +1,15 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 现金流聚合结果：按现金流类别汇总的现金科目发生额
+ * 类别：SALES_IN / OTHER_IN / PURCHASE_OUT / SALARY_OUT / OTHER_OUT
+ */
+@Data
+public class CashFlowSumVO {
+    private String category;      // 现金流类别
+    private BigDecimal amount;    // 合计金额
+}
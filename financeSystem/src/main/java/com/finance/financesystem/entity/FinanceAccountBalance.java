@@ -0,0 +1,49 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 科目余额表 (按 科目 + 账簿 维护的已过账借贷累计)
+ * </p>
+ *
+ * 在凭证过账的同一个数据库事务里增量更新，报表直接读取本表，
+ * 不再每次扫描全部分录。
+ */
+@Getter
+@Setter
+@TableName("finance_account_balance")
+public class FinanceAccountBalance implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableField("account_id")
+    private Long accountId;
+
+    /**
+     * 账簿ID，凭证未指定账簿时记为 0
+     */
+    @TableField("book_id")
+    private Long bookId;
+
+    /**
+     * 已过账借方累计
+     */
+    @TableField("debit_total")
+    private BigDecimal debitTotal;
+
+    /**
+     * 已过账贷方累计
+     */
+    @TableField("credit_total")
+    private BigDecimal creditTotal;
+
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
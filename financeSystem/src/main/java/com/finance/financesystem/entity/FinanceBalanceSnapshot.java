@@ -0,0 +1,50 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 期末余额快照表
+ * </p>
+ *
+ * 结账时写入：截至该期间最后一天的已过账借贷累计 (按 科目 + 账簿)
+ */
+@Getter
+@Setter
+@TableName("finance_balance_snapshot")
+public class FinanceBalanceSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 会计期间，格式 yyyy-MM
+     */
+    @TableField("period")
+    private String period;
+
+    @TableField("account_id")
+    private Long accountId;
+
+    /**
+     * 账簿ID，凭证未指定账簿时记为 0
+     */
+    @TableField("book_id")
+    private Long bookId;
+
+    /**
+     * 截至期末的借方累计
+     */
+    @TableField("debit_total")
+    private BigDecimal debitTotal;
+
+    /**
+     * 截至期末的贷方累计
+     */
+    @TableField("credit_total")
+    private BigDecimal creditTotal;
+}
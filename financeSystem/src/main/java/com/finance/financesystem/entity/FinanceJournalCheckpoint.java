@@ -0,0 +1,37 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 写前日志检查点表
+ * </p>
+ *
+ * 与日志中的凭证在同一个数据库事务里更新，崩溃恢复时从 appliedOffset 开始重放
+ */
+@Getter
+@Setter
+@TableName("finance_journal_checkpoint")
+public class FinanceJournalCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "journal_name", type = IdType.INPUT)
+    private String journalName;
+
+    /**
+     * 已写入数据库的日志偏移 (不含)
+     */
+    @TableField("applied_offset")
+    private Long appliedOffset;
+
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
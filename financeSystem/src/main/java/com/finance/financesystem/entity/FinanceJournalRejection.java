@@ -0,0 +1,53 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 写前日志回放拒绝表
+ * </p>
+ *
+ * 回放时无法解析或校验不通过的记录连同原文存在这里，与检查点在同一个事务里写入，
+ * 检查点越过的每条未入账记录都能在此找到
+ */
+@Getter
+@Setter
+@TableName("finance_journal_rejection")
+public class FinanceJournalRejection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "rejection_id", type = IdType.AUTO)
+    private Long rejectionId;
+
+    @TableField("journal_name")
+    private String journalName;
+
+    /**
+     * 该记录在日志中的结束偏移
+     */
+    @TableField("end_offset")
+    private Long endOffset;
+
+    /**
+     * 日志记录原文 (凭证 JSON)
+     */
+    @TableField("payload")
+    private String payload;
+
+    /**
+     * 拒绝原因
+     */
+    @TableField("message")
+    private String message;
+
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
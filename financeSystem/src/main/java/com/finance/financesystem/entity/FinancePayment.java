@@ -0,0 +1,73 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 已入账收付款表
+ * </p>
+ *
+ * 每个流水号一行，与收付款凭证、核销记录在同一个事务里写入；
+ * 流水号为主键，同一笔款被并发或重试提交时后到的事务插入失败并整体回滚，不会重复入账
+ */
+@Getter
+@Setter
+@TableName("finance_payment")
+public class FinancePayment implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 收付款流水号
+     */
+    @TableId(value = "payment_ref", type = IdType.INPUT)
+    private String paymentRef;
+
+    /**
+     * RECEIVE=收款, PAY=付款
+     */
+    @TableField("direction")
+    private String direction;
+
+    /**
+     * 客户 / 供应商ID
+     */
+    @TableField("customer_id")
+    private Long customerId;
+
+    @TableField("amount")
+    private BigDecimal amount;
+
+    /**
+     * 核销到发票的金额
+     */
+    @TableField("applied_amount")
+    private BigDecimal appliedAmount;
+
+    /**
+     * 未核销、转入预收 / 预付的金额
+     */
+    @TableField("unapplied_amount")
+    private BigDecimal unappliedAmount;
+
+    /**
+     * 收付款凭证ID
+     */
+    @TableField("transaction_id")
+    private Long transactionId;
+
+    @TableField("payment_date")
+    private LocalDate paymentDate;
+
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,60 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 工资计提记录表
+ * </p>
+ *
+ * 每个 (月份, 账簿) 只能计提一次，与计提凭证在同一个事务里写入，主键冲突即重复计提
+ */
+@Getter
+@Setter
+@TableName("finance_payroll_run")
+public class FinancePayrollRun implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 工资月份，格式 yyyy-MM
+     */
+    @TableField("period")
+    private String period;
+
+    /**
+     * 账簿ID，未指定账簿时记为 0
+     */
+    @TableField("book_id")
+    private Long bookId;
+
+    /**
+     * 计提凭证ID
+     */
+    @TableField("transaction_id")
+    private Long transactionId;
+
+    @TableField("voucher_no")
+    private String voucherNo;
+
+    /**
+     * 计入的人数
+     */
+    @TableField("employees")
+    private Integer employees;
+
+    /**
+     * 实发合计
+     */
+    @TableField("net_pay")
+    private BigDecimal netPay;
+
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
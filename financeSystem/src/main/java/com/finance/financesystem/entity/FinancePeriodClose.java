@@ -0,0 +1,37 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 会计期间结账记录表
+ * </p>
+ *
+ * 一行代表一个已结账的月份，结账后该月及以前的日期不能再过账
+ */
+@Getter
+@Setter
+@TableName("finance_period_close")
+public class FinancePeriodClose implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 会计期间，格式 yyyy-MM
+     */
+    @TableId(value = "period", type = IdType.INPUT)
+    private String period;
+
+    /**
+     * 结账时间
+     */
+    @TableField("close_time")
+    private LocalDateTime closeTime;
+}
@@ -0,0 +1,67 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 过账规则表：单据类型 → 分录模板，每行生成凭证的一条 (或每条明细一条) 分录
+ * </p>
+ */
+@Getter
+@Setter
+@TableName("finance_posting_rule")
+public class FinancePostingRule implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "rule_id", type = IdType.AUTO)
+    private Long ruleId;
+
+    /**
+     * 单据类型，如 PURCHASE / SALE / PAY / RECEIVE / PAYROLL / PAYROLL_ACCRUE
+     */
+    @TableField("doc_type")
+    private String docType;
+
+    /**
+     * 分录顺序
+     */
+    @TableField("line_no")
+    private Integer lineNo;
+
+    /**
+     * 科目编码
+     */
+    @TableField("account_code")
+    private String accountCode;
+
+    /**
+     * 1=借, -1=贷
+     */
+    @TableField("dc_direction")
+    private Integer dcDirection;
+
+    /**
+     * 金额表达式：变量 (TOTAL、TAX、SOCIAL、HOUSING、NET) 与常数的 + - * / 和括号，如 TOTAL-TAX、TOTAL*0.13
+     */
+    @TableField("amount_expr")
+    private String amountExpr;
+
+    /**
+     * true 时单据每条明细生成一行分录，表达式里的变量取明细的值
+     */
+    @TableField("per_line")
+    private Boolean perLine;
+
+    /**
+     * 分录摘要，为空时取明细摘要 (按明细) 或单据摘要
+     */
+    @TableField("summary")
+    private String summary;
+}
@@ -0,0 +1,61 @@
+package com.finance.financesystem.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * 核销记录表：一笔收付款核销一张发票的金额，一笔款可对应多张发票，一张发票可被多笔款部分核销
+ * </p>
+ */
+@Getter
+@Setter
+@TableName("finance_settlement")
+public class FinanceSettlement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "settlement_id", type = IdType.ASSIGN_ID)
+    private Long settlementId;
+
+    /**
+     * 收付款流水号
+     */
+    @TableField("payment_ref")
+    private String paymentRef;
+
+    /**
+     * RECEIVE=收款核销销售发票, PAY=付款核销采购发票
+     */
+    @TableField("direction")
+    private String direction;
+
+    @TableField("invoice_id")
+    private Long invoiceId;
+
+    /**
+     * 收付款凭证ID
+     */
+    @TableField("transaction_id")
+    private Long transactionId;
+
+    /**
+     * 本次核销金额
+     */
+    @TableField("amount")
+    private BigDecimal amount;
+
+    @TableField("settle_date")
+    private LocalDate settleDate;
+
+    @TableField("create_time")
+    private LocalDateTime createTime;
+}
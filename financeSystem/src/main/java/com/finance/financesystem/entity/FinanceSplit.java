@@ -24,7 +24,7 @@ public class FinanceSplit implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    @TableId(value = "split_id", type = IdType.AUTO)
+    @TableId(value = "split_id", type = IdType.ASSIGN_ID)
     private Long splitId;
 
     @TableField("transaction_id")
@@ -28,7 +28,7 @@ public class FinanceTransaction implements Serializable {
     /**
      * 凭证ID
      */
-    @TableId(value = "transaction_id", type = IdType.AUTO)
+    @TableId(value = "transaction_id", type = IdType.ASSIGN_ID)
     private Long transactionId;
 
     /**
@@ -57,4 +57,10 @@ public class FinanceTransaction implements Serializable {
 
     @TableField("status")
     private String status;
+
+    /**
+     * 凭证号 yyyyMM-序号，按 账簿 + 月份 编号，保存时自动生成
+     */
+    @TableField("voucher_no")
+    private String voucherNo;
 }
@@ -73,4 +73,16 @@ public class Invoice implements Serializable {
 
     @TableField("create_time")
     private LocalDateTime createTime;
+
+    /**
+     * 入账生成的凭证ID
+     */
+    @TableField("transaction_id")
+    private Long transactionId;
+
+    /**
+     * 已核销金额，等于总金额时状态改为 PAID
+     */
+    @TableField("paid_amount")
+    private BigDecimal paidAmount;
 }
\ No newline at end of file
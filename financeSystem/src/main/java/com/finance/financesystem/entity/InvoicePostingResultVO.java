@@ -0,0 +1,30 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+/**
+ * 单张发票的入账结果
+ */
+@Data
+public class InvoicePostingResultVO {
+    private Long invoiceId;         // 发票ID
+    private boolean success;        // 是否入账成功
+    private Long transactionId;     // 生成的凭证ID
+    private String message;         // 失败原因
+
+    public static InvoicePostingResultVO ok(Long invoiceId, Long transactionId) {
+        InvoicePostingResultVO r = new InvoicePostingResultVO();
+        r.setInvoiceId(invoiceId);
+        r.setSuccess(true);
+        r.setTransactionId(transactionId);
+        return r;
+    }
+
+    public static InvoicePostingResultVO fail(Long invoiceId, String message) {
+        InvoicePostingResultVO r = new InvoicePostingResultVO();
+        r.setInvoiceId(invoiceId);
+        r.setSuccess(false);
+        r.setMessage(message);
+        return r;
+    }
+}
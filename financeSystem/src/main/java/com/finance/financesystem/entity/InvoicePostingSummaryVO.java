@@ -0,0 +1,19 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 发票批量入账汇总
+ */
+@Data
+public class InvoicePostingSummaryVO {
+    private int total;              // 本次处理的发票数
+    private int posted;             // 入账成功
+    private int failed;             // 校验或写库失败，仍为草稿
+    private int skipped;            // 已入账，或正被其他任务处理
+    private long elapsedMillis;     // 耗时
+    private List<InvoicePostingResultVO> failures = new ArrayList<>();  // 失败明细 (最多保留前 1000 条)
+}
@@ -0,0 +1,21 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 序时账导出一行：凭证头 + 分录 + 科目
+ */
+public record JournalExportRowVO(
+    Long transactionId,     // 凭证ID
+    String voucherNo,       // 凭证号
+    LocalDate voucherDate,  // 凭证日期
+    String description,     // 凭证摘要
+    Long splitId,           // 分录ID
+    String accountCode,     // 科目编码
+    String accountName,     // 科目名称
+    Integer dcDirection,    // 1=借, -1=贷
+    BigDecimal amount,      // 金额
+    String summary          // 分录摘要
+) {
+}
@@ -0,0 +1,16 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 明细账汇总：期初、本期借贷合计、本页之前的期内发生 (均为 借 - 贷 或 金额)
+ */
+@Data
+public class LedgerAggregateVO {
+    private BigDecimal beforeFromNet;   // from 之前的 借 - 贷
+    private BigDecimal periodDebit;     // from ~ to 借方合计
+    private BigDecimal periodCredit;    // from ~ to 贷方合计
+    private BigDecimal priorPageNet;    // from 起至游标 (含) 的 借 - 贷
+}
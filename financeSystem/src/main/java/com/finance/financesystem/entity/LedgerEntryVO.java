@@ -0,0 +1,20 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 明细账一行：分录 + 凭证日期 + 本页内的累计借贷差 (窗口函数)
+ */
+@Data
+public class LedgerEntryVO {
+    private Long splitId;           // 分录ID
+    private Long transactionId;     // 凭证ID
+    private LocalDate voucherDate;  // 凭证日期
+    private String summary;         // 分录摘要
+    private Integer dcDirection;    // 1=借, -1=贷
+    private BigDecimal amount;      // 金额
+    private BigDecimal runningNet;  // 本页第一行到本行的 借 - 贷
+}
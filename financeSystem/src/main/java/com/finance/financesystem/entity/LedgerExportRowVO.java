@@ -0,0 +1,18 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 明细账导出一行 (余额在写出时逐行累计)
+ */
+public record LedgerExportRowVO(
+    Long splitId,           // 分录ID
+    Long transactionId,     // 凭证ID
+    String voucherNo,       // 凭证号
+    LocalDate voucherDate,  // 凭证日期
+    String summary,         // 分录摘要，为空时取凭证摘要
+    Integer dcDirection,    // 1=借, -1=贷
+    BigDecimal amount       // 金额
+) {
+}
@@ -0,0 +1,15 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 明细账输出行
+ *
+ * @param voucherId        同 transactionId，兼容前端字段名
+ * @param balance          本行之后的余额 (按科目余额方向)
+ * @param balanceDirection 借 / 贷
+ */
+public record LedgerLineVO(Long splitId, Long transactionId, Long voucherId, LocalDate date, String summary,
+                           Integer dcDirection, BigDecimal amount, BigDecimal balance, String balanceDirection) {
+}
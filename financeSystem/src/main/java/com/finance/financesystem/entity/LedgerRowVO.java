@@ -0,0 +1,20 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 列式账簿加载用的已过账分录行 (分录 + 所属凭证的日期 / 账簿 / 现金流类别)
+ */
+@Data
+public class LedgerRowVO {
+    private Long transactionId;     // 凭证ID
+    private Long accountId;         // 科目ID
+    private Long bookId;            // 账簿ID，未指定为 0
+    private LocalDate voucherDate;  // 凭证日期
+    private Integer dcDirection;    // 1=借, -1=贷
+    private BigDecimal amount;      // 金额
+    private String category;        // 按凭证摘要判断的现金流类别
+}
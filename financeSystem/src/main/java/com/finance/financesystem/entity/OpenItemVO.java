@@ -0,0 +1,18 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 未核销完的发票 (已入账、未付清)
+ */
+public record OpenItemVO(
+    Long invoiceId,         // 发票ID
+    Long customerId,        // 客户 / 供应商ID
+    String type,            // SALE / PURCHASE
+    String invoiceCode,     // 发票编号
+    LocalDate dueDate,      // 到期日期
+    BigDecimal totalAmount, // 总金额
+    BigDecimal paidAmount   // 已核销金额
+) {
+}
@@ -0,0 +1,20 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 待核销的一笔收付款
+ */
+@Data
+public class PaymentDTO {
+    private String paymentRef;      // 流水号
+    private String direction;       // RECEIVE=收款 (核销销售发票), PAY=付款 (核销采购发票)
+    private Long customerId;        // 客户 / 供应商ID
+    private BigDecimal amount;      // 金额
+    private LocalDate paymentDate;  // 收付款日期，即凭证日期
+    private Long invoiceId;         // 指定核销的发票，可空
+    private String invoiceCode;     // 指定核销的发票编号，可空
+}
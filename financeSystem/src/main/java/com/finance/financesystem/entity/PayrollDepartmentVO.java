@@ -0,0 +1,17 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * 一个部门的工资合计
+ */
+public record PayrollDepartmentVO(
+    String department,          // 部门
+    long employees,             // 人数
+    BigDecimal gross,           // 应发工资
+    BigDecimal socialInsurance, // 代扣社保
+    BigDecimal housingFund,     // 代扣公积金
+    BigDecimal incomeTax,       // 代扣个税
+    BigDecimal netPay           // 实发工资
+) {
+}
@@ -0,0 +1,17 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 员工当月的工资变动项，没有变动的员工不用传
+ */
+@Data
+public class PayrollInputDTO {
+    private Long employeeId;            // 员工ID
+    private BigDecimal bonus;           // 奖金
+    private BigDecimal allowance;       // 津贴 / 加班费
+    private BigDecimal deduction;       // 缺勤等扣款
+    private BigDecimal specialDeduction; // 个税专项附加扣除
+}
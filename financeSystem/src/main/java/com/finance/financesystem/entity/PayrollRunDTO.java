@@ -0,0 +1,18 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 工资计算请求
+ */
+@Data
+public class PayrollRunDTO {
+    private String month;                   // 工资月份 yyyy-MM
+    private Long bookId;                    // 凭证所属账簿，可空
+    private LocalDate voucherDate;          // 计提凭证日期，为空时取当月最后一天
+    private List<PayrollInputDTO> inputs = new ArrayList<>();  // 当月变动项
+}
@@ -0,0 +1,28 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 工资计算结果
+ */
+@Data
+public class PayrollRunResultVO {
+    private String month;                   // 工资月份
+    private int employees;                  // 计算成功的人数
+    private int skipped;                    // 没有基本工资或扣款超过应发、未计入的人数
+    private BigDecimal gross;               // 应发合计
+    private BigDecimal socialInsurance;     // 代扣社保合计
+    private BigDecimal housingFund;         // 代扣公积金合计
+    private BigDecimal incomeTax;           // 代扣个税合计
+    private BigDecimal netPay;              // 实发合计，发放时按此金额
+    private List<PayrollDepartmentVO> departments = new ArrayList<>();  // 按部门汇总
+    private Long transactionId;             // 计提凭证ID，预览时为空
+    private String voucherNo;               // 计提凭证号
+    private long computeMillis;             // 并行计算耗时
+    private long elapsedMillis;             // 总耗时
+    private List<String> errors = new ArrayList<>();  // 未计入的员工及原因 (最多前 1000 条)
+}
@@ -0,0 +1,28 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+/**
+ * 单张凭证的过账结果
+ */
+@Data
+public class PostingResultVO {
+    private Long transactionId;     // 凭证ID
+    private boolean success;        // 是否过账成功
+    private String message;         // 失败原因
+
+    public static PostingResultVO ok(Long transactionId) {
+        PostingResultVO r = new PostingResultVO();
+        r.setTransactionId(transactionId);
+        r.setSuccess(true);
+        return r;
+    }
+
+    public static PostingResultVO fail(Long transactionId, String message) {
+        PostingResultVO r = new PostingResultVO();
+        r.setTransactionId(transactionId);
+        r.setSuccess(false);
+        r.setMessage(message);
+        return r;
+    }
+}
@@ -0,0 +1,19 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 待对账的银行 / 现金科目分录
+ */
+public record ReconcileSplitVO(
+    Long splitId,           // 分录ID
+    Long transactionId,     // 凭证ID
+    String voucherNo,       // 凭证号
+    LocalDate voucherDate,  // 凭证日期
+    Long accountId,         // 科目ID
+    Integer dcDirection,    // 1=借 (存入), -1=贷 (支出)
+    BigDecimal amount,      // 金额
+    String summary          // 分录摘要，为空时取凭证摘要
+) {
+}
@@ -0,0 +1,34 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 银行对账单对账结果
+ */
+@Data
+public class ReconciliationResultVO {
+    private LocalDate statementFrom;    // 对账单最早日期
+    private LocalDate statementTo;      // 对账单最晚日期
+    private int statementLines;         // 对账单明细行数
+    private int matched;                // 匹配上的行数 (对应分录已标记为 c)
+    private int unmatchedLines;         // 对账单上有、账上没有的行数
+    private int unmatchedSplits;        // 对账单期间内账上有、对账单上没有的分录数
+    private BigDecimal matchedAmount;   // 匹配金额合计 (存入为正，支出为负)
+    private long elapsedMillis;         // 耗时
+    private List<StatementLine> lineExceptions = new ArrayList<>();       // 未匹配的对账单行 (最多前 1000 条)
+    private List<ReconcileSplitVO> splitExceptions = new ArrayList<>();   // 未匹配的分录 (最多前 1000 条)
+    private List<String> errors = new ArrayList<>();                       // 解析失败的行 (最多前 1000 条)
+
+    /**
+     * 对账单一行
+     *
+     * @param amount 存入为正，支出为负
+     */
+    public record StatementLine(long lineNo, LocalDate date, BigDecimal amount, String reference, String description) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单笔收付款的核销结果
+ */
+@Data
+public class SettlementResultVO {
+    private String paymentRef;      // 流水号
+    private boolean success;        // 是否写入成功 (未匹配到发票也算成功，unapplied 为全额)
+    private Long transactionId;     // 生成的收付款凭证ID
+    private BigDecimal applied;     // 已核销金额
+    private BigDecimal unapplied;   // 未核销金额
+    private List<Allocation> allocations = new ArrayList<>();  // 核销明细
+    private String message;         // 失败原因或说明
+
+    /**
+     * 核销到一张发票的金额
+     */
+    public record Allocation(Long invoiceId, String invoiceCode, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量核销汇总
+ */
+@Data
+public class SettlementSummaryVO {
+    private int payments;               // 收付款笔数
+    private int fullyApplied;           // 全额核销
+    private int partlyApplied;          // 部分核销 (有余款未匹配)
+    private int unmatched;              // 没有匹配到任何发票
+    private int failed;                 // 校验或写库失败
+    private int invoicesPaid;           // 核销后付清的发票数
+    private int invoicesPartlyPaid;     // 核销后仍未付清的发票数
+    private BigDecimal appliedAmount;   // 核销总额
+    private BigDecimal unappliedAmount; // 未核销总额
+    private long elapsedMillis;         // 耗时
+    private List<SettlementResultVO> exceptions = new ArrayList<>();  // 部分核销、未匹配、失败的明细 (最多前 1000 条)
+}
@@ -0,0 +1,14 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * 分录列表行：分录字段 + 科目名称
+ *
+ * @param accountName    科目名称，科目已删除时为「未知科目」
+ * @param dcDirection    1=借, -1=贷
+ * @param reconcileState 对账状态
+ */
+public record SplitRowVO(Long splitId, Long transactionId, Long accountId, String accountName,
+                         Integer dcDirection, BigDecimal amount, String summary, String reconcileState) {
+}
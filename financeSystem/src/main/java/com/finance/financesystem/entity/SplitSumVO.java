@@ -0,0 +1,16 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 分录聚合结果：按 科目 + 借贷方向 汇总的金额
+ * 由 FinanceSplitMapper 在数据库端 GROUP BY 后返回
+ */
+@Data
+public class SplitSumVO {
+    private Long accountId;       // 科目ID
+    private Integer dcDirection;  // 1=借, -1=贷
+    private BigDecimal amount;    // 合计金额
+}
@@ -0,0 +1,18 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 合并报表聚合结果：按 科目 + 借贷方向 + 现金流类别 汇总
+ * 一行同时带期间发生额和截至期末的累计额
+ */
+@Data
+public class StatementSumVO {
+    private Long accountId;             // 科目ID
+    private Integer dcDirection;        // 1=借, -1=贷
+    private String category;            // 现金流类别，非现金科目为 null
+    private BigDecimal periodAmount;    // from ~ to 发生额
+    private BigDecimal cumulativeAmount;// 截至 to 累计额
+}
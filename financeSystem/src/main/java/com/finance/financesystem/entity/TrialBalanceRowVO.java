@@ -0,0 +1,28 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * 试算平衡表单行
+ *
+ * 期初、期末余额按 借 - 贷 的正负分列在借方或贷方栏；
+ * totalDebit / totalCredit / balance / balanceDirection 与原科目余额汇总接口保持一致
+ *
+ * @param openingDebit     期初借方余额
+ * @param openingCredit    期初贷方余额
+ * @param periodDebit      本期借方发生额
+ * @param periodCredit     本期贷方发生额
+ * @param closingDebit     期末借方余额
+ * @param closingCredit    期末贷方余额
+ * @param totalDebit       截至 to 借方累计
+ * @param totalCredit      截至 to 贷方累计
+ * @param balance          按科目余额方向的期末余额
+ * @param balanceDirection 借 / 贷
+ */
+public record TrialBalanceRowVO(Long accountId, String accountCode, String accountName, String accountType,
+                                BigDecimal openingDebit, BigDecimal openingCredit,
+                                BigDecimal periodDebit, BigDecimal periodCredit,
+                                BigDecimal closingDebit, BigDecimal closingCredit,
+                                BigDecimal totalDebit, BigDecimal totalCredit,
+                                BigDecimal balance, String balanceDirection) {
+}
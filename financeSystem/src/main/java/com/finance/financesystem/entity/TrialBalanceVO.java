@@ -0,0 +1,30 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 试算平衡表
+ *
+ * balanced 为 false 说明有不平衡的凭证入账，difference 为 借方合计 - 贷方合计
+ */
+@Data
+public class TrialBalanceVO {
+    private Long bookId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<TrialBalanceRowVO> rows;
+
+    private BigDecimal openingDebit;
+    private BigDecimal openingCredit;
+    private BigDecimal periodDebit;
+    private BigDecimal periodCredit;
+    private BigDecimal closingDebit;
+    private BigDecimal closingCredit;
+
+    private boolean balanced;
+    private BigDecimal difference;
+}
@@ -0,0 +1,30 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 批量导入的凭证
+ */
+@Data
+public class VoucherImportDTO {
+    private Long bookId;                // 账簿ID，可空
+    private LocalDate voucherDate;      // 凭证日期
+    private String description;         // 摘要
+    private String status;              // DRAFT / POSTED，默认 POSTED
+    private List<SplitImportDTO> splits;// 分录
+
+    /**
+     * 批量导入的分录
+     */
+    @Data
+    public static class SplitImportDTO {
+        private Long accountId;         // 科目ID
+        private Integer dcDirection;    // 1=借, -1=贷
+        private BigDecimal amount;      // 金额 (最多两位小数)
+        private String summary;         // 分录摘要
+    }
+}
@@ -0,0 +1,30 @@
+package com.finance.financesystem.entity;
+
+import lombok.Data;
+
+/**
+ * 批量导入中单张凭证的结果
+ */
+@Data
+public class VoucherImportResultVO {
+    private int index;              // 在请求中的下标 (文件导入时为凭证首行行号)
+    private boolean success;        // 是否写入成功
+    private Long transactionId;     // 成功时的凭证ID
+    private String message;         // 失败原因
+
+    public static VoucherImportResultVO ok(int index, Long transactionId) {
+        VoucherImportResultVO r = new VoucherImportResultVO();
+        r.setIndex(index);
+        r.setSuccess(true);
+        r.setTransactionId(transactionId);
+        return r;
+    }
+
+    public static VoucherImportResultVO fail(int index, String message) {
+        VoucherImportResultVO r = new VoucherImportResultVO();
+        r.setIndex(index);
+        r.setSuccess(false);
+        r.setMessage(message);
+        return r;
+    }
+}
@@ -0,0 +1,18 @@
+package com.finance.financesystem.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 凭证列表行：凭证主表字段 + 借方合计
+ *
+ * @param transactionId 凭证ID
+ * @param voucherNo     凭证号
+ * @param voucherDate   凭证日期
+ * @param description   摘要
+ * @param status        DRAFT / POSTED
+ * @param totalAmount   借方合计
+ */
+public record VoucherListVO(Long transactionId, String voucherNo, LocalDate voucherDate,
+                            String description, String status, BigDecimal totalAmount) {
+}
@@ -0,0 +1,36 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinanceAccountBalance;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * 科目余额表 Mapper 接口
+ * </p>
+ */
+public interface FinanceAccountBalanceMapper extends BaseMapper<FinanceAccountBalance> {
+
+    /**
+     * 把一批借贷增量累加到余额表 (不存在的行自动插入)
+     */
+    int applyDeltas(@Param("deltas") Collection<FinanceAccountBalance> deltas);
+
+    /**
+     * 清空余额表
+     */
+    int deleteAll();
+
+    /**
+     * 从已过账分录重新汇总余额表
+     */
+    int rebuildFromSplits();
+
+    /**
+     * 按科目汇总 (可选按账簿过滤)
+     */
+    List<FinanceAccountBalance> sumByAccount(@Param("bookId") Long bookId);
+}
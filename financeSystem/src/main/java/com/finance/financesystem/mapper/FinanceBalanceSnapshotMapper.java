@@ -0,0 +1,36 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinanceBalanceSnapshot;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * <p>
+ * 期末余额快照 Mapper 接口
+ * </p>
+ */
+public interface FinanceBalanceSnapshotMapper extends BaseMapper<FinanceBalanceSnapshot> {
+
+    /**
+     * 生成期间 period 的期末快照：上期快照 + (上期末, periodEnd] 的已过账分录
+     *
+     * @param period     本期 yyyy-MM
+     * @param prevPeriod 上一个已结账期间，没有时为 null (从建账开始累计)
+     * @param prevEnd    上一个已结账期间的最后一天，没有时为 null
+     * @param periodEnd  本期最后一天
+     */
+    int insertClosing(@Param("period") String period,
+                      @Param("prevPeriod") String prevPeriod,
+                      @Param("prevEnd") LocalDate prevEnd,
+                      @Param("periodEnd") LocalDate periodEnd);
+
+    /**
+     * 读取某期快照，按科目汇总 (可选按账簿过滤)
+     */
+    List<FinanceBalanceSnapshot> sumByAccount(@Param("period") String period, @Param("bookId") Long bookId);
+
+    int deleteByPeriod(@Param("period") String period);
+}
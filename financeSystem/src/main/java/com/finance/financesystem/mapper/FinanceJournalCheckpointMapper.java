@@ -0,0 +1,18 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinanceJournalCheckpoint;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * <p>
+ * 写前日志检查点表 Mapper 接口
+ * </p>
+ */
+public interface FinanceJournalCheckpointMapper extends BaseMapper<FinanceJournalCheckpoint> {
+
+    /**
+     * 写入检查点 (不存在时插入)
+     */
+    int upsert(@Param("journalName") String journalName, @Param("appliedOffset") long appliedOffset);
+}
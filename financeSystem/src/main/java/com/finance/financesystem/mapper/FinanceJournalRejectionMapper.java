@@ -0,0 +1,12 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinanceJournalRejection;
+
+/**
+ * <p>
+ * 写前日志回放拒绝表 Mapper 接口
+ * </p>
+ */
+public interface FinanceJournalRejectionMapper extends BaseMapper<FinanceJournalRejection> {
+}
@@ -0,0 +1,20 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinancePayment;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 已入账收付款 Mapper 接口
+ * </p>
+ */
+public interface FinancePaymentMapper extends BaseMapper<FinancePayment> {
+
+    /**
+     * 一条多值 INSERT 写入一批收付款，流水号已存在时抛 DuplicateKeyException
+     */
+    int insertBatch(@Param("payments") List<FinancePayment> payments);
+}
@@ -0,0 +1,18 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinancePayrollRun;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * <p>
+ * 工资计提记录 Mapper 接口
+ * </p>
+ */
+public interface FinancePayrollRunMapper extends BaseMapper<FinancePayrollRun> {
+
+    /**
+     * 查询某月某账簿的计提记录，没有时返回 null
+     */
+    FinancePayrollRun selectRun(@Param("period") String period, @Param("bookId") long bookId);
+}
@@ -0,0 +1,13 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinancePeriodClose;
+
+/**
+ * <p>
+ * 会计期间结账记录 Mapper 接口
+ * </p>
+ */
+public interface FinancePeriodCloseMapper extends BaseMapper<FinancePeriodClose> {
+
+}
@@ -0,0 +1,12 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinancePostingRule;
+
+/**
+ * <p>
+ * 过账规则表 Mapper 接口
+ * </p>
+ */
+public interface FinancePostingRuleMapper extends BaseMapper<FinancePostingRule> {
+}
@@ -0,0 +1,33 @@
+package com.finance.financesystem.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * <p>
+ * 号段表 Mapper 接口
+ * </p>
+ */
+public interface FinanceSequenceMapper {
+
+    /**
+     * 序列不存在时创建，起始值为 initialValue
+     */
+    int insertIfAbsent(@Param("seqName") String seqName, @Param("initialValue") long initialValue);
+
+    /**
+     * 主键序列不存在时创建，起始值为表中现有最大主键 + 1
+     *
+     * @param table  表名 (来自实体映射，不是用户输入)
+     * @param column 主键列名
+     */
+    int insertIfAbsentFromMax(@Param("seqName") String seqName,
+                              @Param("table") String table,
+                              @Param("column") String column);
+
+    /**
+     * 锁定并读取下一个未分配的号
+     */
+    Long selectNextForUpdate(@Param("seqName") String seqName);
+
+    int updateNext(@Param("seqName") String seqName, @Param("nextValue") long nextValue);
+}
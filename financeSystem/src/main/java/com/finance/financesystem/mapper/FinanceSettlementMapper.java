@@ -0,0 +1,12 @@
+package com.finance.financesystem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.FinanceSettlement;
+
+/**
+ * <p>
+ * 核销记录表 Mapper 接口
+ * </p>
+ */
+public interface FinanceSettlementMapper extends BaseMapper<FinanceSettlement> {
+}
@@ -1,7 +1,24 @@
 package com.finance.financesystem.mapper;
 
+import com.finance.financesystem.entity.CashFlowSumVO;
 import com.finance.financesystem.entity.FinanceSplit;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.JournalExportRowVO;
+import com.finance.financesystem.entity.LedgerAggregateVO;
+import com.finance.financesystem.entity.LedgerEntryVO;
+import com.finance.financesystem.entity.LedgerExportRowVO;
+import com.finance.financesystem.entity.LedgerRowVO;
+import com.finance.financesystem.entity.ReconcileSplitVO;
+import com.finance.financesystem.entity.SplitRowVO;
+import com.finance.financesystem.entity.SplitSumVO;
+import com.finance.financesystem.entity.StatementSumVO;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * <p>
@@ -13,4 +30,116 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface FinanceSplitMapper extends BaseMapper<FinanceSplit> {
 
+    /**
+     * 已过账分录按 科目 + 借贷方向 汇总
+     *
+     * @param bookId 账簿ID (null 不过滤，0 表示未指定账簿的凭证)
+     * @param from   凭证日期下限 (含，可空)
+     * @param to     凭证日期上限 (含，可空)
+     */
+    List<SplitSumVO> sumPostedByAccount(@Param("bookId") Long bookId,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+
+    /**
+     * 现金科目已过账分录按现金流类别汇总 (类别由凭证摘要判断)
+     */
+    List<CashFlowSumVO> sumPostedCashFlow(@Param("cashAccountIds") Collection<Long> cashAccountIds,
+                                          @Param("bookId") Long bookId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+
+    /**
+     * 合并报表用：一次扫描 to 之前的已过账分录，按 科目 + 借贷方向 + 现金流类别 汇总
+     * 同时返回 from ~ to 的发生额和截至 to 的累计额；非现金科目的类别为 null
+     */
+    List<StatementSumVO> sumPostedStatements(@Param("cashAccountIds") Collection<Long> cashAccountIds,
+                                             @Param("bookId") Long bookId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    /**
+     * 明细账汇总：一次聚合得到 from 之前的余额、期内借贷合计、期内游标 (含) 之前的发生额
+     *
+     * 游标为上一页最后一行的 (凭证日期, 凭证ID, 分录ID)，第一页三者为空
+     */
+    LedgerAggregateVO aggregateLedger(@Param("accountId") Long accountId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("cursorDate") LocalDate cursorDate,
+                                      @Param("cursorId") Long cursorId,
+                                      @Param("cursorSplitId") Long cursorSplitId);
+
+    /**
+     * 明细账一页，按 (凭证日期, 凭证ID, 分录ID) 排序，runningNet 由 SUM() OVER 在页内累计
+     *
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<LedgerEntryVO> selectLedgerPage(@Param("accountId") Long accountId,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         @Param("cursorDate") LocalDate cursorDate,
+                                         @Param("cursorId") Long cursorId,
+                                         @Param("cursorSplitId") Long cursorSplitId,
+                                         @Param("limit") int limit);
+
+    /**
+     * 分录列表 (带科目名称)，按分录ID排序，两个条件都为空时返回全部分录
+     *
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<SplitRowVO> selectSplitRows(@Param("transactionId") Long transactionId,
+                                       @Param("accountId") Long accountId);
+
+    /**
+     * 序时账导出：已过账凭证的分录 (带科目编码、名称)，按 (凭证日期, 凭证ID, 分录ID) 排序
+     *
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<JournalExportRowVO> selectJournalExport(@Param("bookId") Long bookId,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
+
+    /**
+     * 明细账导出：科目在区间内的全部已过账分录，排序同 {@link #selectLedgerPage}
+     *
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<LedgerExportRowVO> selectLedgerExport(@Param("accountId") Long accountId,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to);
+
+    /**
+     * 流式读取已过账分录 (列式账簿加载 / 追加用)，逐行回调，不在内存中聚集成 List
+     *
+     * @param transactionIds 只读取这些凭证，为 null 时读取全部
+     */
+    void scanPostedRows(@Param("transactionIds") Collection<Long> transactionIds,
+                        ResultHandler<LedgerRowVO> handler);
+
+    /**
+     * 科目在区间内未对账 (reconcile_state = 'n') 的已过账分录，按 (凭证日期, 分录ID) 排序
+     *
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<ReconcileSplitVO> selectUnreconciled(@Param("accountIds") Collection<Long> accountIds,
+                                                @Param("bookId") Long bookId,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+
+    /**
+     * 把仍处于 expected 状态的分录改为 state
+     *
+     * @return 实际更新的行数，少于 ID 个数说明部分分录已被其他对账改过
+     */
+    int updateReconcileState(@Param("splitIds") Collection<Long> splitIds,
+                             @Param("expected") String expected,
+                             @Param("state") String state);
+
+    /**
+     * 确认对账：科目截至 to 已结清 (c) 的分录改为已对账 (y)
+     */
+    int confirmCleared(@Param("accountIds") Collection<Long> accountIds,
+                       @Param("bookId") Long bookId,
+                       @Param("to") LocalDate to);
 }
@@ -2,6 +2,11 @@ package com.finance.financesystem.mapper;
 
 import com.finance.financesystem.entity.FinanceTransaction;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.finance.financesystem.entity.VoucherListVO;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDate;
 
 /**
  * <p>
@@ -13,4 +18,21 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface FinanceTransactionMapper extends BaseMapper<FinanceTransaction> {
 
+    /**
+     * 凭证列表一页，按 (voucher_date, transaction_id) 倒序的游标分页，借方合计一并 GROUP BY 算出
+     *
+     * @param status     DRAFT / POSTED (POSTED 包含状态为空的老数据)，null 不过滤
+     * @param from       凭证日期下限 (含，可空)
+     * @param to         凭证日期上限 (含，可空)
+     * @param cursorDate 上一页最后一行的凭证日期，与 cursorId 同时为空表示第一页
+     * @param cursorId   上一页最后一行的凭证ID
+     * @param limit      每页条数，null 不限
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<VoucherListVO> selectVoucherPage(@Param("status") String status,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("cursorDate") LocalDate cursorDate,
+                                            @Param("cursorId") Long cursorId,
+                                            @Param("limit") Integer limit);
 }
@@ -1,8 +1,14 @@
 package com.finance.financesystem.mapper;
 
 import com.finance.financesystem.entity.Invoice;
+import com.finance.financesystem.entity.OpenItemVO;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * <p>
@@ -14,4 +20,35 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface InvoiceMapper extends BaseMapper<Invoice> {
-}
\ No newline at end of file
+
+    /**
+     * 锁定其中仍是草稿的发票 (FOR UPDATE SKIP LOCKED)，已被其他事务锁住的行直接跳过、不等待
+     */
+    List<Invoice> lockDrafts(@Param("invoiceIds") Collection<Long> invoiceIds);
+
+    /**
+     * 一条 UPDATE 把发票改为已入账并写入各自的凭证ID
+     *
+     * @param invoices 需带 invoiceId 和 transactionId
+     */
+    int markPosted(@Param("invoices") Collection<Invoice> invoices);
+
+    /**
+     * 已入账未付清的发票，逐行返回 (需在事务内遍历)
+     *
+     * @param type 发票类型 SALE / PURCHASE
+     */
+    Cursor<OpenItemVO> selectOpenItems(@Param("type") String type);
+
+    /**
+     * 核销前锁定发票 (FOR UPDATE)，返回当前的 已核销金额 和 状态
+     */
+    List<Invoice> lockForSettlement(@Param("invoiceIds") Collection<Long> invoiceIds);
+
+    /**
+     * 一条 UPDATE 写入各发票新的已核销金额，付清的改为 PAID
+     *
+     * @param invoices 需带 invoiceId、paidAmount、status
+     */
+    int applySettlements(@Param("invoices") Collection<Invoice> invoices);
+}
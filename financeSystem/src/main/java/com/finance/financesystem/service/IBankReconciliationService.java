@@ -0,0 +1,43 @@
+package com.finance.financesystem.service;
+
+import com.finance.financesystem.entity.ReconciliationResultVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * 银行对账 服务类
+ * </p>
+ *
+ * 对账状态 (finance_split.reconcile_state)：'n'=未对账, 'c'=已结清 (与对账单匹配上), 'y'=已对账 (确认后锁定)
+ *
+ * 对账单 CSV 列顺序 (首行可以是表头)：
+ * date,amount,reference,description
+ * 日期支持 yyyy-MM-dd、yyyy/MM/dd、yyyyMMdd；金额存入为正、支出为负，可带千分位。
+ */
+public interface IBankReconciliationService {
+
+    /**
+     * 导入对账单并与账面分录匹配
+     *
+     * 对账单逐行读入后，读取现金 / 银行科目 (默认 1001、1002 及其下级) 在对账单期间前后 windowDays 天内
+     * 未对账的已过账分录，按 金额 + 日期 哈希匹配，匹配上的分录在一个事务里批量改为 'c'。
+     *
+     * @param in          对账单内容 (UTF-8)
+     * @param bookId      账簿，可空
+     * @param accountCode 只对这一个科目 (含下级) 对账，为空时用配置的现金 / 银行科目
+     * @param windowDays  对账单日期与凭证日期最多相差的天数，为空时用配置值
+     * @return 匹配数，以及未匹配的对账单行和账面分录
+     */
+    ReconciliationResultVO reconcileStatement(InputStream in, Long bookId, String accountCode,
+                                              Integer windowDays) throws IOException;
+
+    /**
+     * 确认对账：截至 to 已结清 ('c') 的分录改为已对账 ('y')
+     *
+     * @return 更新的分录数
+     */
+    int confirm(Long bookId, String accountCode, LocalDate to);
+}
@@ -1,6 +1,27 @@
 package com.finance.financesystem.service;
 
 import com.finance.financesystem.entity.Employee;
+import com.finance.financesystem.entity.PayrollRunDTO;
+import com.finance.financesystem.entity.PayrollRunResultVO;
 import com.baomidou.mybatisplus.extension.service.IService;
 
-public interface IEmployeeService extends IService<Employee> {}
\ No newline at end of file
+public interface IEmployeeService extends IService<Employee> {
+
+    /**
+     * 计算全体员工当月工资，按部门汇总
+     *
+     * 每人按基本工资和当月变动项计算应发、代扣社保、代扣公积金、个税 (月度税率表) 和实发，
+     * 比例和起征点见 finance.payroll 配置。计算在 fork/join 线程池上并行进行。
+     *
+     * post 为 true 时按 PAYROLL_ACCRUE 过账规则生成一张计提凭证，每个部门一组分录，默认：
+     * 借 管理费用-工资 660201 (应发)，贷 应付职工薪酬 2203 (实发)、其他应付款 2241 (社保 + 公积金)、
+     * 应交税费 2221 (个税)
+     *
+     * 每个 (月份, 账簿) 只能计提一次，重复计提时拒绝并给出已有的计提凭证
+     *
+     * @param post false 时只计算不入账
+     * @throws IllegalArgumentException 月份格式不对、inputs 为 null、该月份已计提
+     * @throws RuntimeException         生成凭证失败 (规则或科目缺失、期间已结账等)
+     */
+    PayrollRunResultVO runPayroll(PayrollRunDTO run, boolean post);
+}
@@ -0,0 +1,39 @@
+package com.finance.financesystem.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.finance.financesystem.entity.FinanceAccountBalance;
+import com.finance.financesystem.entity.FinanceSplit;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * <p>
+ * 科目余额表 服务类
+ * </p>
+ */
+public interface IFinanceAccountBalanceService extends IService<FinanceAccountBalance> {
+
+    /**
+     * 把一张已过账凭证的分录累加进余额表
+     * 必须在写分录的同一个事务里调用
+     *
+     * @param bookId 凭证所属账簿 (null 记为 0)
+     * @param splits 凭证分录
+     */
+    void applySplits(Long bookId, Collection<FinanceSplit> splits);
+
+    /**
+     * 从分录表全量重建余额表 (初始化或数据修复时使用)
+     */
+    void rebuild();
+
+    /**
+     * 读取各科目借贷累计
+     *
+     * @param bookId 账簿ID，null 表示全部账簿
+     * @return accountId -> [借方累计, 贷方累计]
+     */
+    Map<Long, BigDecimal[]> getDebitCreditTotals(Long bookId);
+}
@@ -0,0 +1,33 @@
+package com.finance.financesystem.service;
+
+import com.finance.financesystem.component.TabularWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * 账簿导出 服务类
+ * </p>
+ *
+ * 只导出已过账凭证，按 (凭证日期, 凭证ID, 分录ID) 排序，从数据库游标逐行写出。
+ */
+public interface IFinanceExportService {
+
+    /**
+     * 序时账：区间内全部已过账分录
+     *
+     * @param bookId 账簿ID (null 不过滤，0 表示未指定账簿的凭证)
+     * @param from   凭证日期下限 (含，可空)
+     * @param to     凭证日期上限 (含，可空)
+     */
+    void writeJournal(TabularWriter writer, Long bookId, LocalDate from, LocalDate to) throws IOException;
+
+    /**
+     * 科目明细账：首行为期初余额，之后每行带累计余额，末行为期末余额
+     *
+     * @param from 凭证日期下限 (含，可空)，之前的发生额计入期初余额
+     * @param to   凭证日期上限 (含，可空)
+     */
+    void writeLedger(TabularWriter writer, Long accountId, LocalDate from, LocalDate to) throws IOException;
+}
@@ -0,0 +1,32 @@
+package com.finance.financesystem.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * 科目明细账 服务类
+ * </p>
+ *
+ * 明细账按 (凭证日期, 凭证ID, 分录ID) 排序分页，只包含已过账凭证。
+ */
+public interface IFinanceLedgerService {
+
+    /**
+     * 把科目明细账一页写成 JSON 对象，分录边读边写，须在事务内调用
+     *
+     * 输出字段：account、openingBalance (本页期初)、entries、期内 totalDebit / totalCredit、
+     * finalBalance (期末)、hasMore、nextCursor
+     *
+     * @param from          凭证日期下限 (含，可空)，之前的发生额计入期初余额
+     * @param to            凭证日期上限 (含，可空)
+     * @param cursorDate    上一页最后一行的凭证日期，第一页为空
+     * @param cursorId      上一页最后一行的凭证ID
+     * @param cursorSplitId 上一页最后一行的分录ID
+     * @param limit         每页行数
+     */
+    void writeLedger(JsonGenerator gen, Long accountId, LocalDate from, LocalDate to,
+                     LocalDate cursorDate, Long cursorId, Long cursorSplitId, int limit) throws IOException;
+}
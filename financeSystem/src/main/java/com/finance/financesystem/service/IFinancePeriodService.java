@@ -0,0 +1,58 @@
+package com.finance.financesystem.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.finance.financesystem.entity.FinancePeriodClose;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 会计期间结账 服务类
+ * </p>
+ *
+ * 结账按月进行，只能在最近一个已结账期间之后继续结账；
+ * 结账后该月及以前的日期不再接受已过账凭证，保证快照有效。
+ */
+public interface IFinancePeriodService extends IService<FinancePeriodClose> {
+
+    /**
+     * 结账：写入本期期末余额快照并标记期间已结账
+     *
+     * @param period 会计期间
+     */
+    void closePeriod(YearMonth period);
+
+    /**
+     * 反结账：撤销最近一个已结账期间 (删除其快照)
+     *
+     * @return 被撤销的期间，没有已结账期间时返回 null
+     */
+    YearMonth reopenLatest();
+
+    /**
+     * 校验凭证日期所在期间未结账，已结账则抛出异常
+     * 在事务内调用时，结账操作会等待本事务结束后再开始
+     */
+    void checkOpen(LocalDate voucherDate);
+
+    /**
+     * 已结账期间 (升序)
+     */
+    List<YearMonth> listClosedPeriods();
+
+    /**
+     * 不晚于 date 的最近一个已结账期间 (期末 <= date)，没有则返回 null
+     */
+    YearMonth findLatestClosedOnOrBefore(LocalDate date);
+
+    /**
+     * 读取某期的期末快照
+     *
+     * @return accountId -> [借方累计, 贷方累计]
+     */
+    Map<Long, BigDecimal[]> getSnapshotTotals(YearMonth period, Long bookId);
+}
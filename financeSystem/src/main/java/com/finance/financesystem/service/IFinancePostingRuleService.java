@@ -0,0 +1,12 @@
+package com.finance.financesystem.service;
+
+import com.finance.financesystem.entity.FinancePostingRule;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+/**
+ * <p>
+ * 过账规则表 服务类
+ * </p>
+ */
+public interface IFinancePostingRuleService extends IService<FinancePostingRule> {
+}
@@ -0,0 +1,36 @@
+package com.finance.financesystem.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * <p>
+ * 财务报表 服务类
+ * </p>
+ *
+ * 所有日期参数均可为空：为空时不限制该端，bookId 为空时统计全部账簿。
+ */
+public interface IFinanceReportService {
+
+    /**
+     * 资产负债表 (截至 asOf 的余额)
+     */
+    Map<String, Object> getBalanceSheet(Long bookId, LocalDate asOf);
+
+    /**
+     * 利润表 (from ~ to 期间发生额)
+     */
+    Map<String, Object> getIncomeStatement(Long bookId, LocalDate from, LocalDate to);
+
+    /**
+     * 现金流量表 (from ~ to 期间现金科目发生额)
+     */
+    Map<String, Object> getCashflowStatement(Long bookId, LocalDate from, LocalDate to);
+
+    /**
+     * 三大报表合并计算 (一次扫描分录)
+     *
+     * @return balanceSheet (截至 to)、income 和 cashflow (from ~ to)
+     */
+    Map<String, Object> getStatements(Long bookId, LocalDate from, LocalDate to);
+}
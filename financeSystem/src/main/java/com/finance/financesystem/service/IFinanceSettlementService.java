@@ -0,0 +1,32 @@
+package com.finance.financesystem.service;
+
+import com.finance.financesystem.entity.FinanceSettlement;
+import com.finance.financesystem.entity.PaymentDTO;
+import com.finance.financesystem.entity.SettlementSummaryVO;
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 核销记录表 服务类
+ * </p>
+ */
+public interface IFinanceSettlementService extends IService<FinanceSettlement> {
+
+    /**
+     * 批量核销：把一批收付款匹配到已入账未付清的发票上
+     *
+     * - 收款 (RECEIVE) 核销该客户的销售发票，付款 (PAY) 核销该供应商的采购发票
+     * - 匹配顺序：指定的发票 → 未结金额恰好相等的发票 → 按到期日从早到晚逐张核销，最后一张可部分核销
+     * - 已核销的部分按 RECEIVE / PAY 过账规则生成一张收付款凭证，写入核销记录并更新发票已核销金额，付清的发票改为 PAID
+     * - 没有匹配上的余额不入账，在结果里报告
+     *
+     * 匹配在内存里完成；写库按客户分块，每块一个事务，块内任一凭证或发票校验失败整块回滚。
+     * 已核销过的流水号跳过，同一份流水重复提交不会重复核销。
+     *
+     * @param payments 收付款
+     * @param bookId   凭证所属账簿，可空
+     */
+    SettlementSummaryVO settle(List<PaymentDTO> payments, Long bookId);
+}
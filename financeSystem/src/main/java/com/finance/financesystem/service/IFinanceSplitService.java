@@ -2,6 +2,8 @@ package com.finance.financesystem.service;
 
 import com.finance.financesystem.entity.FinanceSplit;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.finance.financesystem.entity.SplitRowVO;
+import org.apache.ibatis.cursor.Cursor;
 
 /**
  * <p>
@@ -13,4 +15,12 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface IFinanceSplitService extends IService<FinanceSplit> {
 
+    /**
+     * 分录列表 (带科目名称)，按分录ID排序
+     *
+     * @param transactionId 凭证ID，可空
+     * @param accountId     科目ID，可空
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<SplitRowVO> openSplitRows(Long transactionId, Long accountId);
 }
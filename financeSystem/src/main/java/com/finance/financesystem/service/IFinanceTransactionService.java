@@ -1,7 +1,17 @@
 package com.finance.financesystem.service;
 
+import com.finance.financesystem.component.PostingPlan;
+import com.finance.financesystem.entity.FinanceSplit;
 import com.finance.financesystem.entity.FinanceTransaction;
+import com.finance.financesystem.entity.PostingResultVO;
+import com.finance.financesystem.entity.VoucherImportDTO;
+import com.finance.financesystem.entity.VoucherImportResultVO;
+import com.finance.financesystem.entity.VoucherListVO;
 import com.baomidou.mybatisplus.extension.service.IService;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * <p>
@@ -13,4 +23,80 @@ import com.baomidou.mybatisplus.extension.service.IService;
  */
 public interface IFinanceTransactionService extends IService<FinanceTransaction> {
 
+    /**
+     * 保存一张凭证 (主表 + 分录)
+     * 如果凭证状态为已过账，在同一事务里更新科目余额表
+     *
+     * @param tx     凭证主表，保存后回填 transactionId
+     * @param splits 分录，transactionId 由本方法回填
+     */
+    void saveVoucher(FinanceTransaction tx, List<FinanceSplit> splits);
+
+    /**
+     * 把草稿凭证过账
+     *
+     * 凭证ID按块 (每块 1000 张) 处理，每块一个事务：
+     * 锁定本块草稿、一次查询加载全部分录、逐张校验借贷平衡和科目，
+     * 通过的凭证一条 UPDATE 改为已过账，并按账簿合并后累加科目余额。
+     * 已经过账或不存在的凭证记为失败，不会重复累计。
+     *
+     * @param transactionIds 凭证ID
+     * @return 每张凭证的过账结果，顺序与入参一致 (重复ID只保留一次)
+     */
+    List<PostingResultVO> postVouchers(List<Long> transactionIds);
+
+    /**
+     * 批量导入凭证
+     *
+     * 每张凭证先单独校验 (借贷平衡、科目存在、期间未结账)，
+     * 通过的凭证按块 (每块一个事务) 用 JDBC 批量插入主表和分录；
+     * 某块写库失败时该块逐张重试，只有出错的凭证记为失败。
+     *
+     * @param firstIndex 结果中第一张凭证的下标
+     * @return 与入参一一对应的结果
+     */
+    List<VoucherImportResultVO> importVouchers(List<VoucherImportDTO> vouchers, int firstIndex);
+
+    /**
+     * 校验一张待导入的凭证 (不写库)
+     *
+     * @return 校验失败的原因，通过时返回 null
+     */
+    String validateImport(VoucherImportDTO voucher);
+
+    /**
+     * 在调用方的事务中写入一批凭证 (写前日志回放用)
+     *
+     * 逐张校验，通过的凭证批量插入；任何写库异常都会使整个事务回滚，
+     * 由调用方决定重试方式。校验失败的凭证只记入结果，不影响其他凭证。
+     *
+     * @param firstIndex 结果中第一张凭证的下标
+     * @return 与入参一一对应的结果
+     */
+    List<VoucherImportResultVO> importVouchersInTransaction(List<VoucherImportDTO> vouchers, int firstIndex);
+
+    /**
+     * 按单据类型的过账规则生成并保存一张已过账凭证
+     *
+     * @param docType 单据类型，对应 finance_posting_rule.doc_type
+     * @param header  单据级变量 (分)，按 {@link PostingPlan#apply} 的约定
+     * @param lines   单据明细，没有按明细的规则时可为空
+     * @return 保存后的凭证主表
+     * @throws RuntimeException 没有规则、规则编译失败或生成的凭证校验不通过
+     */
+    FinanceTransaction postByRule(String docType, Long bookId, LocalDate voucherDate, String description,
+                                  long[] header, List<PostingPlan.Line> lines);
+
+    /**
+     * 凭证列表一页 (含借方合计)，按 凭证日期、凭证ID 倒序
+     * 下一页以本页最后一行的 (voucherDate, transactionId) 作为游标
+     *
+     * @param status     DRAFT / POSTED，null 不过滤
+     * @param cursorDate 游标日期，第一页为 null
+     * @param cursorId   游标凭证ID，第一页为 null
+     * @param limit      每页条数，null 时不分页、返回游标之后的全部凭证
+     * @return 逐行读取的游标，须在事务内使用并关闭
+     */
+    Cursor<VoucherListVO> openVoucherPage(String status, LocalDate from, LocalDate to,
+                                          LocalDate cursorDate, Long cursorId, Integer limit);
 }
@@ -0,0 +1,24 @@
+package com.finance.financesystem.service;
+
+import com.finance.financesystem.entity.TrialBalanceVO;
+
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * 试算平衡表 服务类
+ * </p>
+ *
+ * 只统计已过账凭证，聚合在数据库端完成，JVM 只处理 O(科目数) 行。
+ */
+public interface IFinanceTrialBalanceService {
+
+    /**
+     * 试算平衡表
+     *
+     * @param bookId 账簿ID (null 不过滤，0 表示未指定账簿的凭证)
+     * @param from   期间开始 (含，可空)，之前的发生额计入期初
+     * @param to     期间结束 (含，可空)
+     */
+    TrialBalanceVO getTrialBalance(Long bookId, LocalDate from, LocalDate to);
+}
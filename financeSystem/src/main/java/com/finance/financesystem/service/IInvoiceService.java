@@ -1,8 +1,11 @@
 package com.finance.financesystem.service;
 
 import com.finance.financesystem.entity.Invoice;
+import com.finance.financesystem.entity.InvoicePostingSummaryVO;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.List;
+
 /**
  * <p>
  * 发票 服务类接口
@@ -12,4 +15,25 @@ import com.baomidou.mybatisplus.extension.service.IService;
  * @since 2025-12-02
  */
 public interface IInvoiceService extends IService<Invoice> {
+
+    /**
+     * 把全部草稿发票入账，见 {@link #postInvoices(List, Long)}
+     */
+    InvoicePostingSummaryVO postDraftInvoices(Long bookId);
+
+    /**
+     * 发票入账：按发票类型对应的过账规则 (finance_posting_rule) 生成凭证，并把发票改为已入账
+     *
+     * 默认规则：
+     * - 采购 (PURCHASE)：借 库存商品 1405 (每条明细一行)，贷 应付账款 2202
+     * - 销售 (SALE)：借 应收账款 1122，贷 主营业务收入 6001 (每条明细一行)
+     *
+     * 发票按块 (默认每块 500 张) 处理，每块一个事务：锁定块内仍是草稿的发票、一次查询加载明细、
+     * 批量写入凭证和分录、一条 UPDATE 标记发票，多块在虚拟线程上并发执行。
+     * 校验不通过的发票保持草稿；被其他任务锁住或已入账的发票跳过。
+     *
+     * @param invoiceIds 发票ID
+     * @param bookId     凭证所属账簿，可空
+     */
+    InvoicePostingSummaryVO postInvoices(List<Long> invoiceIds, Long bookId);
 }
\ No newline at end of file
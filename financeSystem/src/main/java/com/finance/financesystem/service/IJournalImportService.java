@@ -0,0 +1,29 @@
+package com.finance.financesystem.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * <p>
+ * 分录文件导入 服务类
+ * </p>
+ *
+ * 文件每行一条分录，连续且 voucherKey 相同的行组成一张凭证。
+ *
+ * CSV 列顺序 (首行可以是表头)：
+ * voucherKey,voucherDate,description,accountId,dcDirection,amount,summary,bookId
+ *
+ * JSON Lines：每行一个对象，字段名同上。
+ */
+public interface IJournalImportService {
+
+    /**
+     * 流式导入分录文件，内存占用与文件大小无关
+     *
+     * @param in     文件内容 (UTF-8)
+     * @param format csv / jsonl
+     * @return 行数、凭证数、成功/失败数、耗时与吞吐量，以及 (截断后的) 错误列表
+     */
+    Map<String, Object> importJournal(InputStream in, String format) throws IOException;
+}
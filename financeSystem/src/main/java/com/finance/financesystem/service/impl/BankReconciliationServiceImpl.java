@@ -0,0 +1,261 @@
+package com.finance.financesystem.service.impl;
+
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.ChartOfAccounts;
+import com.finance.financesystem.component.ChartOfAccountsIndex;
+import com.finance.financesystem.component.StatementMatcher;
+import com.finance.financesystem.entity.FinanceAccount;
+import com.finance.financesystem.entity.ReconcileSplitVO;
+import com.finance.financesystem.entity.ReconciliationResultVO;
+import com.finance.financesystem.mapper.FinanceSplitMapper;
+import com.finance.financesystem.service.IBankReconciliationService;
+import jakarta.annotation.PostConstruct;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * 银行对账 服务实现类
+ * </p>
+ *
+ * 对账单通过 NIO Channel 逐行读取，每行只保留解析后的日期、金额、流水号和摘要；
+ * 账面分录用游标逐行放进 {@link StatementMatcher} 的哈希桶，匹配不访问数据库。
+ * 匹配结果按 1000 个分录ID一条 UPDATE 批量写回，全部在一个事务里，
+ * 分录在读取之后被其他对账标记过则整批回滚。
+ */
+@Service
+public class BankReconciliationServiceImpl implements IBankReconciliationService {
+
+    private static final int MAX_REPORTED = 1000;
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+    private static final DateTimeFormatter SLASH_DATE = DateTimeFormatter.ofPattern("yyyy/M/d");
+
+    @Autowired
+    private FinanceSplitMapper splitMapper;
+
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** 默认参与对账的现金 / 银行科目编码 (含下级) */
+    @Value("${finance.reconcile.cash-accounts:1001,1002}")
+    private List<String> cashAccountCodes;
+
+    /** 对账单日期与凭证日期最多相差的天数 */
+    @Value("${finance.reconcile.window-days:3}")
+    private int defaultWindowDays;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Override
+    public ReconciliationResultVO reconcileStatement(InputStream in, Long bookId, String accountCode,
+                                                     Integer windowDays) throws IOException {
+        long start = System.currentTimeMillis();
+        int window = windowDays != null ? Math.max(0, windowDays) : defaultWindowDays;
+        Set<Long> accountIds = resolveAccounts(bookId, accountCode);
+
+        ReconciliationResultVO result = new ReconciliationResultVO();
+        List<ReconciliationResultVO.StatementLine> lines = readStatement(in, result);
+        result.setStatementLines(lines.size());
+        result.setMatchedAmount(BigDecimal.ZERO);
+        if (lines.isEmpty()) {
+            result.setElapsedMillis(System.currentTimeMillis() - start);
+            return result;
+        }
+        LocalDate from = lines.get(0).date();
+        LocalDate to = from;
+        for (ReconciliationResultVO.StatementLine line : lines) {
+            from = line.date().isBefore(from) ? line.date() : from;
+            to = line.date().isAfter(to) ? line.date() : to;
+        }
+        result.setStatementFrom(from);
+        result.setStatementTo(to);
+
+        StatementMatcher matcher = new StatementMatcher(window);
+        LocalDate loadFrom = from.minusDays(window);
+        LocalDate loadTo = to.plusDays(window);
+        readOnly.executeWithoutResult(status -> {
+            try (Cursor<ReconcileSplitVO> cursor = splitMapper.selectUnreconciled(accountIds, bookId, loadFrom, loadTo)) {
+                for (ReconcileSplitVO split : cursor) {
+                    matcher.add(split);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        List<Long> matchedIds = new ArrayList<>();
+        long matchedCents = 0;
+        for (ReconciliationResultVO.StatementLine line : lines) {
+            long cents = CentsLedger.toCents(line.amount());
+            ReconcileSplitVO split = matcher.match(cents, line.date());
+            if (split != null) {
+                matchedIds.add(split.splitId());
+                matchedCents += cents;
+            } else {
+                result.setUnmatchedLines(result.getUnmatchedLines() + 1);
+                if (result.getLineExceptions().size() < MAX_REPORTED) {
+                    result.getLineExceptions().add(line);
+                }
+            }
+        }
+        List<ReconcileSplitVO> unmatchedSplits = matcher.unmatched(from, to);
+        result.setUnmatchedSplits(unmatchedSplits.size());
+        result.getSplitExceptions().addAll(unmatchedSplits.subList(0, Math.min(MAX_REPORTED, unmatchedSplits.size())));
+
+        if (!matchedIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int updated = 0;
+                for (int i = 0; i < matchedIds.size(); i += UPDATE_CHUNK_SIZE) {
+                    updated += splitMapper.updateReconcileState(
+                        matchedIds.subList(i, Math.min(i + UPDATE_CHUNK_SIZE, matchedIds.size())), "n", "c");
+                }
+                if (updated != matchedIds.size()) {
+                    throw new IllegalStateException("有 " + (matchedIds.size() - updated)
+                        + " 条分录已被其他对账标记，请重新对账");
+                }
+            });
+        }
+        result.setMatched(matchedIds.size());
+        result.setMatchedAmount(CentsLedger.toAmount(matchedCents));
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int confirm(Long bookId, String accountCode, LocalDate to) {
+        return splitMapper.confirmCleared(resolveAccounts(bookId, accountCode), bookId,
+            to != null ? to : LocalDate.now());
+    }
+
+    /**
+     * 科目编码 → 科目ID，含全部下级科目
+     */
+    private Set<Long> resolveAccounts(Long bookId, String accountCode) {
+        ChartOfAccounts chart = chartIndex.get();
+        List<String> codes = accountCode != null && !accountCode.isBlank() ? List.of(accountCode.trim()) : cashAccountCodes;
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String code : codes) {
+            FinanceAccount account = chart.getByCode(bookId, code.trim());
+            if (account != null) {
+                addWithDescendants(chart, account, ids);
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("找不到对账科目: " + String.join(",", codes));
+        }
+        return ids;
+    }
+
+    private static void addWithDescendants(ChartOfAccounts chart, FinanceAccount account, Set<Long> ids) {
+        if (ids.add(account.getAccountId())) {
+            for (FinanceAccount child : chart.getChildren(account.getAccountId())) {
+                addWithDescendants(chart, child, ids);
+            }
+        }
+    }
+
+    private List<ReconciliationResultVO.StatementLine> readStatement(InputStream in, ReconciliationResultVO result)
+            throws IOException {
+        List<ReconciliationResultVO.StatementLine> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                Channels.newReader(Channels.newChannel(in), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            long lineNo = 0;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (first && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
+                try {
+                    List<String> f = JournalImportServiceImpl.splitCsv(line);
+                    if (first && parseDate(f.get(0)) == null) {
+                        first = false;
+                        continue;  // 表头
+                    }
+                    first = false;
+                    lines.add(parseLine(lineNo, f));
+                } catch (Exception e) {
+                    first = false;
+                    if (result.getErrors().size() < MAX_REPORTED) {
+                        result.getErrors().add("第 " + lineNo + " 行: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static ReconciliationResultVO.StatementLine parseLine(long lineNo, List<String> f) {
+        if (f.size() < 2) {
+            throw new IllegalArgumentException("列数不足，至少需要 date,amount 两列");
+        }
+        LocalDate date = parseDate(f.get(0));
+        if (date == null) {
+            throw new IllegalArgumentException("日期格式不正确: " + f.get(0));
+        }
+        String amountText = f.get(1).trim().replace(",", "");
+        if (amountText.isEmpty()) {
+            throw new IllegalArgumentException("金额为空");
+        }
+        BigDecimal amount = new BigDecimal(amountText);
+        if (amount.signum() == 0) {
+            throw new IllegalArgumentException("金额为 0");
+        }
+        try {
+            CentsLedger.toCents(amount);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("金额最多两位小数");
+        }
+        return new ReconciliationResultVO.StatementLine(lineNo, date, amount,
+            f.size() > 2 ? f.get(2).trim() : null, f.size() > 3 ? f.get(3).trim() : null);
+    }
+
+    private static LocalDate parseDate(String text) {
+        String s = text.trim();
+        try {
+            if (s.length() == 8 && s.chars().allMatch(Character::isDigit)) {
+                return LocalDate.parse(s, DateTimeFormatter.BASIC_ISO_DATE);
+            }
+            return s.indexOf('/') > 0 ? LocalDate.parse(s, SLASH_DATE) : LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -1,10 +1,242 @@
 package com.finance.financesystem.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.PayrollCalculator;
+import com.finance.financesystem.component.PostingPlan;
+import com.finance.financesystem.component.PostingVar;
 import com.finance.financesystem.entity.Employee;
+import com.finance.financesystem.entity.FinancePayrollRun;
+import com.finance.financesystem.entity.FinanceTransaction;
+import com.finance.financesystem.entity.PayrollDepartmentVO;
+import com.finance.financesystem.entity.PayrollInputDTO;
+import com.finance.financesystem.entity.PayrollRunDTO;
+import com.finance.financesystem.entity.PayrollRunResultVO;
 import com.finance.financesystem.mapper.EmployeeMapper;
+import com.finance.financesystem.mapper.FinancePayrollRunMapper;
 import com.finance.financesystem.service.IEmployeeService;
+import com.finance.financesystem.service.IFinanceTransactionService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 员工 服务实现类
+ *
+ * 工资计算：一次查询读出全体员工的部门和基本工资，连同当月变动项按列装进
+ * {@link PayrollCalculator.Batch}，并行算完后只按部门汇总生成凭证，分录数与部门数相关、与人数无关。
+ *
+ * 计提凭证与 finance_payroll_run 记录在同一个事务里写入，(月份, 账簿) 为主键，同一月份重复计提会被拒绝。
+ */
 @Service
-public class EmployeeServiceImpl extends ServiceImpl<EmployeeMapper, Employee> implements IEmployeeService {}
\ No newline at end of file
+public class EmployeeServiceImpl extends ServiceImpl<EmployeeMapper, Employee> implements IEmployeeService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String NO_DEPARTMENT = "未分配部门";
+
+    @Autowired
+    private IFinanceTransactionService transactionService;
+
+    @Autowired
+    private FinancePayrollRunMapper payrollRunMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** 社保个人缴费比例 (养老 8% + 医疗 2% + 失业 0.5%) */
+    @Value("${finance.payroll.social-insurance-rate:0.105}")
+    private BigDecimal socialInsuranceRate;
+
+    /** 公积金个人缴费比例 */
+    @Value("${finance.payroll.housing-fund-rate:0.07}")
+    private BigDecimal housingFundRate;
+
+    /** 缴费基数下限 */
+    @Value("${finance.payroll.base-min:0}")
+    private BigDecimal baseMin;
+
+    /** 缴费基数上限，0 表示不限 */
+    @Value("${finance.payroll.base-max:0}")
+    private BigDecimal baseMax;
+
+    /** 个税起征点 (每月) */
+    @Value("${finance.payroll.tax-threshold:5000}")
+    private BigDecimal taxThreshold;
+
+    @Override
+    public PayrollRunResultVO runPayroll(PayrollRunDTO run, boolean post) {
+        long start = System.currentTimeMillis();
+        YearMonth month;
+        try {
+            month = YearMonth.parse(run.getMonth() != null ? run.getMonth().trim() : "");
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("月份格式应为 yyyy-MM");
+        }
+        if (run.getInputs() == null) {
+            throw new IllegalArgumentException("变动项 inputs 不能为 null，没有变动时传 []");
+        }
+        long bookKey = run.getBookId() != null ? run.getBookId() : 0L;
+        if (post) {
+            FinancePayrollRun existing = payrollRunMapper.selectRun(month.toString(), bookKey);
+            if (existing != null) {
+                throw alreadyPosted(existing);
+            }
+        }
+
+        PayrollRunResultVO result = new PayrollRunResultVO();
+        result.setMonth(month.toString());
+
+        List<Employee> employees = list(new QueryWrapper<Employee>()
+            .select("employee_id", "department", "basic_salary")
+            .orderByAsc("employee_id"));
+        Map<Long, PayrollInputDTO> inputs = new HashMap<>();
+        for (PayrollInputDTO input : run.getInputs()) {
+            if (input != null && input.getEmployeeId() != null) {
+                inputs.put(input.getEmployeeId(), input);
+            }
+        }
+
+        // 部门名 → 下标，按名称排序以便凭证分录顺序稳定
+        TreeMap<String, Integer> departmentIndex = new TreeMap<>();
+        for (Employee e : employees) {
+            departmentIndex.putIfAbsent(departmentOf(e), 0);
+        }
+        List<String> departments = new ArrayList<>(departmentIndex.keySet());
+        for (int d = 0; d < departments.size(); d++) {
+            departmentIndex.put(departments.get(d), d);
+        }
+
+        PayrollCalculator.Batch batch = new PayrollCalculator.Batch(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            Employee e = employees.get(i);
+            PayrollInputDTO input = inputs.remove(e.getEmployeeId());
+            batch.department[i] = departmentIndex.get(departmentOf(e));
+            try {
+                batch.basic[i] = CentsLedger.toCents(e.getBasicSalary());
+                if (input != null) {
+                    batch.bonus[i] = CentsLedger.toCents(input.getBonus());
+                    batch.allowance[i] = CentsLedger.toCents(input.getAllowance());
+                    batch.deduction[i] = CentsLedger.toCents(input.getDeduction());
+                    batch.special[i] = CentsLedger.toCents(input.getSpecialDeduction());
+                }
+            } catch (ArithmeticException ex) {
+                throw new IllegalArgumentException("员工 #" + e.getEmployeeId() + " 的金额最多两位小数");
+            }
+        }
+        for (Long unknown : inputs.keySet()) {
+            addError(result, "员工 #" + unknown + ": 不存在，变动项未使用");
+        }
+
+        long computeStart = System.currentTimeMillis();
+        long[] totals = PayrollCalculator.compute(batch, departments.size(), rates());
+        result.setComputeMillis(System.currentTimeMillis() - computeStart);
+
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.status[i] == PayrollCalculator.OK) {
+                continue;
+            }
+            result.setSkipped(result.getSkipped() + 1);
+            addError(result, "员工 #" + employees.get(i).getEmployeeId() + ": "
+                + (batch.status[i] == PayrollCalculator.NO_SALARY ? "没有基本工资" : "扣款超过应发工资"));
+        }
+
+        long[] header = PostingVar.vector();
+        List<PostingPlan.Line> lines = new ArrayList<>(departments.size());
+        int computed = 0;
+        for (int d = 0; d < departments.size(); d++) {
+            int o = d * PayrollCalculator.WIDTH;
+            if (totals[o + PayrollCalculator.EMPLOYEES] == 0) {
+                continue;
+            }
+            computed += (int) totals[o + PayrollCalculator.EMPLOYEES];
+            long[] vars = PostingVar.vector();
+            vars[PostingVar.TOTAL.ordinal()] = totals[o + PayrollCalculator.GROSS];
+            vars[PostingVar.SOCIAL.ordinal()] = totals[o + PayrollCalculator.SOCIAL];
+            vars[PostingVar.HOUSING.ordinal()] = totals[o + PayrollCalculator.HOUSING];
+            vars[PostingVar.TAX.ordinal()] = totals[o + PayrollCalculator.TAX];
+            vars[PostingVar.NET.ordinal()] = totals[o + PayrollCalculator.NET];
+            for (int k = 0; k < header.length; k++) {
+                header[k] += vars[k];
+            }
+            lines.add(new PostingPlan.Line(departments.get(d) + " " + month + " 工资", vars));
+            result.getDepartments().add(new PayrollDepartmentVO(departments.get(d),
+                totals[o + PayrollCalculator.EMPLOYEES],
+                CentsLedger.toAmount(vars[PostingVar.TOTAL.ordinal()]),
+                CentsLedger.toAmount(vars[PostingVar.SOCIAL.ordinal()]),
+                CentsLedger.toAmount(vars[PostingVar.HOUSING.ordinal()]),
+                CentsLedger.toAmount(vars[PostingVar.TAX.ordinal()]),
+                CentsLedger.toAmount(vars[PostingVar.NET.ordinal()])));
+        }
+        result.setEmployees(computed);
+        result.setGross(CentsLedger.toAmount(header[PostingVar.TOTAL.ordinal()]));
+        result.setSocialInsurance(CentsLedger.toAmount(header[PostingVar.SOCIAL.ordinal()]));
+        result.setHousingFund(CentsLedger.toAmount(header[PostingVar.HOUSING.ordinal()]));
+        result.setIncomeTax(CentsLedger.toAmount(header[PostingVar.TAX.ordinal()]));
+        result.setNetPay(CentsLedger.toAmount(header[PostingVar.NET.ordinal()]));
+
+        if (post && !lines.isEmpty()) {
+            FinancePayrollRun record = new FinancePayrollRun();
+            record.setPeriod(month.toString());
+            record.setBookId(bookKey);
+            record.setEmployees(computed);
+            record.setNetPay(result.getNetPay());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    FinanceTransaction tx = transactionService.postByRule("PAYROLL_ACCRUE", run.getBookId(),
+                        run.getVoucherDate() != null ? run.getVoucherDate() : month.atEndOfMonth(),
+                        month + " 月份工资计提", header, lines);
+                    record.setTransactionId(tx.getTransactionId());
+                    record.setVoucherNo(tx.getVoucherNo());
+                    record.setCreateTime(LocalDateTime.now());
+                    payrollRunMapper.insert(record);
+                });
+            } catch (DuplicateKeyException e) {
+                // 并发的另一次计提先提交了，本次凭证已随事务回滚
+                FinancePayrollRun existing = payrollRunMapper.selectRun(month.toString(), bookKey);
+                throw existing != null ? alreadyPosted(existing)
+                    : new IllegalArgumentException(month + " 月份工资已计提，不能重复计提");
+            }
+            result.setTransactionId(record.getTransactionId());
+            result.setVoucherNo(record.getVoucherNo());
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private static IllegalArgumentException alreadyPosted(FinancePayrollRun run) {
+        return new IllegalArgumentException(run.getPeriod() + " 月份工资已计提 (凭证 "
+            + (run.getVoucherNo() != null ? run.getVoucherNo() : "#" + run.getTransactionId()) + ")，不能重复计提");
+    }
+
+    private PayrollCalculator.Rates rates() {
+        return new PayrollCalculator.Rates(
+            socialInsuranceRate.movePointRight(4).intValue(),
+            housingFundRate.movePointRight(4).intValue(),
+            CentsLedger.toCents(baseMin),
+            CentsLedger.toCents(baseMax),
+            CentsLedger.toCents(taxThreshold));
+    }
+
+    private static String departmentOf(Employee e) {
+        return e.getDepartment() != null && !e.getDepartment().isBlank() ? e.getDepartment().trim() : NO_DEPARTMENT;
+    }
+
+    private static void addError(PayrollRunResultVO result, String error) {
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(error);
+        }
+    }
+}
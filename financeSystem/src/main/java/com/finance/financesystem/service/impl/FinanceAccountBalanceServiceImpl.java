@@ -0,0 +1,84 @@
+package com.finance.financesystem.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.finance.financesystem.component.LedgerVersion;
+import com.finance.financesystem.entity.FinanceAccountBalance;
+import com.finance.financesystem.entity.FinanceSplit;
+import com.finance.financesystem.mapper.FinanceAccountBalanceMapper;
+import com.finance.financesystem.service.IFinanceAccountBalanceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * 科目余额表 服务实现类
+ * </p>
+ */
+@Service
+public class FinanceAccountBalanceServiceImpl extends ServiceImpl<FinanceAccountBalanceMapper, FinanceAccountBalance>
+        implements IFinanceAccountBalanceService {
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applySplits(Long bookId, Collection<FinanceSplit> splits) {
+        if (splits == null || splits.isEmpty()) {
+            return;
+        }
+        Long bookKey = bookId != null ? bookId : 0L;
+
+        // 同一凭证里同一科目可能有多条分录，先合并再写库；
+        // 按科目ID排序写入，并发过账的事务以相同顺序加行锁，不会互相死锁
+        Map<Long, FinanceAccountBalance> deltas = new TreeMap<>();
+        for (FinanceSplit split : splits) {
+            if (split.getAccountId() == null || split.getAmount() == null) {
+                continue;
+            }
+            FinanceAccountBalance delta = deltas.computeIfAbsent(split.getAccountId(), accId -> {
+                FinanceAccountBalance b = new FinanceAccountBalance();
+                b.setAccountId(accId);
+                b.setBookId(bookKey);
+                b.setDebitTotal(BigDecimal.ZERO);
+                b.setCreditTotal(BigDecimal.ZERO);
+                return b;
+            });
+            if (split.getDcDirection() != null && split.getDcDirection() == 1) {
+                delta.setDebitTotal(delta.getDebitTotal().add(split.getAmount()));
+            } else {
+                delta.setCreditTotal(delta.getCreditTotal().add(split.getAmount()));
+            }
+        }
+        if (!deltas.isEmpty()) {
+            baseMapper.applyDeltas(deltas.values());
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void rebuild() {
+        baseMapper.deleteAll();
+        baseMapper.rebuildFromSplits();
+        ledgerVersion.bumpAfterCommit();
+    }
+
+    @Override
+    public Map<Long, BigDecimal[]> getDebitCreditTotals(Long bookId) {
+        Map<Long, BigDecimal[]> result = new HashMap<>();
+        for (FinanceAccountBalance row : baseMapper.sumByAccount(bookId)) {
+            BigDecimal debit = row.getDebitTotal() != null ? row.getDebitTotal() : BigDecimal.ZERO;
+            BigDecimal credit = row.getCreditTotal() != null ? row.getCreditTotal() : BigDecimal.ZERO;
+            result.put(row.getAccountId(), new BigDecimal[]{debit, credit});
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package com.finance.financesystem.service.impl;
+
+import com.finance.financesystem.component.ChartOfAccountsIndex;
+import com.finance.financesystem.component.TabularWriter;
+import com.finance.financesystem.entity.FinanceAccount;
+import com.finance.financesystem.entity.JournalExportRowVO;
+import com.finance.financesystem.entity.LedgerAggregateVO;
+import com.finance.financesystem.entity.LedgerExportRowVO;
+import com.finance.financesystem.mapper.FinanceSplitMapper;
+import com.finance.financesystem.service.IFinanceExportService;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * 账簿导出 服务实现类
+ * </p>
+ *
+ * 游标只在 SqlSession 打开期间有效，所以整个导出在一个只读事务里完成。
+ * 明细账余额不用窗口函数：先聚合出期初，再在写出时逐行累加，数据库不必为整段区间物化窗口。
+ */
+@Service
+public class FinanceExportServiceImpl implements IFinanceExportService {
+
+    @Autowired
+    private FinanceSplitMapper splitMapper;
+
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeJournal(TabularWriter writer, Long bookId, LocalDate from, LocalDate to) throws IOException {
+        writer.header("凭证日期", "凭证号", "凭证ID", "凭证摘要", "分录ID",
+            "科目编码", "科目名称", "分录摘要", "借方金额", "贷方金额");
+        try (Cursor<JournalExportRowVO> rows = splitMapper.selectJournalExport(bookId, from, to)) {
+            for (JournalExportRowVO r : rows) {
+                boolean debit = Integer.valueOf(1).equals(r.dcDirection());
+                writer.row(r.voucherDate(), r.voucherNo(), r.transactionId(), r.description(), r.splitId(),
+                    r.accountCode(), r.accountName(), r.summary(),
+                    debit ? r.amount() : null, debit ? null : r.amount());
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeLedger(TabularWriter writer, Long accountId, LocalDate from, LocalDate to) throws IOException {
+        FinanceAccount account = chartIndex.get().getById(accountId);
+        // 资产、费用类余额在借方，其余在贷方
+        boolean isDebitBalance = account != null &&
+            ("ASSET".equals(account.getAccountType()) || "EXPENSE".equals(account.getAccountType()));
+
+        LedgerAggregateVO agg = splitMapper.aggregateLedger(accountId, from, to, null, null, null);
+        BigDecimal net = agg != null && agg.getBeforeFromNet() != null ? agg.getBeforeFromNet() : BigDecimal.ZERO;
+
+        writer.header("凭证日期", "凭证号", "凭证ID", "分录ID", "摘要", "借方金额", "贷方金额", "方向", "余额");
+        writer.row(from, null, null, null, "期初余额", null, null,
+            direction(net), balance(net, isDebitBalance));
+
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        BigDecimal totalCredit = BigDecimal.ZERO;
+        try (Cursor<LedgerExportRowVO> rows = splitMapper.selectLedgerExport(accountId, from, to)) {
+            for (LedgerExportRowVO r : rows) {
+                BigDecimal amount = r.amount() != null ? r.amount() : BigDecimal.ZERO;
+                boolean debit = Integer.valueOf(1).equals(r.dcDirection());
+                if (debit) {
+                    net = net.add(amount);
+                    totalDebit = totalDebit.add(amount);
+                } else {
+                    net = net.subtract(amount);
+                    totalCredit = totalCredit.add(amount);
+                }
+                writer.row(r.voucherDate(), r.voucherNo(), r.transactionId(), r.splitId(), r.summary(),
+                    debit ? amount : null, debit ? null : amount,
+                    direction(net), balance(net, isDebitBalance));
+            }
+        }
+        writer.row(to, null, null, null, "本期合计 / 期末余额", totalDebit, totalCredit,
+            direction(net), balance(net, isDebitBalance));
+    }
+
+    /**
+     * 借 - 贷 换算为按科目余额方向的余额
+     */
+    private static BigDecimal balance(BigDecimal debitNet, boolean isDebitBalance) {
+        return isDebitBalance ? debitNet : debitNet.negate();
+    }
+
+    /**
+     * 余额方向按 借 - 贷 的符号判断，与科目类型无关
+     */
+    private static String direction(BigDecimal debitNet) {
+        if (debitNet.signum() == 0) {
+            return "平";
+        }
+        return debitNet.signum() > 0 ? "借" : "贷";
+    }
+}
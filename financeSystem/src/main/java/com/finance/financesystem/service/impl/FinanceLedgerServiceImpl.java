@@ -0,0 +1,105 @@
+package com.finance.financesystem.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.finance.financesystem.component.ChartOfAccountsIndex;
+import com.finance.financesystem.entity.FinanceAccount;
+import com.finance.financesystem.entity.LedgerAggregateVO;
+import com.finance.financesystem.entity.LedgerEntryVO;
+import com.finance.financesystem.entity.LedgerLineVO;
+import com.finance.financesystem.mapper.FinanceSplitMapper;
+import com.finance.financesystem.service.IFinanceLedgerService;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * 科目明细账 服务实现类
+ * </p>
+ *
+ * 每页两次查询：
+ * 1. 一次聚合得到 from 之前的余额、期内借贷合计、期内游标之前的发生额 → 本页期初余额
+ * 2. 按游标取一页分录，SUM() OVER 在页内累计借贷差，加上期初即为每行余额
+ *
+ * 分录从 MyBatis 游标逐行读出、逐行写到响应流，页再大也不在内存里攒成列表。
+ */
+@Service
+public class FinanceLedgerServiceImpl implements IFinanceLedgerService {
+
+    @Autowired
+    private FinanceSplitMapper splitMapper;
+
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    @Override
+    public void writeLedger(JsonGenerator gen, Long accountId, LocalDate from, LocalDate to,
+                            LocalDate cursorDate, Long cursorId, Long cursorSplitId, int limit) throws IOException {
+        FinanceAccount account = chartIndex.get().getById(accountId);
+
+        // 资产、费用类余额在借方，其余在贷方
+        boolean isDebitBalance = account != null &&
+            ("ASSET".equals(account.getAccountType()) || "EXPENSE".equals(account.getAccountType()));
+
+        LedgerAggregateVO agg = splitMapper.aggregateLedger(accountId, from, to, cursorDate, cursorId, cursorSplitId);
+        BigDecimal beforeFromNet = nz(agg != null ? agg.getBeforeFromNet() : null);
+        BigDecimal periodDebit = nz(agg != null ? agg.getPeriodDebit() : null);
+        BigDecimal periodCredit = nz(agg != null ? agg.getPeriodCredit() : null);
+        BigDecimal openingNet = beforeFromNet.add(nz(agg != null ? agg.getPriorPageNet() : null));
+
+        gen.writeStartObject();
+        gen.writeObjectField("account", account);
+        gen.writeObjectField("openingBalance", toBalance(openingNet, isDebitBalance));
+
+        // 多取一行判断是否还有下一页，只保留最后写出的一行用于生成游标
+        gen.writeArrayFieldStart("entries");
+        LedgerEntryVO last = null;
+        boolean hasMore = false;
+        int written = 0;
+        try (Cursor<LedgerEntryVO> rows = splitMapper.selectLedgerPage(accountId, from, to,
+                cursorDate, cursorId, cursorSplitId, limit + 1)) {
+            for (LedgerEntryVO row : rows) {
+                if (written == limit) {
+                    hasMore = true;
+                    break;
+                }
+                BigDecimal balance = toBalance(openingNet.add(nz(row.getRunningNet())), isDebitBalance);
+                gen.writeObject(new LedgerLineVO(row.getSplitId(), row.getTransactionId(), row.getTransactionId(),
+                    row.getVoucherDate(), row.getSummary(), row.getDcDirection(), row.getAmount(),
+                    balance, balance.signum() >= 0 ? "借" : "贷"));
+                last = row;
+                written++;
+            }
+        }
+        gen.writeEndArray();
+
+        gen.writeObjectField("totalDebit", periodDebit);
+        gen.writeObjectField("totalCredit", periodCredit);
+        gen.writeObjectField("finalBalance",
+            toBalance(beforeFromNet.add(periodDebit).subtract(periodCredit), isDebitBalance));
+        gen.writeBooleanField("hasMore", hasMore);
+        if (hasMore) {
+            gen.writeObjectFieldStart("nextCursor");
+            gen.writeObjectField("cursorDate", last.getVoucherDate());
+            gen.writeObjectField("cursorId", last.getTransactionId());
+            gen.writeObjectField("cursorSplitId", last.getSplitId());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * 借 - 贷 换算为按科目余额方向的余额
+     */
+    private static BigDecimal toBalance(BigDecimal debitNet, boolean isDebitBalance) {
+        return isDebitBalance ? debitNet : debitNet.negate();
+    }
+
+    private static BigDecimal nz(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,166 @@
+package com.finance.financesystem.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.finance.financesystem.entity.FinanceBalanceSnapshot;
+import com.finance.financesystem.entity.FinancePeriodClose;
+import com.finance.financesystem.mapper.FinanceBalanceSnapshotMapper;
+import com.finance.financesystem.mapper.FinancePeriodCloseMapper;
+import com.finance.financesystem.service.IFinancePeriodService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * 会计期间结账 服务实现类
+ * </p>
+ *
+ * 过账事务持有读锁直到事务结束，结账持有写锁：
+ * 结账开始前所有进行中的过账都已提交，快照不会漏掉正在写入的分录 (单实例部署)。
+ */
+@Service
+public class FinancePeriodServiceImpl extends ServiceImpl<FinancePeriodCloseMapper, FinancePeriodClose>
+        implements IFinancePeriodService {
+
+    @Autowired
+    private FinanceBalanceSnapshotMapper snapshotMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    /**
+     * 已结账期间缓存 (升序)，null 表示尚未加载
+     */
+    private volatile List<YearMonth> closedPeriods;
+
+    @Override
+    public void closePeriod(YearMonth period) {
+        closeLock.writeLock().lock();
+        try {
+            List<YearMonth> closed = listClosedPeriods();
+            YearMonth prev = closed.isEmpty() ? null : closed.get(closed.size() - 1);
+            if (prev != null && !period.isAfter(prev)) {
+                throw new RuntimeException("期间 " + period + " 不晚于最近已结账期间 " + prev + "，不能结账");
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                snapshotMapper.insertClosing(period.toString(),
+                        prev != null ? prev.toString() : null,
+                        prev != null ? prev.atEndOfMonth() : null,
+                        period.atEndOfMonth());
+
+                FinancePeriodClose row = new FinancePeriodClose();
+                row.setPeriod(period.toString());
+                row.setCloseTime(LocalDateTime.now());
+                this.save(row);
+            });
+            closedPeriods = null;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public YearMonth reopenLatest() {
+        closeLock.writeLock().lock();
+        try {
+            List<YearMonth> closed = listClosedPeriods();
+            if (closed.isEmpty()) {
+                return null;
+            }
+            YearMonth latest = closed.get(closed.size() - 1);
+            transactionTemplate.executeWithoutResult(status -> {
+                snapshotMapper.deleteByPeriod(latest.toString());
+                this.removeById(latest.toString());
+            });
+            closedPeriods = null;
+            return latest;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void checkOpen(LocalDate voucherDate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 读锁持有到事务结束，防止结账与过账交错
+            closeLock.readLock().lock();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    closeLock.readLock().unlock();
+                }
+            });
+        }
+        List<YearMonth> closed = listClosedPeriods();
+        if (voucherDate == null || closed.isEmpty()) {
+            return;
+        }
+        YearMonth latest = closed.get(closed.size() - 1);
+        if (!YearMonth.from(voucherDate).isAfter(latest)) {
+            throw new RuntimeException("会计期间 " + YearMonth.from(voucherDate) + " 已结账，不能过账");
+        }
+    }
+
+    /**
+     * 缓存未命中时在读锁内查询并发布：结账 / 反结账在写锁内提交并清空缓存，
+     * 读锁保证查询要么整个在写锁之前 (随后被清空)，要么在写锁之后 (读到新数据)，不会把旧列表写回缓存
+     */
+    @Override
+    public List<YearMonth> listClosedPeriods() {
+        List<YearMonth> current = closedPeriods;
+        if (current != null) {
+            return current;
+        }
+        closeLock.readLock().lock();
+        try {
+            current = closedPeriods;
+            if (current == null) {
+                List<YearMonth> loaded = new ArrayList<>();
+                for (FinancePeriodClose row : this.list(new QueryWrapper<FinancePeriodClose>().orderByAsc("period"))) {
+                    loaded.add(YearMonth.parse(row.getPeriod()));
+                }
+                current = Collections.unmodifiableList(loaded);
+                closedPeriods = current;
+            }
+            return current;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public YearMonth findLatestClosedOnOrBefore(LocalDate date) {
+        YearMonth found = null;
+        for (YearMonth ym : listClosedPeriods()) {
+            if (ym.atEndOfMonth().isAfter(date)) {
+                break;
+            }
+            found = ym;
+        }
+        return found;
+    }
+
+    @Override
+    public Map<Long, BigDecimal[]> getSnapshotTotals(YearMonth period, Long bookId) {
+        Map<Long, BigDecimal[]> result = new HashMap<>();
+        for (FinanceBalanceSnapshot row : snapshotMapper.sumByAccount(period.toString(), bookId)) {
+            BigDecimal debit = row.getDebitTotal() != null ? row.getDebitTotal() : BigDecimal.ZERO;
+            BigDecimal credit = row.getCreditTotal() != null ? row.getCreditTotal() : BigDecimal.ZERO;
+            result.put(row.getAccountId(), new BigDecimal[]{debit, credit});
+        }
+        return result;
+    }
+}
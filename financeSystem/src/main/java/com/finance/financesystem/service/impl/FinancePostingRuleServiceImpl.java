@@ -0,0 +1,17 @@
+package com.finance.financesystem.service.impl;
+
+import com.finance.financesystem.entity.FinancePostingRule;
+import com.finance.financesystem.mapper.FinancePostingRuleMapper;
+import com.finance.financesystem.service.IFinancePostingRuleService;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.stereotype.Service;
+
+/**
+ * <p>
+ * 过账规则表 服务实现类
+ * </p>
+ */
+@Service
+public class FinancePostingRuleServiceImpl extends ServiceImpl<FinancePostingRuleMapper, FinancePostingRule>
+        implements IFinancePostingRuleService {
+}
@@ -0,0 +1,504 @@
+package com.finance.financesystem.service.impl;
+
+import com.finance.financesystem.component.AccountCategory;
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.ChartOfAccounts;
+import com.finance.financesystem.component.ChartOfAccountsIndex;
+import com.finance.financesystem.component.LedgerColumnStore;
+import com.finance.financesystem.component.ReportCache;
+import com.finance.financesystem.entity.AccountTreeVO;
+import com.finance.financesystem.entity.CashFlowSumVO;
+import com.finance.financesystem.entity.FinanceAccount;
+import com.finance.financesystem.entity.SplitSumVO;
+import com.finance.financesystem.entity.StatementSumVO;
+import com.finance.financesystem.mapper.FinanceSplitMapper;
+import com.finance.financesystem.service.IFinanceAccountBalanceService;
+import com.finance.financesystem.service.IFinancePeriodService;
+import com.finance.financesystem.service.IFinanceReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * <p>
+ * 财务报表 服务实现类
+ * </p>
+ *
+ * 会计恒等式：资产 = 负债 + 所有者权益
+ * 所有者权益 = 实收资本 + 留存收益 + 本年利润
+ * 本年利润 = 收入 - 费用（自动计算）
+ *
+ * 数据来源：
+ * - 不带日期：直接读科目余额表
+ * - 带日期且列式账簿已就绪：在 {@link LedgerColumnStore} 的原始数组上顺序扫描
+ * - 列式账簿未就绪时回退到数据库聚合：只有截止日期时用最近一期结账快照 + 之后的分录增量，
+ *   其他情况 FinanceSplitMapper 按 account_id, dc_direction GROUP BY
+ *
+ * 汇总行按科目序号累加到 {@link CentsLedger} 的 long 数组 (单位：分)，
+ * 只有写入返回结果时才转换为 BigDecimal。
+ *
+ * 结果按 (报表, 账簿, 期间, 账簿版本号) 缓存，没有新过账时重复刷新直接命中。
+ */
+@Service
+public class FinanceReportServiceImpl implements IFinanceReportService {
+
+    @Autowired
+    private FinanceSplitMapper splitMapper;
+
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    @Autowired
+    private IFinanceAccountBalanceService balanceService;
+
+    @Autowired
+    private IFinancePeriodService periodService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private LedgerColumnStore ledgerStore;
+
+    // ==================== 1. 资产负债表 ====================
+
+    @Override
+    public Map<String, Object> getBalanceSheet(Long bookId, LocalDate asOf) {
+        return reportCache.getOrCompute("BALANCE_SHEET", bookId, String.valueOf(asOf),
+            () -> computeBalanceSheet(bookId, asOf));
+    }
+
+    private Map<String, Object> computeBalanceSheet(Long bookId, LocalDate asOf) {
+        ChartOfAccounts chart = chartIndex.get();
+        return buildBalanceSheet(loadLedger(chart, bookId, null, asOf));
+    }
+
+    /**
+     * 由截止日的科目借贷累计生成资产负债表
+     */
+    private Map<String, Object> buildBalanceSheet(CentsLedger cumulative) {
+        ChartOfAccounts chart = cumulative.getChart();
+        long[] balances = cumulative.balances();
+
+        // ★★★ 核心修复：先计算本年利润 ★★★
+        BigDecimal netProfit = CentsLedger.toAmount(calculateNetProfit(chart, balances));
+
+        // 构建资产树
+        AccountTreeVO assetTree = buildTreeByType("ASSET", chart, balances);
+
+        // 构建负债树
+        AccountTreeVO liabilityTree = buildTreeByType("LIABILITY", chart, balances);
+
+        // 构建权益树，并注入本年利润
+        AccountTreeVO equityTree = buildEquityTreeWithProfit(chart, balances, netProfit);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("asset", assetTree);
+        result.put("liability", liabilityTree);
+        result.put("equity", equityTree);
+
+        BigDecimal totalAsset = assetTree != null ? assetTree.getAmount() : BigDecimal.ZERO;
+        BigDecimal totalLiab = liabilityTree != null ? liabilityTree.getAmount() : BigDecimal.ZERO;
+        BigDecimal totalEquity = equityTree != null ? equityTree.getAmount() : BigDecimal.ZERO;
+
+        result.put("totalAsset", totalAsset);
+        result.put("totalLiabilityEquity", totalLiab.add(totalEquity));
+        result.put("netProfit", netProfit);  // 返回本年利润供前端显示
+
+        return result;
+    }
+
+    /**
+     * ★★★ 核心方法：计算本年利润 ★★★
+     *
+     * 本年利润 = 收入类科目余额 - 费用类科目余额 (单位：分)
+     */
+    private long calculateNetProfit(ChartOfAccounts chart, long[] balances) {
+        long totalIncome = 0;
+        long totalExpense = 0;
+
+        for (int i = 0; i < balances.length; i++) {
+            AccountCategory category = chart.getCategory(i);
+
+            // 收入类科目
+            if (category == AccountCategory.REVENUE) {
+                totalIncome = Math.addExact(totalIncome, balances[i]);
+            }
+            // 费用类科目
+            else if (category.isExpense()) {
+                totalExpense = Math.addExact(totalExpense, balances[i]);
+            }
+        }
+
+        // 本年利润 = 收入 - 费用
+        return Math.subtractExact(totalIncome, totalExpense);
+    }
+
+    /**
+     * 构建权益树，并将本年利润注入
+     */
+    private AccountTreeVO buildEquityTreeWithProfit(ChartOfAccounts chart,
+            long[] balances, BigDecimal netProfit) {
+
+        // 先构建基础权益树
+        AccountTreeVO equityTree = buildTreeByType("EQUITY", chart, balances);
+
+        if (equityTree == null) {
+            // 如果没有权益科目，创建一个虚拟的
+            equityTree = new AccountTreeVO();
+            equityTree.setId(0L);
+            equityTree.setName("所有者权益");
+            equityTree.setCode("3000");
+            equityTree.setType("EQUITY");
+            equityTree.setAmount(BigDecimal.ZERO);
+        }
+
+        // 查找「本年利润」科目并更新其金额
+        boolean foundProfitAccount = updateProfitInTree(chart, equityTree, netProfit);
+
+        // 如果没找到本年利润科目，添加一个
+        if (!foundProfitAccount && netProfit.compareTo(BigDecimal.ZERO) != 0) {
+            AccountTreeVO profitNode = new AccountTreeVO();
+            profitNode.setId(-1L);  // 虚拟ID
+            profitNode.setName("本年利润（自动计算）");
+            profitNode.setCode("3103");
+            profitNode.setType("EQUITY");
+            profitNode.setAmount(netProfit);
+            equityTree.getChildren().add(profitNode);
+        }
+
+        // 重新计算权益总额
+        recalculateTreeAmount(equityTree);
+
+        return equityTree;
+    }
+
+    /**
+     * 在树中查找本年利润科目并更新金额
+     */
+    private boolean updateProfitInTree(ChartOfAccounts chart, AccountTreeVO node, BigDecimal netProfit) {
+        if (node == null) return false;
+
+        // 找到本年利润科目
+        if (chart.getCategory(node.getId()) == AccountCategory.PROFIT_CARRY_FORWARD) {
+            node.setAmount(netProfit);
+            node.setName("本年利润");  // 统一名称
+            return true;
+        }
+
+        // 递归查找子节点
+        for (AccountTreeVO child : node.getChildren()) {
+            if (updateProfitInTree(chart, child, netProfit)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * 重新计算树节点金额（从叶子向上汇总）
+     */
+    private BigDecimal recalculateTreeAmount(AccountTreeVO node) {
+        if (node == null) return BigDecimal.ZERO;
+
+        if (node.getChildren().isEmpty()) {
+            // 叶子节点，直接返回金额
+            return node.getAmount() != null ? node.getAmount() : BigDecimal.ZERO;
+        }
+
+        // 有子节点，金额 = 子节点之和
+        BigDecimal sum = BigDecimal.ZERO;
+        for (AccountTreeVO child : node.getChildren()) {
+            sum = sum.add(recalculateTreeAmount(child));
+        }
+        node.setAmount(sum);
+        return sum;
+    }
+
+    // ==================== 2. 利润表 ====================
+
+    @Override
+    public Map<String, Object> getIncomeStatement(Long bookId, LocalDate from, LocalDate to) {
+        return reportCache.getOrCompute("INCOME", bookId, from + "~" + to,
+            () -> computeIncomeStatement(bookId, from, to));
+    }
+
+    private Map<String, Object> computeIncomeStatement(Long bookId, LocalDate from, LocalDate to) {
+        return buildIncomeStatement(loadLedger(chartIndex.get(), bookId, from, to));
+    }
+
+    /**
+     * 由期间内的科目借贷发生额生成利润表
+     */
+    private Map<String, Object> buildIncomeStatement(CentsLedger period) {
+        Map<String, Object> result = new HashMap<>();
+        ChartOfAccounts chart = period.getChart();
+
+        long totalIncome = 0;
+        long totalCost = 0;
+        long totalExpense = 0;
+        long totalFinanceExp = 0;
+
+        for (int i = 0; i < chart.size(); i++) {
+            long debit = period.debitCents(i);
+            long credit = period.creditCents(i);
+
+            switch (chart.getCategory(i)) {
+                // 收入类：贷方增加收入，借方冲减
+                case REVENUE -> totalIncome = Math.addExact(totalIncome, Math.subtractExact(credit, debit));
+                // 费用/成本类：只统计借方发生额
+                case COST -> totalCost = Math.addExact(totalCost, debit);
+                case FINANCE_EXPENSE -> totalFinanceExp = Math.addExact(totalFinanceExp, debit);
+                case OPERATING_EXPENSE -> totalExpense = Math.addExact(totalExpense, debit);
+                default -> { }
+            }
+        }
+
+        long grossProfit = Math.subtractExact(totalIncome, totalCost);
+        long operatingProfit = Math.subtractExact(Math.subtractExact(grossProfit, totalExpense), totalFinanceExp);
+        long netProfit = operatingProfit;
+
+        result.put("revenue", CentsLedger.toAmount(totalIncome));
+        result.put("cost", CentsLedger.toAmount(totalCost));
+        result.put("grossProfit", CentsLedger.toAmount(grossProfit));
+        result.put("expense", CentsLedger.toAmount(totalExpense));
+        result.put("financeExpense", CentsLedger.toAmount(totalFinanceExp));
+        result.put("operatingProfit", CentsLedger.toAmount(operatingProfit));
+        result.put("netProfit", CentsLedger.toAmount(netProfit));
+
+        return result;
+    }
+
+    // ==================== 3. 现金流量表 ====================
+
+    @Override
+    public Map<String, Object> getCashflowStatement(Long bookId, LocalDate from, LocalDate to) {
+        return reportCache.getOrCompute("CASHFLOW", bookId, from + "~" + to,
+            () -> computeCashflowStatement(bookId, from, to));
+    }
+
+    private Map<String, Object> computeCashflowStatement(Long bookId, LocalDate from, LocalDate to) {
+        ChartOfAccounts chart = chartIndex.get();
+        long[] cashByCategory = new long[LedgerColumnStore.CASH_FLOW_CATEGORIES.length];
+        if (ledgerStore.sumStatements(chart, bookId, from, to, null, null, cashByCategory)) {
+            return buildCashflowStatement(toCategoryMap(cashByCategory));
+        }
+
+        Set<Long> cashAccountIds = findCashAccountIds(chart);
+        Map<String, BigDecimal> byCategory = new HashMap<>();
+        if (!cashAccountIds.isEmpty()) {
+            for (CashFlowSumVO row : splitMapper.sumPostedCashFlow(cashAccountIds, bookId, from, to)) {
+                byCategory.put(row.getCategory(), row.getAmount() != null ? row.getAmount() : BigDecimal.ZERO);
+            }
+        }
+        return buildCashflowStatement(byCategory);
+    }
+
+    /**
+     * 现金科目ID集合
+     */
+    private Set<Long> findCashAccountIds(ChartOfAccounts chart) {
+        Set<Long> cashAccountIds = new HashSet<>();
+        for (FinanceAccount a : chart.getAccounts()) {
+            if (chart.getCategory(a.getAccountId()) == AccountCategory.CASH) {
+                cashAccountIds.add(a.getAccountId());
+            }
+        }
+        return cashAccountIds;
+    }
+
+    /**
+     * 由现金流类别汇总生成现金流量表
+     */
+    private Map<String, Object> buildCashflowStatement(Map<String, BigDecimal> byCategory) {
+        Map<String, Object> result = new HashMap<>();
+
+        BigDecimal salesCashIn = byCategory.getOrDefault("SALES_IN", BigDecimal.ZERO);
+        BigDecimal purchaseCashOut = byCategory.getOrDefault("PURCHASE_OUT", BigDecimal.ZERO);
+        BigDecimal salaryCashOut = byCategory.getOrDefault("SALARY_OUT", BigDecimal.ZERO);
+        BigDecimal otherCashIn = byCategory.getOrDefault("OTHER_IN", BigDecimal.ZERO);
+        BigDecimal otherCashOut = byCategory.getOrDefault("OTHER_OUT", BigDecimal.ZERO);
+
+        BigDecimal operatingCashNet = salesCashIn.subtract(purchaseCashOut)
+            .subtract(salaryCashOut).add(otherCashIn).subtract(otherCashOut);
+
+        result.put("salesCashIn", salesCashIn);
+        result.put("purchaseCashOut", purchaseCashOut);
+        result.put("salaryCashOut", salaryCashOut);
+        result.put("otherCashIn", otherCashIn);
+        result.put("otherCashOut", otherCashOut);
+        result.put("operatingCashNet", operatingCashNet);
+        result.put("investingCashNet", BigDecimal.ZERO);
+        result.put("financingCashNet", BigDecimal.ZERO);
+        result.put("totalCashChange", operatingCashNet);
+
+        return result;
+    }
+
+    // ==================== 4. 三大报表合并 ====================
+
+    @Override
+    public Map<String, Object> getStatements(Long bookId, LocalDate from, LocalDate to) {
+        return reportCache.getOrCompute("STATEMENTS", bookId, from + "~" + to,
+            () -> computeStatements(bookId, from, to));
+    }
+
+    /**
+     * 一次扫描已过账分录同时得到：
+     * - 截至 to 的科目累计 (资产负债表)
+     * - from ~ to 的科目发生额 (利润表)
+     * - 现金科目按类别的发生额 (现金流量表)
+     */
+    private Map<String, Object> computeStatements(Long bookId, LocalDate from, LocalDate to) {
+        ChartOfAccounts chart = chartIndex.get();
+        CentsLedger cumulative = new CentsLedger(chart);
+        CentsLedger periodLedger = new CentsLedger(chart);
+
+        long[] cashByCategory = new long[LedgerColumnStore.CASH_FLOW_CATEGORIES.length];
+        if (ledgerStore.sumStatements(chart, bookId, from, to, cumulative, periodLedger, cashByCategory)) {
+            return buildStatements(cumulative, periodLedger, toCategoryMap(cashByCategory));
+        }
+
+        Set<Long> cashAccountIds = findCashAccountIds(chart);
+        Map<String, BigDecimal> byCategory = new HashMap<>();
+
+        for (StatementSumVO row : splitMapper.sumPostedStatements(cashAccountIds, bookId, from, to)) {
+            BigDecimal period = row.getPeriodAmount() != null ? row.getPeriodAmount() : BigDecimal.ZERO;
+            cumulative.add(row.getAccountId(), row.getDcDirection(), row.getCumulativeAmount());
+            periodLedger.add(row.getAccountId(), row.getDcDirection(), period);
+
+            if (row.getCategory() != null) {
+                byCategory.merge(row.getCategory(), period, BigDecimal::add);
+            }
+        }
+
+        return buildStatements(cumulative, periodLedger, byCategory);
+    }
+
+    private Map<String, Object> buildStatements(CentsLedger cumulative, CentsLedger periodLedger,
+            Map<String, BigDecimal> byCategory) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("balanceSheet", buildBalanceSheet(cumulative));
+        result.put("income", buildIncomeStatement(periodLedger));
+        result.put("cashflow", buildCashflowStatement(byCategory));
+        return result;
+    }
+
+    /**
+     * 列存按类别累加的现金流 (分) 转为 类别 -> 金额
+     */
+    private Map<String, BigDecimal> toCategoryMap(long[] cashByCategory) {
+        Map<String, BigDecimal> byCategory = new HashMap<>();
+        for (int i = 0; i < cashByCategory.length; i++) {
+            byCategory.put(LedgerColumnStore.CASH_FLOW_CATEGORIES[i], CentsLedger.toAmount(cashByCategory[i]));
+        }
+        return byCategory;
+    }
+
+    // ==================== 辅助方法 ====================
+
+    /**
+     * 读取各科目借贷累计
+     *
+     * 不带日期时读科目余额表；
+     * 带日期时优先扫描列式账簿；
+     * 列存未就绪时，只有截止日期用「最近一期结账快照 + 快照之后的分录」，
+     * 其余情况在数据库端按 科目 + 借贷方向 聚合
+     */
+    private CentsLedger loadLedger(ChartOfAccounts chart, Long bookId, LocalDate from, LocalDate to) {
+        CentsLedger ledger = new CentsLedger(chart);
+        if (from == null && to == null) {
+            ledger.addTotals(balanceService.getDebitCreditTotals(bookId));
+            return ledger;
+        }
+        CentsLedger scanned = ledgerStore.sumByAccount(chart, bookId, from, to);
+        if (scanned != null) {
+            return scanned;
+        }
+        if (from == null) {
+            YearMonth snapshot = periodService.findLatestClosedOnOrBefore(to);
+            if (snapshot != null) {
+                ledger.addTotals(periodService.getSnapshotTotals(snapshot, bookId));
+                LocalDate deltaFrom = snapshot.atEndOfMonth().plusDays(1);
+                if (!deltaFrom.isAfter(to)) {
+                    addSplitSums(ledger, splitMapper.sumPostedByAccount(bookId, deltaFrom, to));
+                }
+                return ledger;
+            }
+        }
+        addSplitSums(ledger, splitMapper.sumPostedByAccount(bookId, from, to));
+        return ledger;
+    }
+
+    /**
+     * 把 科目 + 借贷方向 的聚合行累加到分位累加器
+     */
+    private void addSplitSums(CentsLedger ledger, List<SplitSumVO> rows) {
+        for (SplitSumVO row : rows) {
+            ledger.add(row.getAccountId(), row.getDcDirection(), row.getAmount());
+        }
+    }
+
+    /**
+     * 按科目类型构建树
+     */
+    private AccountTreeVO buildTreeByType(String accountType, ChartOfAccounts chart, long[] balances) {
+
+        List<FinanceAccount> roots = chart.getRoots(accountType);
+
+        if (roots.isEmpty()) {
+            AccountTreeVO virtualRoot = new AccountTreeVO();
+            virtualRoot.setId(0L);
+            virtualRoot.setName(getTypeName(accountType));
+            virtualRoot.setCode("");
+            virtualRoot.setType(accountType);
+            virtualRoot.setAmount(BigDecimal.ZERO);
+
+            for (FinanceAccount acc : chart.getByType(accountType)) {
+                AccountTreeVO child = chart.buildTree(acc.getAccountId(), balances);
+                if (child != null) {
+                    virtualRoot.getChildren().add(child);
+                    virtualRoot.setAmount(virtualRoot.getAmount().add(child.getAmount()));
+                }
+            }
+
+            return virtualRoot;
+        }
+
+        if (roots.size() > 1) {
+            AccountTreeVO virtualRoot = new AccountTreeVO();
+            virtualRoot.setId(0L);
+            virtualRoot.setName(getTypeName(accountType));
+            virtualRoot.setCode("");
+            virtualRoot.setType(accountType);
+            virtualRoot.setAmount(BigDecimal.ZERO);
+
+            for (FinanceAccount root : roots) {
+                AccountTreeVO child = chart.buildTree(root.getAccountId(), balances);
+                if (child != null) {
+                    virtualRoot.getChildren().add(child);
+                    virtualRoot.setAmount(virtualRoot.getAmount().add(child.getAmount()));
+                }
+            }
+            return virtualRoot;
+        }
+
+        return chart.buildTree(roots.get(0).getAccountId(), balances);
+    }
+
+    private String getTypeName(String type) {
+        switch (type) {
+            case "ASSET": return "资产";
+            case "LIABILITY": return "负债";
+            case "EQUITY": return "所有者权益";
+            case "INCOME": return "收入";
+            case "EXPENSE": return "费用";
+            default: return type;
+        }
+    }
+}
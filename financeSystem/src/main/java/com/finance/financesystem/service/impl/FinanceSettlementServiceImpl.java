@@ -0,0 +1,529 @@
+package com.finance.financesystem.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.OpenItemMatcher;
+import com.finance.financesystem.component.PostingPlan;
+import com.finance.financesystem.component.PostingRules;
+import com.finance.financesystem.component.PostingVar;
+import com.finance.financesystem.entity.FinancePayment;
+import com.finance.financesystem.entity.FinanceSettlement;
+import com.finance.financesystem.entity.Invoice;
+import com.finance.financesystem.entity.OpenItemVO;
+import com.finance.financesystem.entity.PaymentDTO;
+import com.finance.financesystem.entity.SettlementResultVO;
+import com.finance.financesystem.entity.SettlementSummaryVO;
+import com.finance.financesystem.entity.VoucherImportDTO;
+import com.finance.financesystem.entity.VoucherImportResultVO;
+import com.finance.financesystem.mapper.FinancePaymentMapper;
+import com.finance.financesystem.mapper.FinanceSettlementMapper;
+import com.finance.financesystem.mapper.InvoiceMapper;
+import com.finance.financesystem.service.IFinanceSettlementService;
+import com.finance.financesystem.service.IFinanceTransactionService;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.PostConstruct;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * <p>
+ * 核销记录表 服务实现类
+ * </p>
+ *
+ * 核销任务：
+ * 1. 校验收付款，按流水号排除已入账的 (提前拒绝，真正的防重见第 4 步的 finance_payment)
+ * 2. 顺序扫描一次未结发票，只留下本批涉及的客户，在 {@link OpenItemMatcher} 里建哈希索引
+ * 3. 收付款按日期排序后逐笔在内存里匹配，不访问数据库
+ * 4. 按客户切块 (一张发票只属于一个客户，块之间不会争同一张发票)，每块一个事务：
+ *    锁定发票并确认加载后没有被改过 → 批量写入收付款凭证 → 按流水号写入 finance_payment →
+ *    批量写入核销记录 → 一条 UPDATE 更新发票
+ *
+ * 每笔款都按全额入账：核销到发票的部分冲应收 / 应付，没匹配上的余额 (过账变量 UNAPPLIED)
+ * 按过账规则转入预收 / 预付。finance_payment 以流水号为主键，同一笔款被并发或超时重试提交时，
+ * 后到的块插入冲突、整块回滚，凭证不会重复入账。
+ */
+@Service
+public class FinanceSettlementServiceImpl extends ServiceImpl<FinanceSettlementMapper, FinanceSettlement>
+        implements IFinanceSettlementService {
+
+    private static final int MAX_REPORTED_EXCEPTIONS = 1000;
+
+    /** 按流水号查重时每条 IN 的个数 */
+    private static final int REF_QUERY_SIZE = 1000;
+
+    @Autowired
+    private InvoiceMapper invoiceMapper;
+
+    @Autowired
+    private FinancePaymentMapper paymentMapper;
+
+    @Autowired
+    private IFinanceTransactionService transactionService;
+
+    @Autowired
+    private PostingRules postingRules;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** 每块 (每个事务) 的收付款笔数，同一客户的款不拆开，实际块大小可能略大 */
+    @Value("${finance.settlement.chunk-size:1000}")
+    private int chunkSize;
+
+    /** 同时写库的块数 */
+    @Value("${finance.settlement.parallelism:4}")
+    private int parallelism;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * 一笔待核销的收付款
+     */
+    private static final class Pending {
+        final PaymentDTO payment;
+        final String invoiceType;
+        final LocalDate date;
+        final long cents;
+        final SettlementResultVO result;
+        final List<OpenItemMatcher.Allocation> allocations = new ArrayList<>(1);
+        long unappliedCents;
+
+        Pending(PaymentDTO payment, String invoiceType, long cents, SettlementResultVO result) {
+            this.payment = payment;
+            this.invoiceType = invoiceType;
+            this.date = payment.getPaymentDate() != null ? payment.getPaymentDate() : LocalDate.now();
+            this.cents = cents;
+            this.result = result;
+        }
+
+        long appliedCents() {
+            return cents - unappliedCents;
+        }
+    }
+
+    @Override
+    public SettlementSummaryVO settle(List<PaymentDTO> payments, Long bookId) {
+        long start = System.currentTimeMillis();
+        List<SettlementResultVO> results = new ArrayList<>(payments.size());
+        List<Pending> pending = new ArrayList<>(payments.size());
+
+        Set<String> settledRefs = findSettledRefs(payments);
+        Set<String> batchRefs = new HashSet<>();
+        for (PaymentDTO p : payments) {
+            SettlementResultVO r = new SettlementResultVO();
+            r.setPaymentRef(p.getPaymentRef());
+            r.setApplied(BigDecimal.ZERO);
+            r.setUnapplied(p.getAmount() != null ? p.getAmount() : BigDecimal.ZERO);
+            results.add(r);
+
+            String error = validate(p);
+            if (error == null && settledRefs.contains(p.getPaymentRef())) {
+                error = "流水号已入账";
+            }
+            if (error == null && !batchRefs.add(p.getPaymentRef())) {
+                error = "流水号在本批中重复";
+            }
+            if (error != null) {
+                r.setMessage(error);
+                continue;
+            }
+            String invoiceType = "RECEIVE".equals(p.getDirection()) ? "SALE" : "PURCHASE";
+            pending.add(new Pending(p, invoiceType, CentsLedger.toCents(p.getAmount()), r));
+        }
+
+        Set<OpenItemMatcher.OpenItem> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (!pending.isEmpty()) {
+            OpenItemMatcher matcher = loadOpenItems(pending);
+            // 稳定排序，同一天的款保持提交顺序
+            pending.sort(Comparator.comparing((Pending pd) -> pd.date));
+            for (Pending pd : pending) {
+                PaymentDTO p = pd.payment;
+                pd.unappliedCents = matcher.match(p.getCustomerId(), pd.invoiceType,
+                    p.getInvoiceId(), p.getInvoiceCode(), pd.cents, pd.allocations);
+            }
+            settleChunks(chunkByCustomer(pending), bookId);
+            for (Pending pd : pending) {
+                if (pd.result.isSuccess()) {
+                    for (OpenItemMatcher.Allocation a : pd.allocations) {
+                        touched.add(a.item());
+                    }
+                }
+            }
+        }
+
+        SettlementSummaryVO summary = new SettlementSummaryVO();
+        summary.setPayments(payments.size());
+        BigDecimal applied = BigDecimal.ZERO;
+        BigDecimal unapplied = BigDecimal.ZERO;
+        for (SettlementResultVO r : results) {
+            applied = applied.add(r.getApplied());
+            unapplied = unapplied.add(r.getUnapplied());
+            if (!r.isSuccess()) {
+                summary.setFailed(summary.getFailed() + 1);
+            } else if (r.getApplied().signum() == 0) {
+                summary.setUnmatched(summary.getUnmatched() + 1);
+            } else if (r.getUnapplied().signum() > 0) {
+                summary.setPartlyApplied(summary.getPartlyApplied() + 1);
+            } else {
+                summary.setFullyApplied(summary.getFullyApplied() + 1);
+                continue;
+            }
+            if (summary.getExceptions().size() < MAX_REPORTED_EXCEPTIONS) {
+                summary.getExceptions().add(r);
+            }
+        }
+        for (OpenItemMatcher.OpenItem item : touched) {
+            if (item.getOutstandingCents() == 0) {
+                summary.setInvoicesPaid(summary.getInvoicesPaid() + 1);
+            } else {
+                summary.setInvoicesPartlyPaid(summary.getInvoicesPartlyPaid() + 1);
+            }
+        }
+        summary.setAppliedAmount(applied);
+        summary.setUnappliedAmount(unapplied);
+        summary.setElapsedMillis(System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    private String validate(PaymentDTO p) {
+        if (p.getPaymentRef() == null || p.getPaymentRef().isBlank()) {
+            return "缺少流水号";
+        }
+        if (!"RECEIVE".equals(p.getDirection()) && !"PAY".equals(p.getDirection())) {
+            return "收付方向只能是 RECEIVE 或 PAY";
+        }
+        if (p.getCustomerId() == null) {
+            return "缺少客户/供应商";
+        }
+        if (p.getAmount() == null || p.getAmount().signum() <= 0) {
+            return "金额必须大于0";
+        }
+        try {
+            CentsLedger.toCents(p.getAmount());
+        } catch (ArithmeticException e) {
+            return "金额最多两位小数";
+        }
+        if (postingRules.get(p.getDirection()) == null) {
+            return "没有 " + p.getDirection() + " 类单据的过账规则";
+        }
+        return null;
+    }
+
+    private Set<String> findSettledRefs(List<PaymentDTO> payments) {
+        List<String> refs = payments.stream()
+            .map(PaymentDTO::getPaymentRef)
+            .filter(ref -> ref != null && !ref.isBlank())
+            .distinct()
+            .toList();
+        Set<String> settled = new HashSet<>();
+        for (int from = 0; from < refs.size(); from += REF_QUERY_SIZE) {
+            List<String> slice = refs.subList(from, Math.min(from + REF_QUERY_SIZE, refs.size()));
+            settled.addAll(paymentMapper.selectObjs(new QueryWrapper<FinancePayment>()
+                    .select("payment_ref")
+                    .in("payment_ref", slice))
+                .stream().map(Object::toString).toList());
+        }
+        return settled;
+    }
+
+    /**
+     * 逐行读入本批客户的未结发票
+     */
+    private OpenItemMatcher loadOpenItems(List<Pending> pending) {
+        Map<String, Set<Long>> customersByType = new HashMap<>();
+        for (Pending pd : pending) {
+            customersByType.computeIfAbsent(pd.invoiceType, k -> new HashSet<>()).add(pd.payment.getCustomerId());
+        }
+        OpenItemMatcher matcher = new OpenItemMatcher();
+        readOnly.executeWithoutResult(status -> customersByType.forEach((type, customers) -> {
+            try (Cursor<OpenItemVO> cursor = invoiceMapper.selectOpenItems(type)) {
+                for (OpenItemVO item : cursor) {
+                    if (customers.contains(item.customerId())) {
+                        matcher.add(item);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        matcher.seal();
+        return matcher;
+    }
+
+    /**
+     * 同一客户的款放在同一块里，保持日期顺序
+     */
+    private List<List<Pending>> chunkByCustomer(List<Pending> pending) {
+        Map<Long, List<Pending>> byCustomer = new LinkedHashMap<>();
+        for (Pending pd : pending) {
+            byCustomer.computeIfAbsent(pd.payment.getCustomerId(), k -> new ArrayList<>()).add(pd);
+        }
+        List<List<Pending>> chunks = new ArrayList<>();
+        List<Pending> chunk = new ArrayList<>();
+        for (List<Pending> customerPayments : byCustomer.values()) {
+            chunk.addAll(customerPayments);
+            if (chunk.size() >= chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private void settleChunks(List<List<Pending>> chunks, Long bookId) {
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(chunks.size());
+            for (List<Pending> chunk : chunks) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        settleChunk(chunk, bookId);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("核销被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("核销失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 一块一个事务；失败时整块回滚，块内的款都记为失败
+     */
+    private void settleChunk(List<Pending> chunk, Long bookId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> settleChunkInTransaction(chunk, bookId));
+        } catch (Exception e) {
+            for (Pending pd : chunk) {
+                SettlementResultVO r = pd.result;
+                r.setSuccess(false);
+                r.setTransactionId(null);
+                r.setApplied(BigDecimal.ZERO);
+                r.setUnapplied(CentsLedger.toAmount(pd.cents));
+                r.getAllocations().clear();
+                r.setMessage("核销失败: " + e.getMessage());
+            }
+            return;
+        }
+        for (Pending pd : chunk) {
+            SettlementResultVO r = pd.result;
+            r.setSuccess(true);
+            r.setApplied(CentsLedger.toAmount(pd.appliedCents()));
+            r.setUnapplied(CentsLedger.toAmount(pd.unappliedCents));
+            for (OpenItemMatcher.Allocation a : pd.allocations) {
+                r.getAllocations().add(new SettlementResultVO.Allocation(
+                    a.item().invoiceId, a.item().invoiceCode, CentsLedger.toAmount(a.cents())));
+            }
+            if (pd.allocations.isEmpty()) {
+                r.setMessage("没有可核销的未结发票，全额转入" + advanceName(pd));
+            } else if (pd.unappliedCents > 0) {
+                r.setMessage("余额 " + r.getUnapplied() + " 未匹配到发票，转入" + advanceName(pd));
+            }
+        }
+    }
+
+    private void settleChunkInTransaction(List<Pending> chunk, Long bookId) {
+        Map<Long, OpenItemMatcher.OpenItem> items = new HashMap<>();
+        for (Pending pd : chunk) {
+            for (OpenItemMatcher.Allocation a : pd.allocations) {
+                items.put(a.item().invoiceId, a.item());
+            }
+        }
+
+        // 匹配用的是加载时的快照，写入前确认发票没有被其他核销或操作改过
+        if (!items.isEmpty()) {
+            List<Invoice> locked = invoiceMapper.lockForSettlement(items.keySet());
+            if (locked.size() != items.size()) {
+                throw new IllegalStateException("部分发票已被删除，请重新提交");
+            }
+            for (Invoice invoice : locked) {
+                OpenItemMatcher.OpenItem item = items.get(invoice.getInvoiceId());
+                if (!"POSTED".equals(invoice.getStatus())
+                        || CentsLedger.toCents(invoice.getPaidAmount()) != item.loadedPaidCents) {
+                    throw new IllegalStateException("发票 " + label(item) + " 已被其他操作核销或变更，请重新提交");
+                }
+            }
+        }
+
+        List<VoucherImportDTO> vouchers = new ArrayList<>(chunk.size());
+        for (Pending pd : chunk) {
+            vouchers.add(toVoucher(pd, bookId));
+        }
+        List<VoucherImportResultVO> imported = transactionService.importVouchersInTransaction(vouchers, 0);
+        for (VoucherImportResultVO r : imported) {
+            Pending pd = chunk.get(r.getIndex());
+            if (!r.isSuccess()) {
+                throw new IllegalStateException("流水 " + pd.payment.getPaymentRef() + " 生成凭证失败: " + r.getMessage());
+            }
+            pd.result.setTransactionId(r.getTransactionId());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FinancePayment> payments = new ArrayList<>(chunk.size());
+        for (Pending pd : chunk) {
+            payments.add(payment(pd, now));
+        }
+        try {
+            paymentMapper.insertBatch(payments);
+        } catch (DuplicateKeyException e) {
+            // 另一个请求已提交 (或正在提交) 同一流水号，本块凭证随事务回滚
+            throw new IllegalStateException("块内有流水号已被其他请求入账，请重新提交", e);
+        }
+
+        if (items.isEmpty()) {
+            return;
+        }
+        List<FinanceSettlement> settlements = new ArrayList<>();
+        for (Pending pd : chunk) {
+            for (OpenItemMatcher.Allocation a : pd.allocations) {
+                settlements.add(settlement(pd, a.item().invoiceId, a.cents(), now));
+            }
+        }
+        saveBatch(settlements);
+
+        List<Invoice> updates = new ArrayList<>(items.size());
+        for (OpenItemMatcher.OpenItem item : items.values()) {
+            Invoice invoice = new Invoice();
+            invoice.setInvoiceId(item.invoiceId);
+            invoice.setPaidAmount(CentsLedger.toAmount(item.getPaidCents()));
+            invoice.setStatus(item.getOutstandingCents() == 0 ? "PAID" : "POSTED");
+            updates.add(invoice);
+        }
+        invoiceMapper.applySettlements(updates);
+    }
+
+    private static FinancePayment payment(Pending pd, LocalDateTime now) {
+        FinancePayment p = new FinancePayment();
+        p.setPaymentRef(pd.payment.getPaymentRef());
+        p.setDirection(pd.payment.getDirection());
+        p.setCustomerId(pd.payment.getCustomerId());
+        p.setAmount(CentsLedger.toAmount(pd.cents));
+        p.setAppliedAmount(CentsLedger.toAmount(pd.appliedCents()));
+        p.setUnappliedAmount(CentsLedger.toAmount(pd.unappliedCents));
+        p.setTransactionId(pd.result.getTransactionId());
+        p.setPaymentDate(pd.date);
+        p.setCreateTime(now);
+        return p;
+    }
+
+    private static FinanceSettlement settlement(Pending pd, Long invoiceId, long cents, LocalDateTime now) {
+        FinanceSettlement s = new FinanceSettlement();
+        s.setPaymentRef(pd.payment.getPaymentRef());
+        s.setDirection(pd.payment.getDirection());
+        s.setInvoiceId(invoiceId);
+        s.setTransactionId(pd.result.getTransactionId());
+        s.setAmount(CentsLedger.toAmount(cents));
+        s.setSettleDate(pd.date);
+        s.setCreateTime(now);
+        return s;
+    }
+
+    /**
+     * 按 RECEIVE / PAY 过账规则生成收付款凭证，TOTAL 为核销金额，UNAPPLIED 为转入预收 / 预付的余额
+     */
+    private VoucherImportDTO toVoucher(Pending pd, Long bookId) {
+        PaymentDTO p = pd.payment;
+        long[] header = PostingVar.vector();
+        header[PostingVar.TOTAL.ordinal()] = pd.appliedCents();
+        header[PostingVar.UNAPPLIED.ordinal()] = pd.unappliedCents;
+        StringBuilder description = new StringBuilder("RECEIVE".equals(p.getDirection()) ? "收款 " : "付款 ")
+            .append(p.getPaymentRef());
+        if (pd.allocations.size() == 1) {
+            description.append(" 核销发票 ").append(label(pd.allocations.get(0).item()));
+        } else if (pd.allocations.size() > 1) {
+            description.append(" 核销 ").append(pd.allocations.size()).append(" 张发票");
+        }
+        if (pd.unappliedCents > 0) {
+            description.append(pd.allocations.isEmpty() ? " 转入" : "，余额转入").append(advanceName(pd));
+        }
+
+        List<VoucherImportDTO.SplitImportDTO> splits = new ArrayList<>();
+        PostingPlan plan = postingRules.get(p.getDirection());
+        String error = plan == null ? "没有 " + p.getDirection() + " 类单据的过账规则"
+            : plan.apply(header, description.toString(), List.of(), (accountId, dc, cents, summary) -> {
+                VoucherImportDTO.SplitImportDTO s = new VoucherImportDTO.SplitImportDTO();
+                s.setAccountId(accountId);
+                s.setDcDirection(dc);
+                s.setAmount(CentsLedger.toAmount(cents));
+                s.setSummary(summary);
+                splits.add(s);
+            });
+        if (error != null) {
+            throw new IllegalStateException("流水 " + p.getPaymentRef() + ": " + error);
+        }
+        // 规则里没有 UNAPPLIED 的分录时余额不会入账，整块拒绝而不是少记
+        long debitCents = 0;
+        for (VoucherImportDTO.SplitImportDTO s : splits) {
+            if (s.getDcDirection() == 1) {
+                debitCents += CentsLedger.toCents(s.getAmount());
+            }
+        }
+        if (debitCents != pd.cents) {
+            throw new IllegalStateException("流水 " + p.getPaymentRef() + ": " + p.getDirection()
+                + " 过账规则未按全额入账，请为 UNAPPLIED 配置预收 / 预付科目");
+        }
+
+        VoucherImportDTO voucher = new VoucherImportDTO();
+        voucher.setBookId(bookId);
+        voucher.setVoucherDate(pd.date);
+        voucher.setDescription(description.toString());
+        voucher.setStatus("POSTED");
+        voucher.setSplits(splits);
+        return voucher;
+    }
+
+    private static String advanceName(Pending pd) {
+        return "RECEIVE".equals(pd.payment.getDirection()) ? "预收账款" : "预付账款";
+    }
+
+    private static String label(OpenItemMatcher.OpenItem item) {
+        return item.invoiceCode != null ? item.invoiceCode : "#" + item.invoiceId;
+    }
+}
@@ -1,9 +1,11 @@
 package com.finance.financesystem.service.impl;
 
 import com.finance.financesystem.entity.FinanceSplit;
+import com.finance.financesystem.entity.SplitRowVO;
 import com.finance.financesystem.mapper.FinanceSplitMapper;
 import com.finance.financesystem.service.IFinanceSplitService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
 
 /**
@@ -17,4 +19,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class FinanceSplitServiceImpl extends ServiceImpl<FinanceSplitMapper, FinanceSplit> implements IFinanceSplitService {
 
+    @Override
+    public Cursor<SplitRowVO> openSplitRows(Long transactionId, Long accountId) {
+        return baseMapper.selectSplitRows(transactionId, accountId);
+    }
 }
@@ -1,22 +1,40 @@
 package com.finance.financesystem.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.LedgerColumnStore;
+import com.finance.financesystem.component.LedgerVersion;
+import com.finance.financesystem.component.PostingPlan;
+import com.finance.financesystem.component.PostingRules;
+import com.finance.financesystem.component.SegmentIdAllocator;
+import com.finance.financesystem.component.VoucherValidator;
 import com.finance.financesystem.entity.*;
 import com.finance.financesystem.mapper.FinanceSplitMapper;
 import com.finance.financesystem.mapper.FinanceTransactionMapper;
-import com.finance.financesystem.service.IFinanceAccountService;
+import com.finance.financesystem.service.IFinanceAccountBalanceService;
+import com.finance.financesystem.service.IFinancePeriodService;
+import com.finance.financesystem.service.IFinanceSplitService;
 import com.finance.financesystem.service.IFinanceTransactionService;
-import com.finance.financesystem.service.IInvoiceService; // 假设你有这个
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class FinanceTransactionServiceImpl extends ServiceImpl<FinanceTransactionMapper, FinanceTransaction> implements IFinanceTransactionService {
@@ -24,131 +42,348 @@ public class FinanceTransactionServiceImpl extends ServiceImpl<FinanceTransactio
     @Autowired
     private FinanceSplitMapper splitMapper;
     @Autowired
-    private IFinanceAccountService accountService;
-    // 假设你有 InvoiceService 用来获取单据详情，如果没有，请注入 Mapper
-    // @Autowired private IInvoiceService invoiceService; 
+    private PostingRules postingRules;
+    @Autowired
+    private IFinanceAccountBalanceService balanceService;
+    @Autowired
+    private IFinancePeriodService periodService;
+    @Autowired
+    private LedgerVersion ledgerVersion;
+    @Autowired
+    private LedgerColumnStore ledgerStore;
+    @Autowired
+    private IFinanceSplitService splitService;
+    @Autowired
+    private VoucherValidator voucherValidator;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SegmentIdAllocator idAllocator;
+
+    /** 批量导入时每个事务写入的凭证数 */
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    /** 过账时每个事务处理的凭证数 */
+    private static final int POSTING_CHUNK_SIZE = 1000;
+
+    // ================= 凭证保存 / 过账 =================
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void saveVoucher(FinanceTransaction tx, List<FinanceSplit> splits) {
+        // 已结账期间不接受已过账凭证 (草稿可以保存，过账时再校验)
+        if (isPosted(tx.getStatus())) {
+            periodService.checkOpen(tx.getVoucherDate());
+        }
+        // 主键和凭证号在插入前分配，分录不必等主表回填ID，一次批量插入
+        assignVoucherNo(tx);
+        this.save(tx);
+        for (FinanceSplit split : splits) {
+            split.setTransactionId(tx.getTransactionId());
+        }
+        splitService.saveBatch(splits);
+        // 已过账凭证：同一事务内累加科目余额，提交后追加到列式账簿
+        if (isPosted(tx.getStatus())) {
+            balanceService.applySplits(tx.getBookId(), splits);
+            ledgerStore.appendAfterCommit(List.of(tx.getTransactionId()));
+        }
+        ledgerVersion.bumpAfterCommit();
+    }
+
+    @Override
+    public List<PostingResultVO> postVouchers(List<Long> transactionIds) {
+        List<Long> ids = transactionIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, PostingResultVO> results = new HashMap<>(ids.size() * 2);
+
+        for (int from = 0; from < ids.size(); from += POSTING_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + POSTING_CHUNK_SIZE, ids.size()));
+            try {
+                Map<Long, PostingResultVO> chunkResults = transactionTemplate.execute(status -> postChunk(chunk));
+                results.putAll(chunkResults);
+            } catch (Exception e) {
+                // 本块整体回滚，块内凭证均未过账
+                for (Long id : chunk) {
+                    results.put(id, PostingResultVO.fail(id, "过账失败: " + e.getMessage()));
+                }
+            }
+        }
+
+        List<PostingResultVO> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ordered.add(results.get(id));
+        }
+        return ordered;
+    }
 
-    // ================= 高分核心功能 1：自动过账引擎 =================
     /**
-     * 将业务单据（Invoice）转换为会计凭证（Transaction + Splits）
-     * 解决问题：资产负债表不平、借贷方向错误
+     * 在当前事务中过账一块凭证
      */
-    @Transactional(rollbackFor = Exception.class)
-    public void autoPostInvoice(Long invoiceId) {
-        // 模拟获取单据 (实际开发请取消注释并调用 invoiceService)
-        // Invoice invoice = invoiceService.getById(invoiceId);
-        // 为了让你代码能跑，我先模拟一个采购单数据，你接好 InvoiceService 后删掉下面这行
-        InvoiceMock invoice = new InvoiceMock(invoiceId, "PURCHASE", new BigDecimal("3500.00"), "采购A4纸", LocalDate.now());
+    private Map<Long, PostingResultVO> postChunk(List<Long> ids) {
+        Map<Long, PostingResultVO> results = new HashMap<>(ids.size() * 2);
 
-        // 1. 创建凭证主头
-        FinanceTransaction tx = new FinanceTransaction();
-        tx.setBookId(1L); 
-        tx.setVoucherDate(invoice.getDate());
-        tx.setDescription(invoice.getDesc()); 
-        tx.setCreateTime(LocalDateTime.now());
-        tx.setStatus("POSTED"); 
-        this.save(tx); // 保存主表
+        // 锁定本块仍是草稿的凭证，并发过账同一张凭证时后到者会看到已过账
+        List<FinanceTransaction> drafts = this.list(new QueryWrapper<FinanceTransaction>()
+                .in("transaction_id", ids)
+                .eq("status", "DRAFT")
+                .last("FOR UPDATE"));
+        Map<Long, FinanceTransaction> draftById = new HashMap<>(drafts.size() * 2);
+        drafts.forEach(tx -> draftById.put(tx.getTransactionId(), tx));
+        for (Long id : ids) {
+            if (!draftById.containsKey(id)) {
+                results.put(id, PostingResultVO.fail(id, "凭证不存在或已过账"));
+            }
+        }
+        if (drafts.isEmpty()) {
+            return results;
+        }
+
+        // 一次查询加载本块全部分录
+        Map<Long, List<FinanceSplit>> splitsByTx = splitMapper.selectList(
+                new QueryWrapper<FinanceSplit>().in("transaction_id", draftById.keySet()))
+            .stream()
+            .collect(Collectors.groupingBy(FinanceSplit::getTransactionId));
+
+        List<Long> validIds = new ArrayList<>(drafts.size());
+        Map<Long, List<FinanceSplit>> postedByBook = new LinkedHashMap<>();
+        LocalDate minDate = null;
+        for (FinanceTransaction tx : drafts) {
+            List<FinanceSplit> splits = splitsByTx.getOrDefault(tx.getTransactionId(), List.of());
+            String error = voucherValidator.validate(tx.getVoucherDate(), true, splits);
+            if (error != null) {
+                results.put(tx.getTransactionId(), PostingResultVO.fail(tx.getTransactionId(), error));
+                continue;
+            }
+            validIds.add(tx.getTransactionId());
+            postedByBook.computeIfAbsent(tx.getBookId() != null ? tx.getBookId() : 0L, k -> new ArrayList<>())
+                .addAll(splits);
+            if (minDate == null || tx.getVoucherDate().isBefore(minDate)) {
+                minDate = tx.getVoucherDate();
+            }
+            results.put(tx.getTransactionId(), PostingResultVO.ok(tx.getTransactionId()));
+        }
+        if (validIds.isEmpty()) {
+            return results;
+        }
+
+        // 持有结账读锁到事务结束；最早日期未结账则全部未结账
+        periodService.checkOpen(minDate);
+
+        UpdateWrapper<FinanceTransaction> uw = new UpdateWrapper<>();
+        uw.in("transaction_id", validIds);
+        uw.eq("status", "DRAFT");
+        uw.set("status", "POSTED");
+        this.update(uw);
+
+        postedByBook.forEach(balanceService::applySplits);
+        // 列存追加须先于版本号加一注册，保证新版本号下的报表能看到这些分录
+        ledgerStore.appendAfterCommit(validIds);
+        ledgerVersion.bumpAfterCommit();
+        return results;
+    }
+
+    // ================= 批量导入 =================
+
+    @Override
+    public List<VoucherImportResultVO> importVouchers(List<VoucherImportDTO> vouchers, int firstIndex) {
+        VoucherImportResultVO[] results = new VoucherImportResultVO[vouchers.size()];
+        List<Integer> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<FinanceTransaction> chunkTxs = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<List<FinanceSplit>> chunkSplits = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+        for (int i = 0; i < vouchers.size(); i++) {
+            FinanceTransaction tx = new FinanceTransaction();
+            List<FinanceSplit> splits = new ArrayList<>();
+            toEntities(vouchers.get(i), tx, splits);
 
+            String error = voucherValidator.validate(tx, splits);
+            if (error != null) {
+                results[i] = VoucherImportResultVO.fail(firstIndex + i, error);
+                continue;
+            }
+            chunk.add(i);
+            chunkTxs.add(tx);
+            chunkSplits.add(splits);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                writeChunk(chunk, chunkTxs, chunkSplits, results, firstIndex);
+                chunk.clear();
+                chunkTxs.clear();
+                chunkSplits.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, chunkTxs, chunkSplits, results, firstIndex);
+        }
+        return List.of(results);
+    }
+
+    @Override
+    public String validateImport(VoucherImportDTO voucher) {
+        FinanceTransaction tx = new FinanceTransaction();
         List<FinanceSplit> splits = new ArrayList<>();
-        BigDecimal totalAmount = invoice.getAmount();
+        toEntities(voucher, tx, splits);
+        return voucherValidator.validate(tx, splits);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<VoucherImportResultVO> importVouchersInTransaction(List<VoucherImportDTO> vouchers, int firstIndex) {
+        VoucherImportResultVO[] results = new VoucherImportResultVO[vouchers.size()];
+        List<Integer> indexes = new ArrayList<>(vouchers.size());
+        List<FinanceTransaction> txs = new ArrayList<>(vouchers.size());
+        List<List<FinanceSplit>> splits = new ArrayList<>(vouchers.size());
 
-        // --- 场景 A: 采购 (Purchase) ---
-        // 借：库存商品 (资产+) | 贷：应付账款 (负债+)
-        if ("PURCHASE".equals(invoice.getType())) {
-            // 借方 (Debit = 1)：库存/费用
-            FinanceAccount costAcc = findAccountByCode("1405"); // 库存商品
-            splits.add(createSplit(tx.getTransactionId(), costAcc.getAccountId(), 1, totalAmount, "采购入库"));
+        for (int i = 0; i < vouchers.size(); i++) {
+            FinanceTransaction tx = new FinanceTransaction();
+            List<FinanceSplit> txSplits = new ArrayList<>();
+            toEntities(vouchers.get(i), tx, txSplits);
 
-            // 贷方 (Credit = -1)：应付账款
-            FinanceAccount payableAcc = findAccountByCode("2202"); // 应付账款
-            splits.add(createSplit(tx.getTransactionId(), payableAcc.getAccountId(), -1, totalAmount, "应付供应商"));
+            String error = voucherValidator.validate(tx, txSplits);
+            if (error != null) {
+                results[i] = VoucherImportResultVO.fail(firstIndex + i, error);
+                continue;
+            }
+            indexes.add(i);
+            txs.add(tx);
+            splits.add(txSplits);
+        }
+        if (!txs.isEmpty()) {
+            saveVoucherBatch(txs, splits);
+            for (int k = 0; k < indexes.size(); k++) {
+                results[indexes.get(k)] = VoucherImportResultVO.ok(firstIndex + indexes.get(k), txs.get(k).getTransactionId());
+            }
         }
-        
-        // --- 场景 B: 销售 (Sale) ---
-        // 借：应收账款 (资产+) | 贷：主营业务收入 (收入+)
-        else if ("SALE".equals(invoice.getType())) {
-            FinanceAccount receivableAcc = findAccountByCode("1122"); // 应收账款
-            splits.add(createSplit(tx.getTransactionId(), receivableAcc.getAccountId(), 1, totalAmount, "应收客户款"));
+        return List.of(results);
+    }
 
-            FinanceAccount incomeAcc = findAccountByCode("6001"); // 主营业务收入
-            splits.add(createSplit(tx.getTransactionId(), incomeAcc.getAccountId(), -1, totalAmount, "销售收入"));
+    private void toEntities(VoucherImportDTO dto, FinanceTransaction tx, List<FinanceSplit> splits) {
+        tx.setBookId(dto.getBookId());
+        tx.setVoucherDate(dto.getVoucherDate());
+        tx.setDescription(dto.getDescription());
+        tx.setStatus(dto.getStatus() != null ? dto.getStatus() : "POSTED");
+        tx.setCreateTime(LocalDateTime.now());
+        if (dto.getSplits() == null) {
+            return;
         }
+        for (VoucherImportDTO.SplitImportDTO s : dto.getSplits()) {
+            splits.add(createSplit(s.getAccountId(), s.getDcDirection() != null ? s.getDcDirection() : 0,
+                    s.getAmount(), s.getSummary()));
+        }
+    }
 
-        // 保存分录
-        for (FinanceSplit split : splits) {
-            splitMapper.insert(split);
+    /**
+     * 一块凭证一个事务批量写入；失败时逐张重试以定位出错的凭证
+     */
+    private void writeChunk(List<Integer> indexes, List<FinanceTransaction> txs, List<List<FinanceSplit>> splits,
+                            VoucherImportResultVO[] results, int firstIndex) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveVoucherBatch(txs, splits));
+            for (int k = 0; k < indexes.size(); k++) {
+                results[indexes.get(k)] = VoucherImportResultVO.ok(firstIndex + indexes.get(k), txs.get(k).getTransactionId());
+            }
+            return;
+        } catch (Exception e) {
+            if (indexes.size() == 1) {
+                results[indexes.get(0)] = VoucherImportResultVO.fail(firstIndex + indexes.get(0), "保存失败: " + e.getMessage());
+                return;
+            }
+        }
+        for (int k = 0; k < indexes.size(); k++) {
+            // 回滚后主键已回填，重试前清掉
+            txs.get(k).setTransactionId(null);
+            splits.get(k).forEach(s -> { s.setSplitId(null); s.setTransactionId(null); });
+            writeChunk(List.of(indexes.get(k)), List.of(txs.get(k)), List.of(splits.get(k)), results, firstIndex);
         }
-        System.out.println("自动过账成功：凭证ID " + tx.getTransactionId());
     }
 
-    // ================= 高分核心功能 2：收付款功能 =================
     /**
-     * 支付/收款 (填补 Gap Analysis 中的缺失)
-     * type: PAY (付款), RECEIVE (收款)
+     * 在当前事务中批量写入一组已校验的凭证：
+     * 主表、分录各一次 saveBatch (配合 rewriteBatchedStatements 合并为多值 INSERT)，
+     * 已过账凭证按账簿合并后累加科目余额
      */
+    private void saveVoucherBatch(List<FinanceTransaction> txs, List<List<FinanceSplit>> splits) {
+        List<Long> postedIds = new ArrayList<>();
+        txs.stream()
+            .filter(tx -> isPosted(tx.getStatus()))
+            .map(FinanceTransaction::getVoucherDate)
+            .min(Comparator.naturalOrder())
+            .ifPresent(periodService::checkOpen);
+
+        txs.forEach(this::assignVoucherNo);
+        this.saveBatch(txs, IMPORT_CHUNK_SIZE);
+
+        List<FinanceSplit> allSplits = new ArrayList<>();
+        Map<Long, List<FinanceSplit>> postedByBook = new LinkedHashMap<>();
+        for (int k = 0; k < txs.size(); k++) {
+            FinanceTransaction tx = txs.get(k);
+            for (FinanceSplit split : splits.get(k)) {
+                split.setTransactionId(tx.getTransactionId());
+                allSplits.add(split);
+            }
+            if (isPosted(tx.getStatus())) {
+                postedIds.add(tx.getTransactionId());
+                postedByBook.computeIfAbsent(tx.getBookId() != null ? tx.getBookId() : 0L, k2 -> new ArrayList<>())
+                    .addAll(splits.get(k));
+            }
+        }
+        splitService.saveBatch(allSplits, IMPORT_CHUNK_SIZE * 4);
+
+        postedByBook.forEach(balanceService::applySplits);
+        ledgerStore.appendAfterCommit(postedIds);
+        ledgerVersion.bumpAfterCommit();
+    }
+
+    @Override
+    public Cursor<VoucherListVO> openVoucherPage(String status, LocalDate from, LocalDate to,
+                                                 LocalDate cursorDate, Long cursorId, Integer limit) {
+        return baseMapper.selectVoucherPage(status, from, to, cursorDate, cursorId, limit);
+    }
+
+    private void assignVoucherNo(FinanceTransaction tx) {
+        if (tx.getVoucherNo() == null && tx.getVoucherDate() != null) {
+            tx.setVoucherNo(idAllocator.nextVoucherNo(tx.getBookId(), tx.getVoucherDate()));
+        }
+    }
+
+    private boolean isPosted(String status) {
+        return status == null || "POSTED".equals(status);
+    }
+
+    // ================= 按过账规则生成凭证 =================
+
+    @Override
     @Transactional(rollbackFor = Exception.class)
-    public void processPayment(Long relatedInvoiceId, String type, BigDecimal amount) {
+    public FinanceTransaction postByRule(String docType, Long bookId, LocalDate voucherDate, String description,
+                                         long[] header, List<PostingPlan.Line> lines) {
+        PostingPlan plan = postingRules.get(docType);
+        if (plan == null) {
+            throw new RuntimeException("没有 " + docType + " 类单据的过账规则");
+        }
+        List<FinanceSplit> splits = new ArrayList<>(plan.size());
+        String error = plan.apply(header, description, lines,
+            (accountId, dc, cents, summary) -> splits.add(createSplit(accountId, dc, CentsLedger.toAmount(cents), summary)));
+
         FinanceTransaction tx = new FinanceTransaction();
-        tx.setBookId(1L);
-        tx.setVoucherDate(LocalDate.now());
+        tx.setBookId(bookId);
+        tx.setVoucherDate(voucherDate);
+        tx.setDescription(description);
         tx.setCreateTime(LocalDateTime.now());
         tx.setStatus("POSTED");
-        
-        List<FinanceSplit> splits = new ArrayList<>();
-        FinanceAccount bankAcc = findAccountByCode("1002"); // 银行存款
-
-        if ("PAY".equals(type)) {
-            // 付款：借：应付账款 (负债减少)，贷：银行存款 (资产减少)
-            tx.setDescription("支付采购款");
-            this.save(tx);
-            
-            FinanceAccount payableAcc = findAccountByCode("2202");
-            // 借 应付 (冲销负债)
-            splits.add(createSplit(tx.getTransactionId(), payableAcc.getAccountId(), 1, amount, "冲销应付账款"));
-            // 贷 银行 (资金流出)
-            splits.add(createSplit(tx.getTransactionId(), bankAcc.getAccountId(), -1, amount, "银行转账支出"));
-            
-        } else if ("RECEIVE".equals(type)) {
-            // 收款：借：银行存款 (资产增加)，贷：应收账款 (资产减少)
-            tx.setDescription("收到销售款");
-            this.save(tx);
-            
-            FinanceAccount receivableAcc = findAccountByCode("1122");
-            // 借 银行 (资金流入)
-            splits.add(createSplit(tx.getTransactionId(), bankAcc.getAccountId(), 1, amount, "收到客户汇款"));
-            // 贷 应收 (冲销债权)
-            splits.add(createSplit(tx.getTransactionId(), receivableAcc.getAccountId(), -1, amount, "核销应收账款"));
+        if (error == null) {
+            error = voucherValidator.validate(tx, splits);
         }
-
-        for (FinanceSplit split : splits) {
-            splitMapper.insert(split);
+        if (error != null) {
+            throw new RuntimeException(error);
         }
+        saveVoucher(tx, splits);
+        return tx;
     }
 
     // --- 辅助工具方法 ---
-    private FinanceSplit createSplit(Long txId, Long accId, int dir, BigDecimal amt, String summary) {
+    private FinanceSplit createSplit(Long accId, int dir, BigDecimal amt, String summary) {
         FinanceSplit s = new FinanceSplit();
-        s.setTransactionId(txId);
         s.setAccountId(accId);
         s.setDcDirection(dir);
         s.setAmount(amt);
         s.setSummary(summary);
         return s;
     }
-
-    private FinanceAccount findAccountByCode(String code) {
-        QueryWrapper<FinanceAccount> q = new QueryWrapper<>();
-        q.eq("account_code", code);
-        return accountService.getOne(q);
-    }
-
-    // 内部模拟类，防止你还没写 Invoice 实体报错
-    class InvoiceMock {
-        Long id; String type; BigDecimal amount; String desc; LocalDate date;
-        public InvoiceMock(Long id, String t, BigDecimal a, String d, LocalDate dt) {this.id=id;this.type=t;this.amount=a;this.desc=d;this.date=dt;}
-        public BigDecimal getAmount() {return amount;}
-        public String getType() {return type;}
-        public String getDesc() {return desc;}
-        public LocalDate getDate() {return date;}
-    }
-}
\ No newline at end of file
+}
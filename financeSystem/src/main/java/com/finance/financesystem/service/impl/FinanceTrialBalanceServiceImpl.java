@@ -0,0 +1,162 @@
+package com.finance.financesystem.service.impl;
+
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.ChartOfAccounts;
+import com.finance.financesystem.component.ChartOfAccountsIndex;
+import com.finance.financesystem.component.LedgerColumnStore;
+import com.finance.financesystem.entity.FinanceAccount;
+import com.finance.financesystem.entity.SplitSumVO;
+import com.finance.financesystem.entity.TrialBalanceRowVO;
+import com.finance.financesystem.entity.TrialBalanceVO;
+import com.finance.financesystem.mapper.FinanceSplitMapper;
+import com.finance.financesystem.service.IFinanceAccountBalanceService;
+import com.finance.financesystem.service.IFinancePeriodService;
+import com.finance.financesystem.service.IFinanceTrialBalanceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * 试算平衡表 服务实现类
+ * </p>
+ *
+ * 不带日期时直接读科目余额表 (O(科目数) 行)；
+ * 带日期时优先扫描列式账簿，列存未就绪时：
+ * - 期初 (from 前一天为止的累计) = 最近一期结账快照 + 快照之后到 from 前一天的分录，只汇总增量
+ * - 本期 = from ~ to 的分录按科目汇总
+ * 结果按科目序号放进分位累加器，合计与平衡校验都在分上完成。
+ */
+@Service
+public class FinanceTrialBalanceServiceImpl implements IFinanceTrialBalanceService {
+
+    @Autowired
+    private FinanceSplitMapper splitMapper;
+
+    @Autowired
+    private IFinanceAccountBalanceService balanceService;
+
+    @Autowired
+    private ChartOfAccountsIndex chartIndex;
+
+    @Autowired
+    private IFinancePeriodService periodService;
+
+    @Autowired
+    private LedgerColumnStore ledgerStore;
+
+    @Override
+    public TrialBalanceVO getTrialBalance(Long bookId, LocalDate from, LocalDate to) {
+        ChartOfAccounts chart = chartIndex.get();
+        CentsLedger opening;
+        CentsLedger period;
+
+        if (from == null && to == null) {
+            opening = new CentsLedger(chart);
+            period = new CentsLedger(chart);
+            period.addTotals(balanceService.getDebitCreditTotals(bookId));
+        } else if (from == null) {
+            opening = new CentsLedger(chart);
+            period = cumulative(chart, bookId, to);
+        } else {
+            opening = cumulative(chart, bookId, from.minusDays(1));
+            period = range(chart, bookId, from, to);
+        }
+
+        List<TrialBalanceRowVO> rows = new ArrayList<>();
+        long openingDebit = 0, openingCredit = 0;
+        long periodDebit = 0, periodCredit = 0;
+        long closingDebit = 0, closingCredit = 0;
+
+        List<FinanceAccount> accounts = chart.getAccounts();
+        for (int i = 0; i < accounts.size(); i++) {
+            // 跳过没有发生额的科目
+            if (opening.isEmpty(i) && period.isEmpty(i)) {
+                continue;
+            }
+            FinanceAccount acc = accounts.get(i);
+            long openingNet = Math.subtractExact(opening.debitCents(i), opening.creditCents(i));
+            long totalDebit = Math.addExact(opening.debitCents(i), period.debitCents(i));
+            long totalCredit = Math.addExact(opening.creditCents(i), period.creditCents(i));
+            long closingNet = Math.subtractExact(totalDebit, totalCredit);
+            boolean isDebitBalance = CentsLedger.isDebitBalance(acc);
+
+            TrialBalanceRowVO row = new TrialBalanceRowVO(
+                acc.getAccountId(), acc.getAccountCode(), acc.getAccountName(), acc.getAccountType(),
+                CentsLedger.toAmount(Math.max(openingNet, 0)), CentsLedger.toAmount(Math.max(-openingNet, 0)),
+                CentsLedger.toAmount(period.debitCents(i)), CentsLedger.toAmount(period.creditCents(i)),
+                CentsLedger.toAmount(Math.max(closingNet, 0)), CentsLedger.toAmount(Math.max(-closingNet, 0)),
+                CentsLedger.toAmount(totalDebit), CentsLedger.toAmount(totalCredit),
+                CentsLedger.toAmount(isDebitBalance ? closingNet : -closingNet), isDebitBalance ? "借" : "贷");
+            rows.add(row);
+
+            openingDebit = Math.addExact(openingDebit, Math.max(openingNet, 0));
+            openingCredit = Math.addExact(openingCredit, Math.max(-openingNet, 0));
+            periodDebit = Math.addExact(periodDebit, period.debitCents(i));
+            periodCredit = Math.addExact(periodCredit, period.creditCents(i));
+            closingDebit = Math.addExact(closingDebit, Math.max(closingNet, 0));
+            closingCredit = Math.addExact(closingCredit, Math.max(-closingNet, 0));
+        }
+
+        TrialBalanceVO result = new TrialBalanceVO();
+        result.setBookId(bookId);
+        result.setFrom(from);
+        result.setTo(to);
+        result.setRows(rows);
+        result.setOpeningDebit(CentsLedger.toAmount(openingDebit));
+        result.setOpeningCredit(CentsLedger.toAmount(openingCredit));
+        result.setPeriodDebit(CentsLedger.toAmount(periodDebit));
+        result.setPeriodCredit(CentsLedger.toAmount(periodCredit));
+        result.setClosingDebit(CentsLedger.toAmount(closingDebit));
+        result.setClosingCredit(CentsLedger.toAmount(closingCredit));
+        // 期初、本期两栏都平，期末自然平；期末差额即全部借方 - 全部贷方
+        result.setBalanced(openingDebit == openingCredit && periodDebit == periodCredit);
+        result.setDifference(CentsLedger.toAmount(Math.subtractExact(closingDebit, closingCredit)));
+        return result;
+    }
+
+    /**
+     * 截至 date (含) 的借贷累计：最近一期结账快照 + 快照之后的分录，没有结账快照时从建账开始汇总
+     */
+    private CentsLedger cumulative(ChartOfAccounts chart, Long bookId, LocalDate date) {
+        CentsLedger scanned = ledgerStore.sumByAccount(chart, bookId, null, date);
+        if (scanned != null) {
+            return scanned;
+        }
+        CentsLedger ledger = new CentsLedger(chart);
+        LocalDate deltaFrom = null;
+        YearMonth snapshot = periodService.findLatestClosedOnOrBefore(date);
+        if (snapshot != null) {
+            ledger.addTotals(periodService.getSnapshotTotals(snapshot, bookId));
+            deltaFrom = snapshot.atEndOfMonth().plusDays(1);
+            if (deltaFrom.isAfter(date)) {
+                return ledger;
+            }
+        }
+        addSplitSums(ledger, splitMapper.sumPostedByAccount(bookId, deltaFrom, date));
+        return ledger;
+    }
+
+    /**
+     * from ~ to (含，to 可空) 的借贷发生额
+     */
+    private CentsLedger range(ChartOfAccounts chart, Long bookId, LocalDate from, LocalDate to) {
+        CentsLedger scanned = ledgerStore.sumByAccount(chart, bookId, from, to);
+        if (scanned != null) {
+            return scanned;
+        }
+        CentsLedger ledger = new CentsLedger(chart);
+        addSplitSums(ledger, splitMapper.sumPostedByAccount(bookId, from, to));
+        return ledger;
+    }
+
+    private static void addSplitSums(CentsLedger ledger, List<SplitSumVO> rows) {
+        for (SplitSumVO row : rows) {
+            ledger.add(row.getAccountId(), row.getDcDirection(), row.getAmount());
+        }
+    }
+}
@@ -1,19 +1,287 @@
 package com.finance.financesystem.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.finance.financesystem.component.CentsLedger;
+import com.finance.financesystem.component.PostingPlan;
+import com.finance.financesystem.component.PostingRules;
+import com.finance.financesystem.component.PostingVar;
 import com.finance.financesystem.entity.Invoice;
+import com.finance.financesystem.entity.InvoiceItem;
+import com.finance.financesystem.entity.InvoicePostingResultVO;
+import com.finance.financesystem.entity.InvoicePostingSummaryVO;
+import com.finance.financesystem.entity.VoucherImportDTO;
+import com.finance.financesystem.entity.VoucherImportResultVO;
+import com.finance.financesystem.mapper.InvoiceItemMapper;
 import com.finance.financesystem.mapper.InvoiceMapper;
+import com.finance.financesystem.service.IFinanceTransactionService;
 import com.finance.financesystem.service.IInvoiceService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 /**
  * <p>
  * 发票 服务实现类
  * </p>
  *
+ * 入账任务：
+ * 1. 发票ID排序后切块，每块一个虚拟线程，同时写库的块数由信号量限制 (不超过连接池)
+ * 2. 块内：FOR UPDATE SKIP LOCKED 锁定草稿 → 一次查询加载明细 → 按过账规则生成凭证 →
+ *    复用凭证批量导入写入主表、分录、科目余额 → 一条 UPDATE 标记发票，同一事务提交
+ * 3. 借贷科目来自 finance_posting_rule (单据类型 = 发票类型)，已编译为 {@link PostingPlan}，不访问数据库
+ *
  * @author AI_Assistant
  * @since 2025-12-02
  */
 @Service
 public class InvoiceServiceImpl extends ServiceImpl<InvoiceMapper, Invoice> implements IInvoiceService {
-}
\ No newline at end of file
+
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
+    @Autowired
+    private InvoiceItemMapper itemMapper;
+
+    @Autowired
+    private IFinanceTransactionService transactionService;
+
+    @Autowired
+    private PostingRules postingRules;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** 每块 (每个事务) 的发票数 */
+    @Value("${finance.invoice-posting.chunk-size:500}")
+    private int chunkSize;
+
+    /** 同时写库的块数 */
+    @Value("${finance.invoice-posting.parallelism:4}")
+    private int parallelism;
+
+    @Override
+    public InvoicePostingSummaryVO postDraftInvoices(Long bookId) {
+        List<Long> ids = listObjs(new QueryWrapper<Invoice>()
+                .select("invoice_id")
+                .eq("status", "DRAFT")
+                .orderByAsc("invoice_id"),
+            id -> ((Number) id).longValue());
+        return postInvoices(ids, bookId);
+    }
+
+    @Override
+    public InvoicePostingSummaryVO postInvoices(List<Long> invoiceIds, Long bookId) {
+        long start = System.currentTimeMillis();
+        List<Long> ids = invoiceIds.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+
+        List<List<InvoicePostingResultVO>> chunkResults = new ArrayList<>();
+        Semaphore permits = new Semaphore(Math.max(1, parallelism));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<InvoicePostingResultVO>>> futures = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return postChunk(chunk, bookId);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<List<InvoicePostingResultVO>> f : futures) {
+                chunkResults.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("发票入账被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("发票入账失败: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        InvoicePostingSummaryVO summary = new InvoicePostingSummaryVO();
+        summary.setTotal(ids.size());
+        for (List<InvoicePostingResultVO> results : chunkResults) {
+            for (InvoicePostingResultVO r : results) {
+                if (r.isSuccess()) {
+                    summary.setPosted(summary.getPosted() + 1);
+                } else {
+                    summary.setFailed(summary.getFailed() + 1);
+                    if (summary.getFailures().size() < MAX_REPORTED_FAILURES) {
+                        summary.getFailures().add(r);
+                    }
+                }
+            }
+        }
+        summary.setSkipped(summary.getTotal() - summary.getPosted() - summary.getFailed());
+        summary.setElapsedMillis(System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    /**
+     * 一块发票一个事务；写库异常时整块回滚，块内发票均记为失败
+     *
+     * @return 锁定到的发票的结果，未锁定到的 (已入账或被其他任务锁住) 不在其中
+     */
+    private List<InvoicePostingResultVO> postChunk(List<Long> ids, Long bookId) {
+        try {
+            return transactionTemplate.execute(status -> postChunkInTransaction(ids, bookId));
+        } catch (Exception e) {
+            List<InvoicePostingResultVO> results = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                results.add(InvoicePostingResultVO.fail(id, "入账失败: " + e.getMessage()));
+            }
+            return results;
+        }
+    }
+
+    private List<InvoicePostingResultVO> postChunkInTransaction(List<Long> ids, Long bookId) {
+        List<Invoice> invoices = baseMapper.lockDrafts(ids);
+        if (invoices.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<InvoiceItem>> itemsByInvoice = itemMapper.selectList(new QueryWrapper<InvoiceItem>()
+                .in("invoice_id", invoices.stream().map(Invoice::getInvoiceId).collect(Collectors.toList()))
+                .orderByAsc("item_id"))
+            .stream()
+            .collect(Collectors.groupingBy(InvoiceItem::getInvoiceId));
+
+        List<InvoicePostingResultVO> results = new ArrayList<>(invoices.size());
+        List<Invoice> toPost = new ArrayList<>(invoices.size());
+        List<VoucherImportDTO> vouchers = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            VoucherImportDTO voucher = new VoucherImportDTO();
+            String error = toVoucher(invoice, itemsByInvoice.getOrDefault(invoice.getInvoiceId(), List.of()),
+                bookId, voucher);
+            if (error != null) {
+                results.add(InvoicePostingResultVO.fail(invoice.getInvoiceId(), error));
+                continue;
+            }
+            toPost.add(invoice);
+            vouchers.add(voucher);
+        }
+        if (vouchers.isEmpty()) {
+            return results;
+        }
+
+        // 凭证逐张校验 (借贷平衡、期间未结账) 后批量写入，不通过的凭证对应的发票保持草稿
+        List<VoucherImportResultVO> imported = transactionService.importVouchersInTransaction(vouchers, 0);
+        List<Invoice> posted = new ArrayList<>(toPost.size());
+        for (VoucherImportResultVO r : imported) {
+            Invoice invoice = toPost.get(r.getIndex());
+            if (r.isSuccess()) {
+                invoice.setTransactionId(r.getTransactionId());
+                posted.add(invoice);
+                results.add(InvoicePostingResultVO.ok(invoice.getInvoiceId(), r.getTransactionId()));
+            } else {
+                results.add(InvoicePostingResultVO.fail(invoice.getInvoiceId(), r.getMessage()));
+            }
+        }
+        if (!posted.isEmpty()) {
+            baseMapper.markPosted(posted);
+        }
+        return results;
+    }
+
+    /**
+     * 按发票类型对应的过账规则生成凭证：每条明细是一条 {@link PostingPlan.Line}，TOTAL 为明细金额，
+     * 单据级 TOTAL 为明细合计。没有明细时按发票总金额作为一条明细；有明细时明细合计须等于发票总金额
+     *
+     * @return 不能生成凭证的原因，成功时返回 null
+     */
+    private String toVoucher(Invoice invoice, List<InvoiceItem> items, Long bookId, VoucherImportDTO voucher) {
+        PostingPlan plan = postingRules.get(invoice.getType());
+        if (plan == null) {
+            return "没有 " + invoice.getType() + " 类单据的过账规则";
+        }
+
+        List<PostingPlan.Line> lines = new ArrayList<>(Math.max(1, items.size()));
+        long totalCents = 0;
+        try {
+            if (items.isEmpty()) {
+                if (invoice.getTotalAmount() == null) {
+                    return "发票没有明细也没有总金额";
+                }
+                totalCents = CentsLedger.toCents(invoice.getTotalAmount());
+                lines.add(line(null, totalCents));
+            } else {
+                for (InvoiceItem item : items) {
+                    BigDecimal amount = lineAmount(item);
+                    if (amount == null || amount.signum() == 0) {
+                        continue;
+                    }
+                    long cents = CentsLedger.toCents(amount);
+                    lines.add(line(item.getDescription(), cents));
+                    totalCents = Math.addExact(totalCents, cents);
+                }
+                if (invoice.getTotalAmount() != null && CentsLedger.toCents(invoice.getTotalAmount()) != totalCents) {
+                    return "明细合计 " + CentsLedger.toAmount(totalCents) + " 与发票金额 "
+                        + invoice.getTotalAmount() + " 不一致";
+                }
+            }
+        } catch (ArithmeticException e) {
+            return "金额最多两位小数";
+        }
+
+        long[] header = PostingVar.vector();
+        header[PostingVar.TOTAL.ordinal()] = totalCents;
+        String description = switch (invoice.getType()) {
+            case "PURCHASE" -> "采购发票 ";
+            case "SALE" -> "销售发票 ";
+            default -> invoice.getType() + " 发票 ";
+        } + (invoice.getInvoiceCode() != null ? invoice.getInvoiceCode() : "#" + invoice.getInvoiceId());
+
+        List<VoucherImportDTO.SplitImportDTO> splits = new ArrayList<>(plan.size() + lines.size());
+        String error = plan.apply(header, description, lines,
+            (accountId, dc, cents, summary) -> splits.add(split(accountId, dc, cents, summary)));
+        if (error != null) {
+            return error;
+        }
+
+        voucher.setBookId(bookId);
+        voucher.setVoucherDate(invoice.getInvoiceDate());
+        voucher.setDescription(description);
+        voucher.setStatus("POSTED");
+        voucher.setSplits(splits);
+        return null;
+    }
+
+    private static PostingPlan.Line line(String summary, long cents) {
+        long[] vars = PostingVar.vector();
+        vars[PostingVar.TOTAL.ordinal()] = cents;
+        return new PostingPlan.Line(summary, vars);
+    }
+
+    private static BigDecimal lineAmount(InvoiceItem item) {
+        if (item.getLineAmount() != null) {
+            return item.getLineAmount();
+        }
+        if (item.getQuantity() != null && item.getUnitPrice() != null) {
+            return item.getQuantity().multiply(item.getUnitPrice()).setScale(2, RoundingMode.HALF_UP);
+        }
+        return null;
+    }
+
+    private static VoucherImportDTO.SplitImportDTO split(Long accountId, int dc, long cents, String summary) {
+        VoucherImportDTO.SplitImportDTO s = new VoucherImportDTO.SplitImportDTO();
+        s.setAccountId(accountId);
+        s.setDcDirection(dc);
+        s.setAmount(CentsLedger.toAmount(cents));
+        s.setSummary(summary);
+        return s;
+    }
+}
@@ -0,0 +1,301 @@
+package com.finance.financesystem.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.financesystem.entity.VoucherImportDTO;
+import com.finance.financesystem.entity.VoucherImportResultVO;
+import com.finance.financesystem.service.IFinanceTransactionService;
+import com.finance.financesystem.service.IJournalImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * <p>
+ * 分录文件导入 服务实现类
+ * </p>
+ *
+ * 通过 NIO Channel 逐行读取，同一时刻内存里只有一块 (500 张) 待写入的凭证和有限条错误信息。
+ * 解析失败的行记为行级错误并跳过，所在凭证整张不导入；其他凭证照常导入。
+ * 写库复用 {@link IFinanceTransactionService#importVouchers}：逐张校验借贷平衡，按块批量插入。
+ */
+@Service
+public class JournalImportServiceImpl implements IJournalImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private IFinanceTransactionService transactionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public Map<String, Object> importJournal(InputStream in, String format) throws IOException {
+        boolean json = "jsonl".equalsIgnoreCase(format) || "json".equalsIgnoreCase(format);
+        ImportRun run = new ImportRun();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(
+                Channels.newReader(Channels.newChannel(in), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (lineNo == 1 && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
+                if (!json && lineNo == 1 && line.startsWith("voucherKey")) {
+                    continue;  // CSV 表头
+                }
+                run.lines++;
+                JournalLine parsed;
+                try {
+                    parsed = json ? parseJson(line) : parseCsv(line);
+                } catch (Exception e) {
+                    run.lineError(lineNo, e.getMessage(), json ? jsonVoucherKey(line) : firstCsvField(line));
+                    continue;
+                }
+                run.accept(lineNo, parsed);
+            }
+        }
+        run.finish();
+
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("code", 200);
+        result.put("lines", run.lines);
+        result.put("vouchers", run.vouchers);
+        result.put("succeeded", run.succeeded);
+        result.put("failed", run.failed);
+        result.put("lineErrors", run.lineErrors);
+        result.put("elapsedMs", Math.round(seconds * 1000));
+        result.put("linesPerSecond", Math.round(run.lines / seconds));
+        result.put("vouchersPerSecond", Math.round(run.vouchers / seconds));
+        result.put("errors", run.errors);
+        result.put("errorsTruncated", run.errorCount > run.errors.size());
+        return result;
+    }
+
+    /**
+     * 一行分录
+     */
+    private record JournalLine(String voucherKey, LocalDate voucherDate, String description, Long bookId,
+                               Long accountId, Integer dcDirection, BigDecimal amount, String summary) {
+    }
+
+    /**
+     * 一次导入的状态：当前凭证、待写入的块、计数与错误
+     */
+    private class ImportRun {
+        long lines, vouchers, succeeded, failed, lineErrors, errorCount;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+
+        // 当前正在累积的凭证
+        String currentKey;
+        long currentLine;
+        boolean currentPoisoned;
+        VoucherImportDTO current;
+
+        // 待写入的凭证及其首行行号
+        final List<VoucherImportDTO> pending = new ArrayList<>(CHUNK_SIZE);
+        final List<Long> pendingLines = new ArrayList<>(CHUNK_SIZE);
+
+        void accept(long lineNo, JournalLine line) {
+            if (!line.voucherKey().equals(currentKey)) {
+                startVoucher(line.voucherKey(), lineNo);
+            }
+            if (current.getVoucherDate() == null) {
+                current.setVoucherDate(line.voucherDate());
+                current.setDescription(line.description());
+                current.setBookId(line.bookId());
+            }
+            VoucherImportDTO.SplitImportDTO split = new VoucherImportDTO.SplitImportDTO();
+            split.setAccountId(line.accountId());
+            split.setDcDirection(line.dcDirection());
+            split.setAmount(line.amount());
+            split.setSummary(line.summary());
+            current.getSplits().add(split);
+        }
+
+        void lineError(long lineNo, String message, String voucherKey) {
+            lineErrors++;
+            error(lineNo, "第 " + lineNo + " 行解析失败: " + message);
+            // 错误行所属的凭证整张不导入 (错误行可能是该凭证的第一行)
+            if (voucherKey != null && !voucherKey.isEmpty()) {
+                if (!voucherKey.equals(currentKey)) {
+                    startVoucher(voucherKey, lineNo);
+                }
+                currentPoisoned = true;
+            }
+        }
+
+        void startVoucher(String key, long lineNo) {
+            closeVoucher();
+            currentKey = key;
+            currentLine = lineNo;
+            currentPoisoned = false;
+            current = new VoucherImportDTO();
+            current.setSplits(new ArrayList<>());
+        }
+
+        void closeVoucher() {
+            if (current == null) {
+                return;
+            }
+            vouchers++;
+            if (currentPoisoned) {
+                failed++;
+                error(currentLine, "凭证 " + currentKey + " 含解析失败的行，未导入");
+            } else {
+                pending.add(current);
+                pendingLines.add(currentLine);
+                if (pending.size() == CHUNK_SIZE) {
+                    flush();
+                }
+            }
+            current = null;
+            currentKey = null;
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<VoucherImportResultVO> results = transactionService.importVouchers(pending, 0);
+            for (VoucherImportResultVO r : results) {
+                if (r.isSuccess()) {
+                    succeeded++;
+                } else {
+                    failed++;
+                    error(pendingLines.get(r.getIndex()), r.getMessage());
+                }
+            }
+            pending.clear();
+            pendingLines.clear();
+        }
+
+        void finish() {
+            closeVoucher();
+            flush();
+        }
+
+        void error(long lineNo, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> e = new LinkedHashMap<>();
+                e.put("line", lineNo);
+                e.put("message", message);
+                errors.add(e);
+            }
+        }
+    }
+
+    // ==================== 行解析 ====================
+
+    private JournalLine parseJson(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("不是 JSON 对象");
+        }
+        return toLine(text(node, "voucherKey"), text(node, "voucherDate"), text(node, "description"),
+            text(node, "accountId"), text(node, "dcDirection"), text(node, "amount"),
+            text(node, "summary"), text(node, "bookId"));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode v = node.get(field);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    private JournalLine parseCsv(String line) {
+        List<String> f = splitCsv(line);
+        if (f.size() < 6) {
+            throw new IllegalArgumentException("列数不足，至少需要 6 列");
+        }
+        return toLine(f.get(0), f.get(1), f.get(2), f.get(3), f.get(4), f.get(5),
+            f.size() > 6 ? f.get(6) : null, f.size() > 7 ? f.get(7) : null);
+    }
+
+    private static JournalLine toLine(String key, String date, String description, String accountId,
+                                      String dc, String amount, String summary, String bookId) {
+        if (isBlank(key)) {
+            throw new IllegalArgumentException("voucherKey 为空");
+        }
+        if (isBlank(date) || isBlank(accountId) || isBlank(dc) || isBlank(amount)) {
+            throw new IllegalArgumentException("voucherDate / accountId / dcDirection / amount 不能为空");
+        }
+        return new JournalLine(key.trim(), LocalDate.parse(date.trim()), description,
+            isBlank(bookId) ? null : Long.valueOf(bookId.trim()),
+            Long.valueOf(accountId.trim()), Integer.valueOf(dc.trim()),
+            new BigDecimal(amount.trim()), summary);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    /**
+     * 按 RFC 4180 拆分一行 CSV (支持双引号包裹和 "" 转义，不支持字段内换行)
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(8);
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("引号未闭合");
+        }
+        fields.add(sb.toString());
+        return fields;
+    }
+
+    private String jsonVoucherKey(String line) {
+        try {
+            return text(objectMapper.readTree(line), "voucherKey");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String firstCsvField(String line) {
+        try {
+            return splitCsv(line).get(0).trim();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
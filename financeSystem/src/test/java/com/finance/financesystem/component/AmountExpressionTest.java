@@ -0,0 +1,131 @@
+package com.finance.financesystem.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 过账金额表达式与过账计划：舍入、负数、语法错误位置
+ */
+class AmountExpressionTest {
+
+    @Test
+    void divideRoundIsHalfUpAwayFromZero() {
+        assertEquals(1, AmountExpression.divideRound(5, 10));
+        assertEquals(0, AmountExpression.divideRound(4, 10));
+        assertEquals(-1, AmountExpression.divideRound(-5, 10));
+        assertEquals(0, AmountExpression.divideRound(-4, 10));
+        assertEquals(-1, AmountExpression.divideRound(5, -10));
+        assertEquals(1, AmountExpression.divideRound(-5, -10));
+        assertEquals(3, AmountExpression.divideRound(30, 10));
+    }
+
+    @Test
+    void multiplyAndDivideRoundToCentsAtHalf() {
+        AmountExpression.Compiled half = AmountExpression.compile("TOTAL * 0.5");
+        assertEquals(1, half.eval(vars(1, 0)));
+        assertEquals(2, half.eval(vars(3, 0)));
+        assertEquals(-1, half.eval(vars(-1, 0)));
+        assertEquals(-2, half.eval(vars(-3, 0)));
+
+        AmountExpression.Compiled byTwo = AmountExpression.compile("TOTAL / 2");
+        assertEquals(1, byTwo.eval(vars(1, 0)));
+        assertEquals(-1, byTwo.eval(vars(-1, 0)));
+
+        // 常数本身也按 HALF_UP 舍入到分
+        assertEquals(1, AmountExpression.compile("0.005").eval(vars(0, 0)));
+        assertEquals(10050, AmountExpression.compile("100.50").eval(vars(0, 0)));
+    }
+
+    @Test
+    void priceExcludingTaxAndTaxAddBackToTotal() {
+        AmountExpression.Compiled net = AmountExpression.compile("TOTAL / 1.13");
+        AmountExpression.Compiled tax = AmountExpression.compile("TOTAL - TOTAL / 1.13");
+
+        assertEquals(10000, net.eval(vars(11300, 0)));
+        assertEquals(1300, tax.eval(vars(11300, 0)));
+        // 100.00 / 1.13 = 88.495... → 88.50
+        assertEquals(8850, net.eval(vars(10000, 0)));
+        assertEquals(1150, tax.eval(vars(10000, 0)));
+        assertEquals(-8850, net.eval(vars(-10000, 0)));
+        for (long total = -1000; total <= 1000; total++) {
+            long[] v = vars(total, 0);
+            assertEquals(total, net.eval(v) + tax.eval(v));
+        }
+    }
+
+    @Test
+    void negationAndParentheses() {
+        long[] v = vars(1000, 130);
+        assertEquals(-870, AmountExpression.compile("-(TOTAL - TAX)").eval(v));
+        assertEquals(1130, AmountExpression.compile("total + tax").eval(v));
+        assertEquals(2000, AmountExpression.compile("(TOTAL - TAX + TAX) * 2").eval(v));
+        assertEquals(1000, AmountExpression.compile("--TOTAL").eval(v));
+    }
+
+    @Test
+    void syntaxErrorsReportPosition() {
+        assertError("TOTAL +", 8, "缺少变量或常数");
+        assertError("TOTAL * TAX", 9, "乘除只支持常数");
+        assertError("(TOTAL", 7, "缺少 )");
+        assertError("FOO", 4, "未知变量 FOO");
+        assertError("TOTAL TAX", 7, "多余的字符");
+        assertError("TOTAL / 0", 10, "除数为 0");
+        assertError("1.2.3", 1, "常数格式错误");
+        assertThrows(IllegalArgumentException.class, () -> AmountExpression.compile(" "));
+    }
+
+    @Test
+    void overflowThrows() {
+        AmountExpression.Compiled doubled = AmountExpression.compile("TOTAL * 2");
+        assertThrows(ArithmeticException.class, () -> doubled.eval(vars(Long.MAX_VALUE, 0)));
+    }
+
+    @Test
+    void planSkipsZeroReversesNegativeAndExpandsLines() {
+        PostingPlan plan = new PostingPlan("SALE", List.of(
+            new PostingPlan.Step(1L, 1, AmountExpression.compile("TOTAL"), false, null),
+            new PostingPlan.Step(2L, -1, AmountExpression.compile("TOTAL / 1.13"), true, null),
+            new PostingPlan.Step(3L, -1, AmountExpression.compile("TAX"), false, "销项税")), null);
+
+        List<String> splits = new ArrayList<>();
+        PostingPlan.SplitSink sink = (accountId, dc, cents, summary) ->
+            splits.add(accountId + "/" + dc + "/" + cents + "/" + summary);
+
+        List<PostingPlan.Line> lines = List.of(
+            new PostingPlan.Line("商品A", vars(11300, 0)),
+            new PostingPlan.Line(null, vars(-2260, 0)),
+            new PostingPlan.Line("赠品", vars(0, 0)));
+        assertNull(plan.apply(vars(9040, 1040), "销售", lines, sink));
+        assertEquals(List.of(
+            "1/1/9040/销售",
+            "2/-1/10000/商品A",
+            "2/1/2000/销售",
+            "3/-1/1040/销项税"), splits);
+
+        splits.clear();
+        assertNull(plan.apply(vars(-500, 0), "红冲", List.of(), sink));
+        assertEquals(List.of("1/-1/500/红冲"), splits);
+
+        assertEquals("金额计算溢出",
+            plan.apply(vars(0, 0), "x", List.of(new PostingPlan.Line(null, vars(Long.MIN_VALUE, 0))), sink));
+
+        PostingPlan broken = new PostingPlan("SALE", List.of(), "系统未找到科目 6001");
+        assertEquals("系统未找到科目 6001", broken.apply(vars(1, 0), "x", List.of(), sink));
+    }
+
+    private static void assertError(String text, int position, String reason) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> AmountExpression.compile(text));
+        assertEquals("金额表达式 \"" + text + "\" 第 " + position + " 个字符: " + reason, e.getMessage());
+    }
+
+    private static long[] vars(long total, long tax) {
+        long[] v = PostingVar.vector();
+        v[PostingVar.TOTAL.ordinal()] = total;
+        v[PostingVar.TAX.ordinal()] = tax;
+        return v;
+    }
+}
@@ -0,0 +1,131 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.AccountTreeVO;
+import com.finance.financesystem.entity.FinanceAccount;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分位累加与原 BigDecimal 累加逐位比对 (数值与 scale 都必须一致)
+ */
+class CentsLedgerTest {
+
+    private static final String[] TYPES = {"ASSET", "LIABILITY", "EQUITY", "INCOME", "EXPENSE", null};
+
+    @Test
+    void aggregationMatchesBigDecimalPathBitExact() {
+        Random random = new Random(20251126L);
+        ChartOfAccounts chart = new ChartOfAccounts(randomAccounts(random, 60));
+
+        CentsLedger ledger = new CentsLedger(chart);
+        Map<Long, BigDecimal[]> reference = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // 包含一个科目表里不存在的科目ID
+            Long accountId = (long) (1 + random.nextInt(61));
+            int dc = random.nextBoolean() ? 1 : 2;
+            BigDecimal amount = randomAmount(random);
+
+            ledger.add(accountId, dc, amount);
+            if (chart.getById(accountId) != null) {
+                BigDecimal[] totals = reference.computeIfAbsent(accountId,
+                    k -> new BigDecimal[]{BigDecimal.ZERO.setScale(2), BigDecimal.ZERO.setScale(2)});
+                int side = dc == 1 ? 0 : 1;
+                totals[side] = totals[side].add(amount);
+            }
+        }
+
+        Map<Long, BigDecimal> referenceBalances = new HashMap<>();
+        for (FinanceAccount acc : chart.getAccounts()) {
+            int ordinal = chart.ordinalOf(acc.getAccountId());
+            BigDecimal[] totals = reference.getOrDefault(acc.getAccountId(),
+                new BigDecimal[]{BigDecimal.ZERO.setScale(2), BigDecimal.ZERO.setScale(2)});
+
+            assertEquals(totals[0], CentsLedger.toAmount(ledger.debitCents(ordinal)));
+            assertEquals(totals[1], CentsLedger.toAmount(ledger.creditCents(ordinal)));
+
+            BigDecimal balance = CentsLedger.isDebitBalance(acc)
+                ? totals[0].subtract(totals[1])
+                : totals[1].subtract(totals[0]);
+            assertEquals(balance, CentsLedger.toAmount(ledger.balanceCents(ordinal)));
+            referenceBalances.put(acc.getAccountId(), balance);
+        }
+
+        // 科目树逐级汇总
+        long[] balances = ledger.balances();
+        for (FinanceAccount root : chart.getAllRoots()) {
+            assertTreeEquals(chart, chart.buildTree(root.getAccountId(), balances), referenceBalances);
+        }
+    }
+
+    @Test
+    void addTotalsMatchesPerRowAdds() {
+        Random random = new Random(7L);
+        ChartOfAccounts chart = new ChartOfAccounts(randomAccounts(random, 20));
+
+        Map<Long, BigDecimal[]> totals = new HashMap<>();
+        CentsLedger perRow = new CentsLedger(chart);
+        for (FinanceAccount acc : chart.getAccounts()) {
+            BigDecimal debit = randomAmount(random);
+            BigDecimal credit = randomAmount(random);
+            totals.put(acc.getAccountId(), new BigDecimal[]{debit, credit});
+            perRow.add(acc.getAccountId(), CentsLedger.DEBIT, debit);
+            perRow.add(acc.getAccountId(), CentsLedger.CREDIT, credit);
+        }
+
+        CentsLedger bulk = new CentsLedger(chart);
+        bulk.addTotals(totals);
+        assertArrayEquals(perRow.balances(), bulk.balances());
+    }
+
+    @Test
+    void conversionRoundTripsAndRejectsLossyInput() {
+        assertEquals(new BigDecimal("9999999999999.99"),
+            CentsLedger.toAmount(CentsLedger.toCents(new BigDecimal("9999999999999.99"))));
+        assertEquals(new BigDecimal("-0.01"), CentsLedger.toAmount(CentsLedger.toCents(new BigDecimal("-0.01"))));
+        assertEquals(150L, CentsLedger.toCents(new BigDecimal("1.5")));
+        assertEquals(0L, CentsLedger.toCents(null));
+        assertThrows(ArithmeticException.class, () -> CentsLedger.toCents(new BigDecimal("0.001")));
+
+        ChartOfAccounts chart = new ChartOfAccounts(randomAccounts(new Random(1L), 1));
+        CentsLedger ledger = new CentsLedger(chart);
+        ledger.addCents(0, CentsLedger.DEBIT, Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> ledger.addCents(0, CentsLedger.DEBIT, 1L));
+    }
+
+    private static BigDecimal assertTreeEquals(ChartOfAccounts chart, AccountTreeVO node,
+            Map<Long, BigDecimal> referenceBalances) {
+        BigDecimal expected = referenceBalances.get(node.getId());
+        for (AccountTreeVO child : node.getChildren()) {
+            expected = expected.add(assertTreeEquals(chart, child, referenceBalances));
+        }
+        assertEquals(expected, node.getAmount());
+        return expected;
+    }
+
+    private static List<FinanceAccount> randomAccounts(Random random, int count) {
+        List<FinanceAccount> accounts = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            FinanceAccount acc = new FinanceAccount();
+            acc.setAccountId((long) i);
+            acc.setAccountCode(String.valueOf(1000 + i));
+            acc.setAccountName("科目" + i);
+            acc.setAccountType(TYPES[random.nextInt(TYPES.length)]);
+            // 父科目只会指向更早的科目，保证无环
+            acc.setParentId(i > 1 && random.nextInt(3) > 0 ? (long) (1 + random.nextInt(i - 1)) : 0L);
+            accounts.add(acc);
+        }
+        return accounts;
+    }
+
+    private static BigDecimal randomAmount(Random random) {
+        long cents = random.nextInt(5) == 0
+            ? random.nextLong(-100_000_000_000L, 100_000_000_000L)
+            : random.nextLong(0, 1_000_000L);
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,165 @@
+package com.finance.financesystem.component;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 追加式日志：重启恢复、末尾残缺记录截断、跨段与检查点
+ */
+class MappedJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+    /** 记录头 8 字节 + 内容 100 字节，一段放 9 条 */
+    private static final int PAYLOAD_SIZE = 100;
+    private static final int RECORD_SIZE = 8 + PAYLOAD_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenReplaysDurableRecords() throws Exception {
+        List<Long> ends = new ArrayList<>();
+        try (MappedJournal journal = open(0L)) {
+            for (int i = 0; i < 3; i++) {
+                ends.add(journal.append(payload(i)));
+            }
+            journal.awaitDurable(ends.get(2));
+        }
+
+        try (MappedJournal journal = new MappedJournal(dir, SEGMENT_SIZE)) {
+            assertEquals(0L, journal.open(null));
+            List<MappedJournal.Record> records = journal.read(0L, 10);
+            assertEquals(List.of("0", "1", "2"), texts(records));
+            assertEquals(ends, records.stream().map(MappedJournal.Record::endOffset).toList());
+
+            // 从检查点重放只读到之后的记录
+            assertEquals(List.of("2"), texts(journal.read(ends.get(1), 10)));
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedAndOverwritten() throws Exception {
+        long secondEnd;
+        try (MappedJournal journal = open(0L)) {
+            journal.append(payload(0));
+            secondEnd = journal.append(payload(1));
+            journal.awaitDurable(journal.append(payload(2)));
+        }
+        // 第 3 条记录内容损坏 (CRC 不符)，模拟断电时只写了一部分
+        corrupt(segmentFile(0L), 2L * RECORD_SIZE + 8 + 50);
+
+        try (MappedJournal journal = open(0L)) {
+            assertEquals(List.of("0", "1"), texts(journal.read(0L, 10)));
+            assertEquals(secondEnd, journal.stats().get("writeOffset"));
+
+            long end = journal.append(payload(7));
+            assertEquals(secondEnd + RECORD_SIZE, end);
+            journal.awaitDurable(end);
+        }
+        try (MappedJournal journal = open(0L)) {
+            assertEquals(List.of("0", "1", "7"), texts(journal.read(0L, 10)));
+        }
+    }
+
+    @Test
+    void lengthBeyondSegmentEndsTheLog() throws Exception {
+        try (MappedJournal journal = open(0L)) {
+            journal.awaitDurable(journal.append(payload(0)));
+        }
+        try (FileChannel channel = FileChannel.open(segmentFile(0L), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, SEGMENT_SIZE), RECORD_SIZE);
+        }
+        try (MappedJournal journal = open(0L)) {
+            assertEquals(List.of("0"), texts(journal.read(0L, 10)));
+            assertEquals((long) RECORD_SIZE, journal.stats().get("writeOffset"));
+        }
+    }
+
+    @Test
+    void corruptionInEarlierSegmentDropsLaterSegments() throws Exception {
+        long last;
+        try (MappedJournal journal = open(0L)) {
+            last = 0;
+            for (int i = 0; i < 12; i++) {
+                last = journal.append(payload(i));
+            }
+            journal.awaitDurable(last);
+        }
+        assertTrue(Files.exists(segmentFile(SEGMENT_SIZE)));
+        corrupt(segmentFile(0L), 5L * RECORD_SIZE + 8);
+
+        try (MappedJournal journal = open(0L)) {
+            assertEquals(List.of("0", "1", "2", "3", "4"), texts(journal.read(0L, 20)));
+            assertFalse(Files.exists(segmentFile(SEGMENT_SIZE)));
+        }
+    }
+
+    @Test
+    void recordsRollToNextSegmentAndCheckpointReleasesOldOnes() throws Exception {
+        List<Long> ends = new ArrayList<>();
+        try (MappedJournal journal = open(0L)) {
+            for (int i = 0; i < 12; i++) {
+                ends.add(journal.append(payload(i)));
+            }
+            journal.awaitDurable(ends.get(11));
+            // 第 10 条放不下，从第二段开头写
+            assertEquals(SEGMENT_SIZE + (long) RECORD_SIZE, ends.get(9));
+            assertEquals(12, journal.read(0L, 20).size());
+        }
+
+        long checkpoint = ends.get(9);
+        try (MappedJournal journal = open(checkpoint)) {
+            assertFalse(Files.exists(segmentFile(0L)));
+            assertEquals(List.of("10", "11"), texts(journal.read(checkpoint, 20)));
+        }
+        assertThrows(IllegalStateException.class, () -> open(0L));
+    }
+
+    private MappedJournal open(Long fromOffset) throws IOException {
+        MappedJournal journal = new MappedJournal(dir, SEGMENT_SIZE);
+        journal.open(fromOffset);
+        return journal;
+    }
+
+    private Path segmentFile(long base) {
+        return dir.resolve(String.format("%020d.journal", base));
+    }
+
+    private static void corrupt(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 0x5A));
+            b.rewind();
+            channel.write(b, position);
+        }
+    }
+
+    /**
+     * 固定长度的记录，内容为编号后补空格
+     */
+    private static byte[] payload(int n) {
+        byte[] bytes = new byte[PAYLOAD_SIZE];
+        Arrays.fill(bytes, (byte) ' ');
+        byte[] text = String.valueOf(n).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(text, 0, bytes, 0, text.length);
+        return bytes;
+    }
+
+    private static List<String> texts(List<MappedJournal.Record> records) {
+        return records.stream().map(r -> new String(r.payload(), StandardCharsets.UTF_8).trim()).toList();
+    }
+}
@@ -0,0 +1,119 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.OpenItemVO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 收付款与未结发票匹配：金额相等优先、先到期先核销、部分核销、指定发票
+ */
+class OpenItemMatcherTest {
+
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void exactAmountWinsOverEarlierDueDate() {
+        OpenItemMatcher matcher = matcher(
+            item(1, 7, "SALE", 10, "100.00", "0"),
+            item(2, 7, "SALE", 20, "250.00", "0"));
+
+        List<OpenItemMatcher.Allocation> sink = new ArrayList<>();
+        assertEquals(0, matcher.match(7, "SALE", null, null, 250_00L, sink));
+        assertEquals(List.of("2:25000"), describe(sink));
+        assertEquals(0, sink.get(0).item().getOutstandingCents());
+        assertEquals(250_00L, sink.get(0).item().getPaidCents());
+    }
+
+    @Test
+    void fifoAllocationWithPartialLastItem() {
+        OpenItemMatcher matcher = matcher(
+            item(3, 7, "SALE", 30, "80.00", "30.00"),
+            item(1, 7, "SALE", 10, "100.00", "0"),
+            item(2, 7, "SALE", 20, "40.00", "0"));
+
+        List<OpenItemMatcher.Allocation> sink = new ArrayList<>();
+        assertEquals(0, matcher.match(7, "SALE", null, null, 120_00L, sink));
+        assertEquals(List.of("1:10000", "2:2000"), describe(sink));
+
+        // 部分核销后按新的未结金额重新挂到金额索引上
+        sink.clear();
+        assertEquals(0, matcher.match(7, "SALE", null, null, 50_00L, sink));
+        assertEquals(List.of("3:5000"), describe(sink));
+
+        sink.clear();
+        assertEquals(0, matcher.match(7, "SALE", null, null, 20_00L, sink));
+        assertEquals(List.of("2:2000"), describe(sink));
+
+        // 全部结清后的余额原样返回
+        sink.clear();
+        assertEquals(10_00L, matcher.match(7, "SALE", null, null, 10_00L, sink));
+        assertTrue(sink.isEmpty());
+    }
+
+    @Test
+    void overpaymentReturnsUnappliedRemainder() {
+        OpenItemMatcher matcher = matcher(
+            item(1, 7, "SALE", 10, "100.00", "0"),
+            item(2, 7, "SALE", 20, "40.00", "0"));
+
+        List<OpenItemMatcher.Allocation> sink = new ArrayList<>();
+        assertEquals(60_00L, matcher.match(7, "SALE", null, null, 200_00L, sink));
+        assertEquals(List.of("1:10000", "2:4000"), describe(sink));
+    }
+
+    @Test
+    void hintedInvoiceFirstThenFifo() {
+        OpenItemMatcher matcher = matcher(
+            item(1, 7, "SALE", 10, "100.00", "0"),
+            item(2, 7, "SALE", 20, "40.00", "0"),
+            item(9, 8, "SALE", 5, "70.00", "0"));
+
+        List<OpenItemMatcher.Allocation> sink = new ArrayList<>();
+        assertEquals(0, matcher.match(7, "SALE", null, "INV-2", 60_00L, sink));
+        assertEquals(List.of("2:4000", "1:2000"), describe(sink));
+
+        // 指定的发票不属于该往来单位时忽略
+        sink.clear();
+        assertEquals(0, matcher.match(7, "SALE", 9L, null, 10_00L, sink));
+        assertEquals(List.of("1:1000"), describe(sink));
+    }
+
+    @Test
+    void partiesAndTypesAreIsolatedAndSettledItemsSkipped() {
+        OpenItemMatcher matcher = matcher(
+            item(1, 7, "SALE", 10, "100.00", "100.00"),
+            item(2, 7, "PURCHASE", 10, "100.00", "0"),
+            item(3, 8, "SALE", 10, "100.00", "0"));
+        assertEquals(2, matcher.size());
+
+        List<OpenItemMatcher.Allocation> sink = new ArrayList<>();
+        assertEquals(100_00L, matcher.match(7, "SALE", 1L, null, 100_00L, sink));
+        assertTrue(sink.isEmpty());
+        assertEquals(0, matcher.match(7, "PURCHASE", null, null, 100_00L, sink));
+        assertEquals(List.of("2:10000"), describe(sink));
+    }
+
+    private static OpenItemMatcher matcher(OpenItemVO... items) {
+        OpenItemMatcher matcher = new OpenItemMatcher();
+        for (OpenItemVO item : items) {
+            matcher.add(item);
+        }
+        matcher.seal();
+        return matcher;
+    }
+
+    private static OpenItemVO item(long id, long customerId, String type, int dueDay, String total, String paid) {
+        return new OpenItemVO(id, customerId, type, "INV-" + id, JAN.plusDays(dueDay),
+            new BigDecimal(total), new BigDecimal(paid));
+    }
+
+    private static List<String> describe(List<OpenItemMatcher.Allocation> sink) {
+        return sink.stream().map(a -> a.item().invoiceId + ":" + a.cents()).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.finance.financesystem.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 工资计算：个税税率表档位边界、单人计算与部门合计
+ */
+class PayrollCalculatorTest {
+
+    private static final PayrollCalculator.Rates RATES =
+        new PayrollCalculator.Rates(1050, 700, 3_000_00L, 30_000_00L, 5_000_00L);
+
+    @Test
+    void incomeTaxIsContinuousAcrossBracketEdges() {
+        long[] uppers = {3_000_00L, 12_000_00L, 25_000_00L, 35_000_00L, 55_000_00L, 80_000_00L};
+        long[] taxAtUpper = {90_00L, 990_00L, 3_590_00L, 6_090_00L, 12_090_00L, 20_840_00L};
+        for (int i = 0; i < uppers.length; i++) {
+            assertEquals(taxAtUpper[i], PayrollCalculator.incomeTax(uppers[i]), "上限 " + uppers[i]);
+            // 速算扣除数保证跨档不跳变：多 1 分只按高一档税率多交不到 1 分
+            assertEquals(taxAtUpper[i], PayrollCalculator.incomeTax(uppers[i] + 1), "上限 + 1 分 " + uppers[i]);
+        }
+    }
+
+    @Test
+    void incomeTaxKnownValues() {
+        assertEquals(0, PayrollCalculator.incomeTax(0));
+        assertEquals(0, PayrollCalculator.incomeTax(-1_000_00L));
+        assertEquals(0, PayrollCalculator.incomeTax(16));
+        assertEquals(1, PayrollCalculator.incomeTax(17));
+        assertEquals(60_00L, PayrollCalculator.incomeTax(2_000_00L));
+        assertEquals(790_00L, PayrollCalculator.incomeTax(10_000_00L));
+        assertEquals(29_840_00L, PayrollCalculator.incomeTax(100_000_00L));
+    }
+
+    @Test
+    void computeFillsPerEmployeeResultsAndDepartmentTotals() {
+        PayrollCalculator.Batch batch = new PayrollCalculator.Batch(4);
+        // 0：基本工资 20000，缴费基数在上下限之间
+        batch.department[0] = 0;
+        batch.basic[0] = 20_000_00L;
+        // 1：基本工资低于缴费基数下限，按下限缴费
+        batch.department[1] = 1;
+        batch.basic[1] = 2_000_00L;
+        batch.bonus[1] = 500_00L;
+        // 2：没有基本工资
+        batch.department[2] = 1;
+        // 3：扣款超过应发
+        batch.department[3] = 0;
+        batch.basic[3] = 1_000_00L;
+        batch.deduction[3] = 2_000_00L;
+
+        long[] totals = PayrollCalculator.compute(batch, 2, RATES);
+
+        assertEquals(PayrollCalculator.OK, batch.status[0]);
+        assertEquals(20_000_00L, batch.gross[0]);
+        assertEquals(2_100_00L, batch.social[0]);
+        assertEquals(1_400_00L, batch.housing[0]);
+        assertEquals(940_00L, batch.tax[0]);
+        assertEquals(15_560_00L, batch.net[0]);
+
+        assertEquals(PayrollCalculator.OK, batch.status[1]);
+        assertEquals(2_500_00L, batch.gross[1]);
+        assertEquals(315_00L, batch.social[1]);
+        assertEquals(210_00L, batch.housing[1]);
+        assertEquals(0, batch.tax[1]);
+        assertEquals(1_975_00L, batch.net[1]);
+
+        assertEquals(PayrollCalculator.NO_SALARY, batch.status[2]);
+        assertEquals(PayrollCalculator.OVERDRAWN, batch.status[3]);
+
+        int w = PayrollCalculator.WIDTH;
+        assertEquals(1, totals[PayrollCalculator.EMPLOYEES]);
+        assertEquals(15_560_00L, totals[PayrollCalculator.NET]);
+        assertEquals(1, totals[w + PayrollCalculator.EMPLOYEES]);
+        assertEquals(2_500_00L, totals[w + PayrollCalculator.GROSS]);
+    }
+
+    @Test
+    void parallelTotalsMatchSequentialSum() {
+        int size = 50_000;
+        PayrollCalculator.Batch batch = new PayrollCalculator.Batch(size);
+        Random random = new Random(42L);
+        for (int i = 0; i < size; i++) {
+            batch.department[i] = random.nextInt(7);
+            batch.basic[i] = random.nextLong(0, 60_000_00L);
+            batch.bonus[i] = random.nextLong(0, 10_000_00L);
+            batch.special[i] = random.nextLong(0, 3_000_00L);
+        }
+        long[] totals = PayrollCalculator.compute(batch, 7, RATES);
+
+        long[] expected = new long[7 * PayrollCalculator.WIDTH];
+        for (int i = 0; i < size; i++) {
+            if (batch.status[i] != PayrollCalculator.OK) {
+                continue;
+            }
+            int o = batch.department[i] * PayrollCalculator.WIDTH;
+            expected[o + PayrollCalculator.EMPLOYEES]++;
+            expected[o + PayrollCalculator.GROSS] += batch.gross[i];
+            expected[o + PayrollCalculator.NET] += batch.net[i];
+            expected[o + PayrollCalculator.SOCIAL] += batch.social[i];
+            expected[o + PayrollCalculator.HOUSING] += batch.housing[i];
+            expected[o + PayrollCalculator.TAX] += batch.tax[i];
+            assertEquals(batch.gross[i],
+                batch.social[i] + batch.housing[i] + batch.tax[i] + batch.net[i]);
+        }
+        assertArrayEquals(expected, totals);
+    }
+}
@@ -0,0 +1,83 @@
+package com.finance.financesystem.component;
+
+import com.finance.financesystem.entity.ReconcileSplitVO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 银行对账单匹配：金额带方向、按日期窗口由近到远探测、每条分录只用一次
+ */
+class StatementMatcherTest {
+
+    private static final LocalDate D10 = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void probesSameDayThenEarlierThenLater() {
+        StatementMatcher matcher = new StatementMatcher(3);
+        matcher.add(split(1, D10.plusDays(1), 1, "100.00"));
+        matcher.add(split(2, D10.minusDays(1), 1, "100.00"));
+        matcher.add(split(3, D10, 1, "100.00"));
+
+        assertEquals(3L, matcher.match(100_00L, D10).splitId());
+        // 同样相差一天时账面日期早的优先
+        assertEquals(2L, matcher.match(100_00L, D10).splitId());
+        assertEquals(1L, matcher.match(100_00L, D10).splitId());
+        assertNull(matcher.match(100_00L, D10));
+    }
+
+    @Test
+    void windowBoundsAreInclusive() {
+        StatementMatcher matcher = new StatementMatcher(2);
+        matcher.add(split(1, D10, 1, "50.00"));
+
+        assertNull(matcher.match(50_00L, D10.plusDays(3)));
+        assertNull(matcher.match(50_00L, D10.minusDays(3)));
+        assertEquals(1L, matcher.match(50_00L, D10.plusDays(2)).splitId());
+    }
+
+    @Test
+    void zeroAndNegativeWindowOnlyMatchSameDay() {
+        for (int window : new int[]{0, -5}) {
+            StatementMatcher matcher = new StatementMatcher(window);
+            matcher.add(split(1, D10, 1, "50.00"));
+            assertNull(matcher.match(50_00L, D10.plusDays(1)));
+            assertEquals(1L, matcher.match(50_00L, D10).splitId());
+        }
+    }
+
+    @Test
+    void creditSplitsMatchNegativeStatementAmounts() {
+        StatementMatcher matcher = new StatementMatcher(1);
+        matcher.add(split(1, D10, -1, "80.00"));
+        matcher.add(split(2, D10, 1, "80.00"));
+
+        assertEquals(1L, matcher.match(-80_00L, D10).splitId());
+        assertNull(matcher.match(-80_00L, D10));
+        assertEquals(2L, matcher.match(80_00L, D10).splitId());
+        assertNull(matcher.match(80_01L, D10));
+    }
+
+    @Test
+    void unmatchedKeepsInsertionOrderWithinRange() {
+        StatementMatcher matcher = new StatementMatcher(0);
+        matcher.add(split(1, D10, 1, "10.00"));
+        matcher.add(split(2, D10.plusDays(5), 1, "20.00"));
+        matcher.add(split(3, D10.minusDays(1), 1, "30.00"));
+        matcher.add(split(4, D10.plusDays(1), 1, "40.00"));
+        matcher.match(40_00L, D10.plusDays(1));
+
+        List<Long> ids = matcher.unmatched(D10.minusDays(1), D10.plusDays(1)).stream()
+            .map(ReconcileSplitVO::splitId).toList();
+        assertEquals(List.of(1L, 3L), ids);
+        assertEquals(4, matcher.size());
+    }
+
+    private static ReconcileSplitVO split(long id, LocalDate date, int dc, String amount) {
+        return new ReconcileSplitVO(id, id, "记-" + id, date, 1001L, dc, new BigDecimal(amount), null);
+    }
+}